@@ -0,0 +1,21 @@
+package MindChatBot.mindChatBot.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Runs on every MVC request that has no ?lang= parameter. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderLocaleInterceptorBenchmark {
+
+    @Param({"ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7", "ru", "en-US,en;q=0.5", ""})
+    public String acceptLanguage;
+
+    @Benchmark
+    public Locale resolveFromHeader() {
+        return HeaderLocaleInterceptor.resolveFromHeader(acceptLanguage);
+    }
+}
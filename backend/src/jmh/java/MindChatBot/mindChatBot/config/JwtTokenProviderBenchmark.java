@@ -0,0 +1,46 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.benchmark.BenchSupport;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Per-request JWT work in the stateless/Bearer path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider provider;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        provider = new JwtTokenProvider(new JwtKeyProperties());
+        BenchSupport.setField(provider, "secretKeyValue", "benchmark-secret-benchmark-secret-benchmark!");
+        BenchSupport.setField(provider, "accessTtl", Duration.ofHours(1));
+        BenchSupport.setField(provider, "refreshTtl", Duration.ofDays(7));
+        provider.init();
+        accessToken = provider.createAccessToken("bench@example.com",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Benchmark
+    public Object parseClaims() {
+        return provider.parseClaims(accessToken);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return provider.getAuthentication(accessToken);
+    }
+
+    @Benchmark
+    public String createAccessToken() {
+        return provider.createAccessToken("bench@example.com", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
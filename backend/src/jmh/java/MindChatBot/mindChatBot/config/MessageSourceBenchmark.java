@@ -0,0 +1,45 @@
+package MindChatBot.mindChatBot.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** One #{...} lookup, as done dozens of times per page render: reloadable (dev) vs preloaded (prod). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageSourceBenchmark {
+
+    @Param({"reloadable", "preloaded"})
+    public String source;
+
+    /** ko-KR exercises the language fallback; fr falls through to the base file. */
+    @Param({"ko", "ko-KR", "fr"})
+    public String locale;
+
+    private MessageSource messageSource;
+    private Locale resolvedLocale;
+
+    @Setup
+    public void setup() {
+        if ("preloaded".equals(source)) {
+            messageSource = new PreloadedMessageSource("classpath:messages");
+        } else {
+            ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
+            ms.setBasename("classpath:messages");
+            ms.setDefaultEncoding("UTF-8");
+            ms.setFallbackToSystemLocale(false);
+            ms.setCacheSeconds(1);
+            messageSource = ms;
+        }
+        resolvedLocale = Locale.forLanguageTag(locale);
+    }
+
+    @Benchmark
+    public String lookup() {
+        return messageSource.getMessage("app.title", null, resolvedLocale);
+    }
+}
@@ -0,0 +1,81 @@
+package MindChatBot.mindChatBot.controller;
+
+import MindChatBot.mindChatBot.config.PreloadedMessageSource;
+import jakarta.servlet.ServletContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full render of the Thymeleaf views the way ViewController serves them.
+ * dev = template cache off + reloadable bundles (application.yml defaults);
+ * prod = template cache on + PreloadedMessageSource (application-prod.yml).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRenderBenchmark {
+
+    @Param({"index", "notes", "statistics", "login", "signup"})
+    public String template;
+
+    @Param({"dev", "prod"})
+    public String mode;
+
+    @Param({"en", "ko"})
+    public String lang;
+
+    private SpringTemplateEngine engine;
+    private JakartaServletWebApplication application;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        boolean prod = "prod".equals(mode);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(prod);
+
+        engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setMessageSource(prod ? new PreloadedMessageSource("classpath:messages") : reloadable());
+
+        ServletContext servletContext = new MockServletContext();
+        application = JakartaServletWebApplication.buildApplication(servletContext);
+
+        request = new MockHttpServletRequest(servletContext, "GET", "/" + template);
+        request.addParameter("lang", lang);
+        request.setAttribute("_csrf", new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "bench-token"));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String render() {
+        WebContext context = new WebContext(application.buildExchange(request, response), Locale.forLanguageTag(lang));
+        return engine.process(template, context);
+    }
+
+    private static MessageSource reloadable() {
+        ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
+        ms.setBasename("classpath:messages");
+        ms.setDefaultEncoding("UTF-8");
+        ms.setFallbackToSystemLocale(false);
+        ms.setCacheSeconds(1);
+        return ms;
+    }
+}
@@ -0,0 +1,31 @@
+package MindChatBot.mindChatBot.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Called by Spring Security on every authentication and authority check. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = User.builder()
+                .email("bench@example.com")
+                .roles(List.of("USER", "ROLE_ADMIN"))
+                .isVerified(true)
+                .build();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
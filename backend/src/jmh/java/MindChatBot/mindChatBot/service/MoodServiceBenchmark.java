@@ -0,0 +1,52 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.benchmark.BenchSupport;
+import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.repository.MoodRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** getMoodStatistics over a user's full mood history (one entry per day). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoodServiceBenchmark {
+
+    private static final String[][] MOODS = {
+            {"best", "proud"}, {"good", "calm"}, {"neutral", "tired"},
+            {"poor", "nervous"}, {"bad", "sad"}, {"good", "hopeful"}
+    };
+
+    @Param({"0", "30", "365", "3650"})
+    public int moodCount;
+
+    private MoodService moodService;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Mood> moods = new ArrayList<>(moodCount);
+        for (int i = 0; i < moodCount; i++) {
+            String[] pick = MOODS[random.nextInt(MOODS.length)];
+            moods.add(Mood.builder()
+                    .userId("bench@example.com")
+                    .year(2020 + i / 365).month(1 + (i / 28) % 12).day(1 + i % 28)
+                    .emoji(pick[0]).subMood(pick[1])
+                    .build());
+        }
+
+        moodService = new MoodService();
+        BenchSupport.setField(moodService, "moodRepository",
+                BenchSupport.repository(MoodRepository.class, Map.of("findByUserId", args -> moods)));
+    }
+
+    @Benchmark
+    public Map<String, Object> getMoodStatistics() {
+        return moodService.getMoodStatistics("bench@example.com");
+    }
+}
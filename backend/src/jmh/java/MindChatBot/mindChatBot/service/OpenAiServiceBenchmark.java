@@ -0,0 +1,67 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.benchmark.BenchSupport;
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.repository.ChatLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Request assembly and response parsing around the OpenAI call (no network). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OpenAiServiceBenchmark {
+
+    @Param({"0", "5", "50"})
+    public int historySize;
+
+    @Param({"en", "ko"})
+    public String lang;
+
+    private OpenAiService service;
+    private List<ChatLog> history;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setup() {
+        service = new OpenAiService(WebClient.builder(),
+                new BlockingChatLogStore(BenchSupport.repository(ChatLogRepository.class, Map.of())),
+                new ChatMetrics(new SimpleMeterRegistry()),
+                "http://localhost/v1");
+        BenchSupport.setField(service, "model", "gpt-4o-mini");
+        BenchSupport.setField(service, "systemPrompt", "You are a kind, emotionally smart mental health assistant.");
+
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(new ChatLog("bench@example.com",
+                    "I had a long day at work and I keep thinking about message " + i + ". ".repeat(20),
+                    "That sounds exhausting. What part of the day is staying with you the most?"));
+        }
+
+        response = Map.of(
+                "id", "chatcmpl-bench",
+                "model", "gpt-4o-mini",
+                "choices", List.of(Map.of(
+                        "index", 0,
+                        "message", Map.of("role", "assistant",
+                                "content", "It makes sense to feel drained after a day like that. Want to talk through it?"),
+                        "finish_reason", "stop")),
+                "usage", Map.of("prompt_tokens", 180, "completion_tokens", 24, "total_tokens", 204));
+    }
+
+    @Benchmark
+    public Map<String, Object> buildChatRequest() {
+        return service.buildChatRequest(history, "Today I felt a bit better than yesterday.", "bench", lang);
+    }
+
+    @Benchmark
+    public String extractMessage() {
+        return service.extractMessage(response).block();
+    }
+}
@@ -0,0 +1,60 @@
+package MindChatBot.mindChatBot.loadtest;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Upstream latency model for the mock LLM, parsed from a short spec:
+ * <ul>
+ *   <li>{@code fixed:300} — always 300 ms</li>
+ *   <li>{@code uniform:200-900} — uniform between the bounds</li>
+ *   <li>{@code lognormal:800:0.5} — median 800 ms, sigma 0.5 (long right tail, like real LLM calls)</li>
+ * </ul>
+ */
+public final class LatencyDistribution {
+
+    private final String kind;
+    private final double a;
+    private final double b;
+
+    private LatencyDistribution(String kind, double a, double b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> new LatencyDistribution("fixed", Double.parseDouble(parts[1]), 0);
+                case "uniform" -> {
+                    String[] range = parts[1].split("-");
+                    yield new LatencyDistribution("uniform", Double.parseDouble(range[0]), Double.parseDouble(range[1]));
+                }
+                case "lognormal" -> new LatencyDistribution("lognormal", Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default -> throw new IllegalArgumentException("Unknown latency kind: " + parts[0]);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Bad latency spec '" + spec + "'", e);
+        }
+    }
+
+    public long sampleMillis(Random random) {
+        double ms = switch (kind) {
+            case "fixed" -> a;
+            case "uniform" -> a + random.nextDouble() * (b - a);
+            default -> a * Math.exp(b * random.nextGaussian());
+        };
+        return Math.max(0, Math.round(ms));
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case "fixed" -> "fixed:" + (long) a;
+            case "uniform" -> "uniform:" + (long) a + "-" + (long) b;
+            default -> "lognormal:" + (long) a + ":" + b;
+        };
+    }
+}
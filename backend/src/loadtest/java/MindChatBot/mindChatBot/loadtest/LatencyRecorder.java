@@ -0,0 +1,57 @@
+package MindChatBot.mindChatBot.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Collects per-endpoint latencies and outcomes; percentiles are computed once at the end. */
+public final class LatencyRecorder {
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean ok) {
+        series.computeIfAbsent(endpoint, k -> new Series()).add(nanos, ok);
+    }
+
+    public Map<String, Summary> summarize(Duration elapsed) {
+        Map<String, Summary> out = new TreeMap<>();
+        series.forEach((endpoint, s) -> out.put(endpoint, s.summarize(elapsed)));
+        return out;
+    }
+
+    public record Summary(long count, long errors, double throughputPerSec,
+                          double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+        public double errorRate() {
+            return count == 0 ? 0.0 : (double) errors / count;
+        }
+    }
+
+    private static final class Series {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long nanos, boolean ok) {
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            if (!ok) errors++;
+        }
+
+        synchronized Summary summarize(Duration elapsed) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            double secs = Math.max(0.001, elapsed.toNanos() / 1e9);
+            return new Summary(size, errors, size / secs,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int idx = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, idx))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package MindChatBot.mindChatBot.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule (target RPS)
+ * regardless of how fast earlier ones finish, so a slow server shows up as latency and
+ * errors instead of silently lowering the offered load. Each virtual user has its own
+ * cookie jar and logs in through the real form login first.
+ */
+public final class LoadDriver {
+
+    /** Scenario mix; weights are relative. */
+    private static final Scenario[] MIX = {
+            new Scenario("POST /api/chat", 30),
+            new Scenario("POST /user/moods/save", 15),
+            new Scenario("POST /user/notes", 15),
+            new Scenario("GET /user/moods/stats", 25),
+            new Scenario("GET /statistics", 15),
+    };
+    private static final String[][] MOODS = {
+            {"best", "grateful"}, {"good", "calm"}, {"neutral", "tired"}, {"poor", "nervous"}, {"bad", "lonely"}
+    };
+
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final ExecutorService httpExecutor = Executors.newFixedThreadPool(
+            Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+    private final List<VirtualUser> users = new ArrayList<>();
+
+    public LoadDriver(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    /** Logs every user in (recorded as "POST /login"); users whose login fails are left out. */
+    public void login(List<String[]> credentials) throws InterruptedException {
+        for (String[] c : credentials) {
+            VirtualUser u = new VirtualUser(c[0]);
+            long start = System.nanoTime();
+            boolean ok = false;
+            try {
+                ok = u.login(c[1]);
+            } catch (IOException e) {
+                // counted as an error below
+            }
+            recorder.record("POST /login", System.nanoTime() - start, ok);
+            if (ok) users.add(u);
+        }
+        if (users.isEmpty()) throw new IllegalStateException("No virtual user could log in");
+    }
+
+    /** Offers {@code rps} requests per second for {@code duration}, then waits for stragglers. */
+    public Duration run(double rps, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / rps);
+        long total = (long) (rps * duration.toNanos() / 1e9);
+        int totalWeight = 0;
+        for (Scenario s : MIX) totalWeight += s.weight;
+
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            VirtualUser u = users.get(random.nextInt(users.size()));
+            int pick = random.nextInt(totalWeight);
+            Scenario scenario = MIX[0];
+            for (Scenario s : MIX) {
+                if (pick < s.weight) { scenario = s; break; }
+                pick -= s.weight;
+            }
+            inFlight.add(fire(u, scenario.name));
+            if (inFlight.size() > 10_000) inFlight.removeIf(CompletableFuture::isDone);
+        }
+        Duration offered = Duration.ofNanos(System.nanoTime() - start);
+
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .orTimeout(120, TimeUnit.SECONDS)
+                .exceptionally(e -> null)
+                .join();
+        httpExecutor.shutdown();
+        return offered;
+    }
+
+    private CompletableFuture<?> fire(VirtualUser u, String endpoint) {
+        HttpRequest request = u.request(endpoint);
+        long start = System.nanoTime();
+        return u.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((resp, err) -> {
+                    boolean ok = err == null && resp.statusCode() < 400;
+                    recorder.record(endpoint, System.nanoTime() - start, ok);
+                    return null;
+                });
+    }
+
+    private record Scenario(String name, int weight) {}
+
+    private final class VirtualUser {
+        private final String email;
+        private final CookieManager cookies = new CookieManager();
+        private final HttpClient client;
+
+        VirtualUser(String email) {
+            this.email = email;
+            this.client = HttpClient.newBuilder()
+                    .cookieHandler(cookies)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(httpExecutor)
+                    .build();
+        }
+
+        /** GET /login for the XSRF-TOKEN cookie, then post the form like a browser would. */
+        boolean login(String password) throws IOException, InterruptedException {
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            String csrf = cookies.getCookieStore().getCookies().stream()
+                    .filter(c -> "XSRF-TOKEN".equals(c.getName()))
+                    .map(HttpCookie::getValue)
+                    .findFirst().orElse("");
+
+            String form = "username=" + enc(email) + "&password=" + enc(password) + "&_csrf=" + enc(csrf);
+            HttpResponse<Void> resp = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            String location = resp.headers().firstValue("Location").orElse("");
+            return resp.statusCode() == 302 && !location.contains("error");
+        }
+
+        HttpRequest request(String endpoint) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch (endpoint) {
+                case "POST /api/chat" -> json("/api/chat",
+                        "{\"message\":\"I keep replaying a conversation from work. How do I let it go?\",\"lang\":\"en\"}");
+                case "POST /user/moods/save" -> {
+                    LocalDate day = LocalDate.now().minusDays(random.nextInt(365));
+                    String[] mood = MOODS[random.nextInt(MOODS.length)];
+                    yield json("/user/moods/save", String.format(
+                            "{\"year\":%d,\"month\":%d,\"day\":%d,\"emoji\":\"%s\",\"subMood\":\"%s\",\"lang\":\"en\"}",
+                            day.getYear(), day.getMonthValue(), day.getDayOfMonth(), mood[0], mood[1]));
+                }
+                case "POST /user/notes" -> json("/user/notes", String.format(
+                        "{\"content\":\"Walked for an hour after dinner and felt calmer than yesterday.\",\"date\":\"%s\"}",
+                        LocalDate.now().minusDays(random.nextInt(90))));
+                case "GET /user/moods/stats" -> get("/user/moods/stats");
+                case "GET /statistics" -> get("/statistics");
+                default -> throw new IllegalArgumentException(endpoint);
+            };
+        }
+
+        private HttpRequest json(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .header("Accept-Language", "en")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+        }
+    }
+
+    private static String enc(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
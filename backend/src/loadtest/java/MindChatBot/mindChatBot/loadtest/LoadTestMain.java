@@ -0,0 +1,157 @@
+package MindChatBot.mindChatBot.loadtest;
+
+import MindChatBot.mindChatBot.MindChatBotApplication;
+import MindChatBot.mindChatBot.model.User;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Boots the application offline (in-memory Mongo wire server + mock LLM), seeds verified
+ * users, drives the scenario mix at the target rate and prints/writes a per-endpoint report.
+ * <p>
+ * Settings are system properties (the Gradle loadTest task forwards -Ploadtest.* ones):
+ * loadtest.rps (20), loadtest.duration (60s), loadtest.users (20), loadtest.latency
+ * (lognormal:800:0.5), loadtest.errorRate (0.01), loadtest.streamChunks (8), loadtest.profiles,
+ * loadtest.chatStore (blocking | reactive; reactive under the webflux profile), loadtest.chatWriteBehind (false).
+ * -Ploadtest.profiles=webflux runs the same mix against Netty WebFlux instead of Tomcat MVC.
+ */
+public final class LoadTestMain {
+
+    private static final String PASSWORD = "LoadTest#2024";
+
+    public static void main(String[] args) throws Exception {
+        double rps = Double.parseDouble(System.getProperty("loadtest.rps", "20"));
+        Duration duration = Duration.parse("PT" + System.getProperty("loadtest.duration", "60s").toUpperCase(Locale.ROOT));
+        int userCount = Integer.parseInt(System.getProperty("loadtest.users", "20"));
+        LatencyDistribution latency = LatencyDistribution.parse(System.getProperty("loadtest.latency", "lognormal:800:0.5"));
+        double errorRate = Double.parseDouble(System.getProperty("loadtest.errorRate", "0.01"));
+        int streamChunks = Integer.parseInt(System.getProperty("loadtest.streamChunks", "8"));
+        String profiles = System.getProperty("loadtest.profiles", "default");
+        String chatStore = System.getProperty("loadtest.chatStore", profiles.contains("webflux") ? "reactive" : "blocking");
+
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongo.bind(); // loopback, ephemeral port
+
+        int exit = 0;
+        try (MockOpenAiServer llm = new MockOpenAiServer(latency, errorRate, streamChunks)) {
+            String llmUrl = llm.start();
+
+            ConfigurableApplicationContext ctx = SpringApplication.run(MindChatBotApplication.class,
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=mongodb://127.0.0.1:" + mongoAddress.getPort() + "/mindChatBotDB",
+                    "--openai.api.base-url=" + llmUrl,
+                    "--openai.api.key=loadtest",
+                    "--jwt.secret=loadtest-secret-loadtest-secret-loadtest-secret",
+                    "--spring.mail.password=unused",
+                    "--management.health.mail.enabled=false",
+                    "--app.chat.daily-limit=1000000",
+                    "--app.llm.budget.enabled=false",
+                    "--app.rate-limit.enabled=false",
+                    "--app.chat.store=" + chatStore,
+                    "--app.chat.write-behind.enabled=" + System.getProperty("loadtest.chatWriteBehind", "false"),
+                    "--logging.level.MindChatBot.mindChatBot=WARN",
+                    "--spring.profiles.active=" + profiles);
+            try {
+                String baseUrl = "http://127.0.0.1:" + ctx.getEnvironment().getProperty("local.server.port");
+                List<String[]> credentials = seedUsers(ctx, userCount);
+
+                LatencyRecorder recorder = new LatencyRecorder();
+                LoadDriver driver = new LoadDriver(baseUrl, recorder);
+                driver.login(credentials);
+
+                String stack = ctx.getEnvironment().getProperty("spring.main.web-application-type", "servlet");
+                System.out.printf("Running %.1f req/s for %s against %s (%s, LLM latency %s, error rate %.3f, threads %s, chat store %s, write-behind %s)%n",
+                        rps, duration, baseUrl, stack, latency, errorRate,
+                        ctx.getEnvironment().getProperty("spring.threads.virtual.enabled", "platform")
+                                .equals("true") ? "virtual" : "platform",
+                        ctx.getEnvironment().getProperty("app.chat.store"),
+                        ctx.getEnvironment().getProperty("app.chat.write-behind.enabled"));
+                Duration offered = driver.run(rps, duration);
+
+                Map<String, LatencyRecorder.Summary> report = recorder.summarize(offered);
+                print(report);
+                Path out = write(report, rps, duration, latency, stack);
+                System.out.println("Report written to " + out.toAbsolutePath());
+            } finally {
+                ctx.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            exit = 1;
+        } finally {
+            mongo.shutdownNow();
+        }
+        System.exit(exit);
+    }
+
+    /** Verified users go straight into the repository; signup would need the mail server. */
+    private static List<String[]> seedUsers(ConfigurableApplicationContext ctx, int count) {
+        UserRepository users = ctx.getBean(UserRepository.class);
+        PasswordEncoder encoder = ctx.getBean(PasswordEncoder.class);
+        String hash = encoder.encode(PASSWORD);
+
+        List<String[]> credentials = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = "loadtest" + i + "@example.com";
+            users.save(User.builder().name("Load Test " + i).email(email).password(hash).isVerified(true).build());
+            credentials.add(new String[]{email, PASSWORD});
+        }
+        return credentials;
+    }
+
+    private static void print(Map<String, LatencyRecorder.Summary> report) {
+        System.out.printf("%n%-24s %8s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        report.forEach((endpoint, s) -> System.out.printf("%-24s %8d %9.2f %9.1f %9.1f %9.1f %9.1f %7.2f%%%n",
+                endpoint, s.count(), s.throughputPerSec(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs(), s.errorRate() * 100));
+    }
+
+    private static Path write(Map<String, LatencyRecorder.Summary> report, double rps, Duration duration,
+                              LatencyDistribution latency, String stack) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"rps\":").append(rps)
+                .append(",\"durationSeconds\":").append(duration.toSeconds())
+                .append(",\"llmLatency\":\"").append(latency).append("\"")
+                .append(",\"stack\":\"").append(stack).append("\"")
+                .append(",\"endpoints\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyRecorder.Summary> e : report.entrySet()) {
+            LatencyRecorder.Summary s = e.getValue();
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(e.getKey()).append("\":{")
+                    .append("\"count\":").append(s.count())
+                    .append(",\"errors\":").append(s.errors())
+                    .append(",\"errorRate\":").append(s.errorRate())
+                    .append(",\"throughput\":").append(s.throughputPerSec())
+                    .append(",\"p50Ms\":").append(s.p50Ms())
+                    .append(",\"p90Ms\":").append(s.p90Ms())
+                    .append(",\"p99Ms\":").append(s.p99Ms())
+                    .append(",\"maxMs\":").append(s.maxMs())
+                    .append('}');
+        }
+        json.append("}}");
+
+        Path dir = Path.of(System.getProperty("loadtest.reportDir", "build/reports/loadtest"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.writeString(file, json.toString());
+        return file;
+    }
+}
@@ -0,0 +1,113 @@
+package MindChatBot.mindChatBot.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for POST /v1/chat/completions. Sleeps for a sampled latency before the
+ * first byte, fails a configurable share of calls with 503, and answers either with a
+ * regular completion or, when the request asks for {@code "stream": true}, with SSE chunks.
+ * Mood-classifier prompts get a valid {"main","sub"} JSON reply so note saves succeed.
+ */
+public final class MockOpenAiServer implements AutoCloseable {
+
+    private static final String REPLY = "That sounds like a lot to carry today. "
+            + "What would help you feel a little lighter right now?";
+    private static final String CLASSIFIER_REPLY = "{\\\"main\\\":\\\"good\\\",\\\"sub\\\":\\\"hopeful\\\"}";
+
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final int streamChunks;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private HttpServer server;
+
+    public MockOpenAiServer(LatencyDistribution latency, double errorRate, int streamChunks) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.streamChunks = Math.max(1, streamChunks);
+    }
+
+    /** Binds an ephemeral port on loopback and returns the base URL ({@code http://127.0.0.1:port/v1}). */
+    public String start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            boolean stream = body.replace(" ", "").contains("\"stream\":true");
+            boolean classify = body.contains("emotion classifier");
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            sleep(latency.sampleMillis(random));
+
+            if (random.nextDouble() < errorRate) {
+                send(exchange, 503, "application/json",
+                        "{\"error\":{\"message\":\"mock overload\",\"type\":\"server_error\"}}");
+                return;
+            }
+
+            String content = classify ? CLASSIFIER_REPLY : REPLY;
+            if (stream) {
+                stream(exchange, content);
+            } else {
+                send(exchange, 200, "application/json", completion(content));
+            }
+        }
+    }
+
+    private void stream(HttpExchange exchange, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int step = Math.max(1, content.length() / streamChunks);
+        for (int i = 0; i < content.length(); i += step) {
+            String piece = content.substring(i, Math.min(content.length(), i + step));
+            out.write(("data: {\"object\":\"chat.completion.chunk\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\""
+                    + piece + "\"}}]}\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(15);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String completion(String content) {
+        return "{\"id\":\"chatcmpl-mock\",\"object\":\"chat.completion\",\"model\":\"mock\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"},"
+                + "\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":180,\"completion_tokens\":28,\"total_tokens\":208}}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) server.stop(0);
+        executor.shutdownNow();
+    }
+}
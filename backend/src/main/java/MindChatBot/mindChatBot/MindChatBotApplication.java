@@ -2,12 +2,18 @@ package MindChatBot.mindChatBot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 
 public class  MindChatBotApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(MindChatBotApplication.class, args);
+        SpringApplication app = new SpringApplication(MindChatBotApplication.class);
+        // Startup steps are kept for the timeline log and /actuator/startup
+        app.setApplicationStartup(new BufferingApplicationStartup(4096));
+        app.run(args);
     }
 }
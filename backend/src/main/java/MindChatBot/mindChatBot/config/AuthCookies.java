@@ -0,0 +1,75 @@
+package MindChatBot.mindChatBot.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * HttpOnly JWT cookies for the stateless web mode (app.auth.stateless=true):
+ * a short-lived access token plus a refresh token used to mint the next one.
+ */
+@Component
+public class AuthCookies {
+
+    public static final String ACCESS_COOKIE = "ACCESS_TOKEN";
+    public static final String REFRESH_COOKIE = "REFRESH_TOKEN";
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    @Value("${app.auth.stateless:false}")
+    private boolean stateless;
+
+    @Value("${app.auth.cookie-secure:true}")
+    private boolean secure;
+
+    public AuthCookies(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    public boolean isStateless() { return stateless; }
+
+    /** Issue both cookies right after a successful form login. */
+    public void issue(HttpServletResponse response, String email, Collection<? extends GrantedAuthority> authorities) {
+        writeAccess(response, email, authorities);
+        add(response, REFRESH_COOKIE, jwtTokenProvider.createRefreshToken(email), jwtTokenProvider.getRefreshTtl());
+    }
+
+    public void writeAccess(HttpServletResponse response, String email, Collection<? extends GrantedAuthority> authorities) {
+        add(response, ACCESS_COOKIE, jwtTokenProvider.createAccessToken(email, authorities), jwtTokenProvider.getAccessTtl());
+    }
+
+    public void clear(HttpServletResponse response) {
+        add(response, ACCESS_COOKIE, "", Duration.ZERO);
+        add(response, REFRESH_COOKIE, "", Duration.ZERO);
+    }
+
+    @Nullable
+    public static String read(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie c : cookies) {
+            if (name.equals(c.getName())) return c.getValue();
+        }
+        return null;
+    }
+
+    private void add(HttpServletResponse response, String name, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
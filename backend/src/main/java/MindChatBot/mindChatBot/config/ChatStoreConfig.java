@@ -0,0 +1,87 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.repository.ChatLogRepository;
+import MindChatBot.mindChatBot.service.BlockingChatLogStore;
+import MindChatBot.mindChatBot.service.ChatLogStore;
+import MindChatBot.mindChatBot.service.ReactiveChatLogStore;
+import MindChatBot.mindChatBot.service.WriteBehindChatLogStore;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.time.Duration;
+
+/**
+ * app.chat.store: blocking (default) runs the chat log queries through ChatLogRepository on
+ * boundedElastic; reactive uses the reactive-streams driver so the Mono chain stays on the
+ * driver's and WebClient's event loops. Boot's own reactive Mongo auto-configuration is
+ * excluded in application.yml, so no second client exists in blocking mode.
+ * <p>
+ * app.chat.write-behind.enabled puts a WriteBehindChatLogStore in front of either one.
+ */
+@Configuration
+public class ChatStoreConfig {
+
+    /** Qualifies the store that actually talks to Mongo, for the write-behind decorator. */
+    static final String BACKEND = "chatLogStoreBackend";
+
+    @Bean
+    @Qualifier(BACKEND)
+    @ConditionalOnProperty(name = "app.chat.store", havingValue = "blocking", matchIfMissing = true)
+    public ChatLogStore blockingChatLogStore(ChatLogRepository repository) {
+        return new BlockingChatLogStore(repository);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.chat.write-behind.enabled", havingValue = "true")
+    public WriteBehindChatLogStore writeBehindChatLogStore(@Qualifier(BACKEND) ChatLogStore backend,
+                                                           @Value("${app.chat.write-behind.capacity:10000}") int capacity,
+                                                           @Value("${app.chat.write-behind.batch-size:200}") int batchSize,
+                                                           @Value("${app.chat.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                                           MeterRegistry registry) {
+        return new WriteBehindChatLogStore(backend, capacity, batchSize, flushInterval, registry);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.chat.store", havingValue = "reactive")
+    static class Reactive {
+
+        @Bean(destroyMethod = "close")
+        public MongoClient reactiveMongoClient(@Value("${spring.data.mongodb.uri}") String mongoUri,
+                                               MongoQueryProfiler profiler,
+                                               @Value("${app.mongo.profiler.enabled:true}") boolean profilerEnabled) {
+            MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(mongoUri));
+            if (profilerEnabled) {
+                settings.addCommandListener(profiler);
+            }
+            return MongoClients.create(settings.build());
+        }
+
+        /** Shares MongoConfig's converter, so documents map exactly as they do for the repositories. */
+        @Bean
+        public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                           MappingMongoConverter mappingMongoConverter) {
+            return new ReactiveMongoTemplate(
+                    new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, "mindChatBotDB"), mappingMongoConverter);
+        }
+
+        @Bean
+        @Qualifier(BACKEND)
+        public ChatLogStore reactiveChatLogStore(ReactiveMongoTemplate reactiveMongoTemplate) {
+            return new ReactiveChatLogStore(reactiveMongoTemplate);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Client address for the per-IP rate limits. Behind a load balancer every request arrives from the
+ * proxy, so when the peer is one of app.rate-limit.trusted-proxies the address is taken from
+ * X-Forwarded-For instead: the right-most hop that is not itself a trusted proxy. Hops to the left of
+ * it were written by the client and are never believed.
+ */
+final class ClientIpResolver {
+
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9A-Fa-f:.]*:[0-9A-Fa-f:.]*");
+
+    private final List<IpAddressMatcher> trusted;
+
+    ClientIpResolver(List<String> trustedProxies) {
+        this.trusted = trustedProxies.stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * @param peer         the TCP peer address
+     * @param forwardedFor every X-Forwarded-For value, comma-joined (null if absent)
+     */
+    String resolve(@Nullable String peer, @Nullable String forwardedFor) {
+        if (!StringUtils.hasText(peer)) return "unknown";
+        if (!isTrusted(peer) || !StringUtils.hasText(forwardedFor)) return peer;
+
+        String client = peer;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = stripPort(hops[i].trim());
+            if (!isIpLiteral(hop)) break; // garbage from the client: keep the last hop a proxy vouched for
+            client = hop;
+            if (!isTrusted(hop)) break;
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (!isIpLiteral(address)) return false;
+        try {
+            for (IpAddressMatcher m : trusted) {
+                if (m.matches(address)) return true;
+            }
+        } catch (IllegalArgumentException malformed) {
+            // e.g. ":::" passes the literal check but doesn't parse
+        }
+        return false;
+    }
+
+    /** Literals only: IpAddressMatcher would otherwise be handed host names. */
+    private static boolean isIpLiteral(String s) {
+        return IPV4.matcher(s).matches() || IPV6.matcher(s).matches();
+    }
+
+    /** "1.2.3.4:5678" and "[::1]:5678" as some proxies write them. */
+    private static String stripPort(String hop) {
+        if (hop.startsWith("[")) {
+            int end = hop.indexOf(']');
+            return end > 0 ? hop.substring(1, end) : hop;
+        }
+        int colon = hop.indexOf(':');
+        return (colon > 0 && colon == hop.lastIndexOf(':')) ? hop.substring(0, colon) : hop;
+    }
+}
@@ -35,7 +35,7 @@ public class HeaderLocaleInterceptor implements HandlerInterceptor {
     }
 
     @Nullable
-    private Locale resolveFromHeader(@Nullable String header) {
+    static Locale resolveFromHeader(@Nullable String header) {
         if (!StringUtils.hasText(header)) return null;
         // Very small normalizer: only keep primary tag
         String tag = header.split(",")[0].trim(); // e.g. "ko-KR" or "ru"
@@ -1,5 +1,6 @@
 package MindChatBot.mindChatBot.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +8,7 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
 
@@ -15,8 +17,24 @@ import java.util.Locale;
 @Configuration
 public class I18nConfig implements WebMvcConfigurer {
 
+    @Value("${app.auth.stateless:false}")
+    private boolean stateless;
+
+    /** prod profile: bundles read once at startup; otherwise re-checked every second for editing. */
+    @Value("${app.i18n.preloaded:false}")
+    private boolean preloadedMessages;
+
+    @Value("${app.i18n.basename:classpath:messages}")
+    private String messagesBasename;
+
     @Bean
     public LocaleResolver localeResolver() {
+        if (stateless) {
+            // Stateless web mode has no HttpSession to hold the locale
+            CookieLocaleResolver clr = new CookieLocaleResolver("LANG");
+            clr.setDefaultLocale(Locale.ENGLISH);
+            return clr;
+        }
         SessionLocaleResolver slr = new SessionLocaleResolver();
         slr.setDefaultLocale(Locale.ENGLISH);
         return slr;
@@ -44,8 +62,11 @@ public class I18nConfig implements WebMvcConfigurer {
 
     @Bean
     public MessageSource messageSource() {
+        if (preloadedMessages) {
+            return new PreloadedMessageSource(messagesBasename);
+        }
         ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
-        ms.setBasename("classpath:messages");
+        ms.setBasename(messagesBasename);
         ms.setDefaultEncoding("UTF-8");
         ms.setFallbackToSystemLocale(false);
         ms.setCacheSeconds(1);
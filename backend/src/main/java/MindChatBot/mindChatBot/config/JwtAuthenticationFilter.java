@@ -1,14 +1,18 @@
         // File: MindChatBot/mindChatBot/config/JwtAuthenticationFilter.java
         package MindChatBot.mindChatBot.config;
 
+        import MindChatBot.mindChatBot.service.UserDetailService;
         import jakarta.servlet.FilterChain;
         import jakarta.servlet.ServletException;
         import jakarta.servlet.http.HttpServletRequest;
         import jakarta.servlet.http.HttpServletResponse;
         import lombok.RequiredArgsConstructor;
         import org.springframework.lang.Nullable;
+        import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
         import org.springframework.security.core.Authentication;
         import org.springframework.security.core.context.SecurityContextHolder;
+        import org.springframework.security.core.userdetails.UserDetails;
+        import org.springframework.security.core.userdetails.UsernameNotFoundException;
         import org.springframework.stereotype.Component;
         import org.springframework.util.StringUtils;
         import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,6 +24,8 @@
         public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             private final JwtTokenProvider jwtTokenProvider;
+            private final AuthCookies authCookies;
+            private final UserDetailService userDetailService;
 
             @Override
             protected void doFilterInternal(HttpServletRequest request,
@@ -39,15 +45,52 @@
                     }
                 }
 
+                // Stateless web mode: access cookie missing/expired -> mint a new one from the refresh cookie
+                if (authCookies.isStateless() && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    refreshFromCookie(request, response);
+                }
+
                 chain.doFilter(request, response);
             }
 
+            private void refreshFromCookie(HttpServletRequest request, HttpServletResponse response) {
+                String refresh = AuthCookies.read(request, AuthCookies.REFRESH_COOKIE);
+                if (!StringUtils.hasText(refresh)) return;
+
+                String email = jwtTokenProvider.getRefreshSubject(refresh);
+                if (email == null) {
+                    authCookies.clear(response);
+                    return;
+                }
+                try {
+                    // Re-check the account on refresh so disabled/deleted users drop out within one access TTL
+                    UserDetails user = userDetailService.loadUserByUsername(email);
+                    if (!user.isEnabled()) {
+                        authCookies.clear(response);
+                        return;
+                    }
+                    if (jwtTokenProvider.isSignedWithCurrentKey(refresh)) {
+                        authCookies.writeAccess(response, user.getUsername(), user.getAuthorities());
+                    } else {
+                        // Key was rotated: move this browser onto the new key while the old one is still in its grace period
+                        authCookies.issue(response, user.getUsername(), user.getAuthorities());
+                    }
+                    SecurityContextHolder.getContext().setAuthentication(
+                            UsernamePasswordAuthenticationToken.authenticated(user.getUsername(), null, user.getAuthorities()));
+                } catch (UsernameNotFoundException ex) {
+                    authCookies.clear(response);
+                }
+            }
+
             @Nullable
             private String resolveToken(HttpServletRequest request) {
                 String header = request.getHeader("Authorization");
                 if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
                     return header.substring(7);
                 }
+                if (authCookies.isStateless()) {
+                    return AuthCookies.read(request, AuthCookies.ACCESS_COOKIE);
+                }
                 return null;
             }
         }
@@ -0,0 +1,10 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Binds jwt.rotation.* for JwtTokenProvider on either web stack (servlet or webflux profile). */
+@Configuration
+@EnableConfigurationProperties(JwtKeyProperties.class)
+public class JwtKeyConfig {
+}
@@ -0,0 +1,36 @@
+package MindChatBot.mindChatBot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HMAC signing keys for JWTs (jwt.rotation.*). Tokens carry the signing key's id in the
+ * {@code kid} header; the newest key whose {@code active-from} has passed signs new tokens,
+ * and a superseded key keeps verifying for {@code grace} so existing tokens age out
+ * instead of all failing at once. The plain {@code jwt.secret} is the key "default".
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt.rotation")
+public class JwtKeyProperties {
+
+    private List<KeyDef> keys = new ArrayList<>();
+
+    /** How long a replaced key still verifies; keep it at least as long as jwt.refresh-ttl. */
+    private Duration grace = Duration.ofDays(7);
+
+    /** Tolerate keys that activate this soon, in case another node's clock is ahead. */
+    private Duration clockSkew = Duration.ofMinutes(5);
+
+    @Data
+    public static class KeyDef {
+        private String kid;
+        private String secret;
+        /** Unset = active from the start. */
+        private Instant activeFrom;
+    }
+}
@@ -2,51 +2,161 @@
 package MindChatBot.mindChatBot.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
+    static final String TYPE_CLAIM = "typ";
+    static final String TYPE_ACCESS = "access";
+    static final String TYPE_REFRESH = "refresh";
+    static final String LEGACY_KID = "default";
+
+    private final JwtKeyProperties keyProperties;
+
+    @Value("${jwt.secret:}")
     private String secretKeyValue;
 
-    private Key key;
+    @Value("${jwt.access-ttl:15m}")
+    private Duration accessTtl;
+
+    @Value("${jwt.refresh-ttl:7d}")
+    private Duration refreshTtl;
+
+    /** Every configured key, decoded once, ordered by activation time. */
+    private List<SigningKey> allKeys;
+    private volatile KeyRing ring;
     private JwtParser parser;
 
+    public JwtTokenProvider(JwtKeyProperties keyProperties) {
+        this.keyProperties = keyProperties;
+    }
+
     @PostConstruct
     void init() {
-        byte[] keyBytes = decodeSecret(secretKeyValue);
+        Map<String, SigningKey> byKid = new LinkedHashMap<>();
+        if (secretKeyValue != null && !secretKeyValue.isBlank()) {
+            byKid.put(LEGACY_KID, new SigningKey(LEGACY_KID, hmacKey(LEGACY_KID, secretKeyValue), Instant.EPOCH));
+        }
+        for (JwtKeyProperties.KeyDef def : keyProperties.getKeys()) {
+            if (def.getKid() == null || def.getKid().isBlank()) {
+                throw new IllegalArgumentException("jwt.rotation.keys entries need a kid");
+            }
+            Instant from = (def.getActiveFrom() == null) ? Instant.EPOCH : def.getActiveFrom();
+            byKid.put(def.getKid(), new SigningKey(def.getKid(), hmacKey(def.getKid(), def.getSecret()), from));
+        }
+        if (byKid.isEmpty()) {
+            throw new IllegalArgumentException("No JWT key configured; set jwt.secret or jwt.rotation.keys");
+        }
+
+        this.allKeys = byKid.values().stream()
+                .sorted(Comparator.comparing(SigningKey::activeFrom))
+                .toList();
+        this.ring = computeRing(Instant.now());
+
+        // One parser for all keys: the kid header picks a pre-decoded key from the current ring
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .setAllowedClockSkewSeconds(60) // tolerate small clock drift
+                .build();
+    }
+
+    /** Picks up keys whose active-from has passed and drops ones past their grace period. */
+    @Scheduled(fixedDelayString = "${jwt.rotation.check-interval-ms:60000}")
+    void refreshKeyRing() {
+        KeyRing next = computeRing(Instant.now());
+        KeyRing prev = this.ring;
+        if (!next.signingKid().equals(prev.signingKid())) {
+            log.info("JWT signing key rotated: {} -> {}", prev.signingKid(), next.signingKid());
+        }
+        if (!next.verification().keySet().equals(prev.verification().keySet())) {
+            log.info("JWT verification keys now {}", next.verification().keySet());
+        }
+        this.ring = next;
+    }
+
+    KeyRing computeRing(Instant now) {
+        SigningKey signing = null;
+        Map<String, Key> verification = new HashMap<>();
+
+        for (int i = 0; i < allKeys.size(); i++) {
+            SigningKey k = allKeys.get(i);
+            if (!k.activeFrom().isAfter(now)) signing = k;
+
+            boolean started = !k.activeFrom().isAfter(now.plus(keyProperties.getClockSkew()));
+            SigningKey successor = (i + 1 < allKeys.size()) ? allKeys.get(i + 1) : null;
+            boolean retired = successor != null
+                    && successor.activeFrom().plus(keyProperties.getGrace()).isBefore(now);
+            if (started && !retired) verification.put(k.kid(), k.key());
+        }
+
+        if (signing == null) {
+            signing = allKeys.get(0);
+            log.warn("No JWT key is active yet; signing with the earliest one ({})", signing.kid());
+        }
+        verification.put(signing.kid(), signing.key());
+        return new KeyRing(signing.kid(), signing.key(), Map.copyOf(verification));
+    }
+
+    private Key verificationKey(String kid) {
+        // Tokens issued before kids were introduced have no header; they belong to jwt.secret
+        Key key = ring.verification().get(kid == null ? LEGACY_KID : kid);
+        if (key == null) {
+            throw new JwtException("Unknown or retired signing key: " + kid);
+        }
+        return key;
+    }
+
+    private static Key hmacKey(String kid, String secret) {
+        byte[] keyBytes = decodeSecret(secret);
 
         // Enforce 256-bit minimum for HS256
         if (keyBytes.length < 32) {
             throw new IllegalArgumentException(
-                    "jwt.secret is too short; need at least 32 bytes (256 bits). " +
+                    "JWT key '" + kid + "' is too short; need at least 32 bytes (256 bits). " +
                             "Provide a longer secret or a Base64/Base64URL-encoded value."
             );
         }
-
-        this.key = Keys.hmacShaKeyFor(keyBytes);
-        this.parser = Jwts.parserBuilder()
-                .setSigningKey(this.key)
-                .setAllowedClockSkewSeconds(60) // tolerate small clock drift
-                .build();
+        return Keys.hmacShaKeyFor(keyBytes);
     }
 
     private static byte[] decodeSecret(String value) {
@@ -64,6 +174,35 @@ public class JwtTokenProvider {
         return s.getBytes(StandardCharsets.UTF_8);
     }
 
+    /** Short-lived token that authenticates requests on its own (no session lookup). */
+    public String createAccessToken(String email, Collection<? extends GrantedAuthority> authorities) {
+        List<String> roles = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        return build(email, TYPE_ACCESS, accessTtl)
+                .claim("roles", roles)
+                .compact();
+    }
+
+    /** Long-lived token that is only good for minting a new access token. */
+    public String createRefreshToken(String email) {
+        return build(email, TYPE_REFRESH, refreshTtl).compact();
+    }
+
+    public Duration getAccessTtl() { return accessTtl; }
+
+    public Duration getRefreshTtl() { return refreshTtl; }
+
+    private JwtBuilder build(String subject, String type, Duration ttl) {
+        Instant now = Instant.now();
+        KeyRing current = this.ring;
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, current.signingKid())
+                .setSubject(subject)
+                .claim(TYPE_CLAIM, type)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(ttl)))
+                .signWith(current.signingKey(), SignatureAlgorithm.HS256);
+    }
+
     public Claims parseClaims(String token) throws JwtException {
         // validates signature & exp/nbf automatically
         return parser.parseClaimsJws(token).getBody();
@@ -71,8 +210,27 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            parseClaims(token);
-            return true;
+            return !TYPE_REFRESH.equals(parseClaims(token).get(TYPE_CLAIM));
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Subject of a valid refresh token, or null if the token is missing, invalid or not a refresh token. */
+    public String getRefreshSubject(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            return TYPE_REFRESH.equals(claims.get(TYPE_CLAIM)) ? claims.getSubject() : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** False when the token verifies but was signed by a key that has since been replaced. */
+    public boolean isSignedWithCurrentKey(String token) {
+        try {
+            String kid = parser.parseClaimsJws(token).getHeader().getKeyId();
+            return Objects.equals(kid == null ? LEGACY_KID : kid, ring.signingKid());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -80,6 +238,9 @@ public class JwtTokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = parseClaims(token);
+        if (TYPE_REFRESH.equals(claims.get(TYPE_CLAIM))) {
+            throw new JwtException("Refresh token cannot be used for authentication");
+        }
         String email = claims.getSubject();
         List<SimpleGrantedAuthority> roles = getAuthoritiesFromClaims(claims);
         return new UsernamePasswordAuthenticationToken(email, null, roles);
@@ -113,4 +274,8 @@ public class JwtTokenProvider {
     private String ensureRolePrefix(String role) {
         return role.startsWith("ROLE_") ? role : "ROLE_" + role;
     }
+
+    private record SigningKey(String kid, Key key, Instant activeFrom) {}
+
+    record KeyRing(String signingKid, Key signingKey, Map<String, Key> verification) {}
 }
@@ -1,5 +1,7 @@
 package MindChatBot.mindChatBot.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +10,10 @@ import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
 @Configuration
 @EnableMongoRepositories(basePackages = "MindChatBot.mindChatBot.repository")
 public class MongoConfig extends AbstractMongoClientConfiguration {
@@ -16,6 +22,15 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
 
+    @Value("${app.mongo.profiler.enabled:true}")
+    private boolean profilerEnabled;
+
+    @Value("${app.mongo.profiler.slow-threshold:100ms}")
+    private Duration slowThreshold;
+
+    @Value("${app.mongo.profiler.explain-interval:10m}")
+    private Duration explainInterval;
+
     @Override
     protected String getDatabaseName() {
         // 2. You can keep this constant, but it's better to get it from the URI if possible.
@@ -23,9 +38,27 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return "mindChatBotDB";
     }
 
+    /** Scan the models up front (default is this config's package) so every @Document is known at startup. */
+    @Override
+    protected Collection<String> getMappingBasePackages() {
+        return List.of("MindChatBot.mindChatBot.model");
+    }
+
     @Bean
     public MongoClient mongoClient() {
         // 3. Use the injected Atlas connection URI
-        return MongoClients.create(mongoUri);
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoUri));
+        if (profilerEnabled) {
+            settings.addCommandListener(mongoQueryProfiler());
+        }
+        MongoClient client = MongoClients.create(settings.build());
+        mongoQueryProfiler().attach(client);
+        return client;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public MongoQueryProfiler mongoQueryProfiler() {
+        return new MongoQueryProfiler(slowThreshold, explainInterval);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package MindChatBot.mindChatBot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Automatic index creation is off in Spring Data MongoDB, so @Indexed / @CompoundIndex on the
+ * models only document intent. At startup this compares every declared index with what the
+ * server actually has (by key pattern, not name), logs the gaps and, unless
+ * app.mongo.create-missing-indexes=false, builds them.
+ */
+@Slf4j
+@Component
+public class MongoIndexVerifier {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<String> missing = new ArrayList<>();
+
+    @Value("${app.mongo.create-missing-indexes:true}")
+    private boolean createMissing;
+
+    public MongoIndexVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        var mappingContext = mongoTemplate.getConverter().getMappingContext();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) continue;
+            String collection = entity.getCollection();
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(collection);
+                Set<String> existing = ops.getIndexInfo().stream()
+                        .map(MongoIndexVerifier::keyPattern)
+                        .collect(Collectors.toSet());
+
+                for (IndexDefinition def : resolver.resolveIndexFor(entity.getType())) {
+                    String pattern = keyPattern(def.getIndexKeys());
+                    if (existing.contains(pattern)) continue;
+
+                    String name = String.valueOf(def.getIndexOptions().getOrDefault("name", pattern));
+                    log.warn("Declared index {} {} on {} is not built", name, pattern, collection);
+                    if (createMissing) {
+                        ops.ensureIndex(def);
+                        log.info("Created index {} on {}", name, collection);
+                    } else {
+                        synchronized (missing) {
+                            missing.add(collection + "." + name + " " + pattern);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not verify indexes on {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+
+    public List<String> getMissing() {
+        synchronized (missing) {
+            return List.copyOf(missing);
+        }
+    }
+
+    private static String keyPattern(IndexInfo info) {
+        return info.getIndexFields().stream()
+                .map(f -> f.getKey() + ":" + (f.isGeo() ? "geo"
+                        : f.isText() ? "text"
+                        : f.getDirection() == null ? "?"
+                        : f.getDirection().isAscending() ? "1" : "-1"))
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String keyPattern(Document keys) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Object> e : keys.entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            Object v = e.getValue();
+            String dir = (v instanceof Number n) ? (n.intValue() < 0 ? "-1" : "1")
+                    : "text".equals(v) ? "text"
+                    : String.valueOf(v).startsWith("2d") ? "geo" : "?";
+            sb.append(e.getKey()).append(':').append(dir);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,420 @@
+package MindChatBot.mindChatBot.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Driver-level query profiler. Every find/aggregate/count/distinct/update/delete/findAndModify
+ * is reduced to a query shape (collection + operation + filter fields/operators + sort, values
+ * dropped) and its latency and returned-document counts are aggregated per shape.
+ * <p>
+ * Read shapes are explained (executionStats) in the background at most once per
+ * {@code explainInterval}, which fills in docs/keys examined vs returned, the winning plan,
+ * and flags collection scans and in-memory sorts with a suggested index.
+ * The report is served by the {@code mongoqueries} actuator endpoint.
+ */
+@Slf4j
+public class MongoQueryProfiler implements CommandListener {
+
+    private static final Set<String> PROFILED = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct");
+    private static final int MAX_SHAPES = 2000;
+
+    private final Duration slowThreshold;
+    private final Duration explainInterval;
+
+    private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(64), r -> {
+                Thread t = new Thread(r, "mongo-explain");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile MongoClient client;
+
+    public MongoQueryProfiler(Duration slowThreshold, Duration explainInterval) {
+        this.slowThreshold = slowThreshold;
+        this.explainInterval = explainInterval;
+    }
+
+    /** The client the listener is registered on; explains are sent through it. */
+    void attach(MongoClient client) {
+        this.client = client;
+    }
+
+    /* ---------- CommandListener ---------- */
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!PROFILED.contains(event.getCommandName())) return;
+        try {
+            BsonDocument cmd = event.getCommand();
+            Query q = describe(event.getCommandName(), cmd);
+            if (q == null) return;
+
+            String key = q.collection + " " + q.operation + " " + q.filterShape
+                    + (q.sortShape.isEmpty() ? "" : " sort" + q.sortShape);
+            ShapeStats stats = shapes.get(key);
+            if (stats == null) {
+                if (shapes.size() >= MAX_SHAPES) return;
+                stats = shapes.computeIfAbsent(key, k -> new ShapeStats(k, q));
+            }
+
+            // The command document is only valid during this callback; copy it only when we'll explain it
+            BsonDocument explainCopy = null;
+            if (EXPLAINABLE.contains(q.operation) && stats.claimExplain(explainInterval)) {
+                explainCopy = stripForExplain(cmd);
+            }
+            inFlight.put(event.getRequestId(), new InFlight(stats, event.getDatabaseName(), explainCopy));
+        } catch (RuntimeException e) {
+            log.debug("Mongo profiler could not describe {}: {}", event.getCommandName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight f = inFlight.remove(event.getRequestId());
+        if (f == null) return;
+
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        long returned = returnedCount(event.getCommandName(), event.getResponse());
+        boolean firstSlow = f.stats.record(nanos, returned, false, slowThreshold.toNanos());
+        if (firstSlow) {
+            log.warn("Slow Mongo query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), f.stats.key);
+        }
+        if (f.explainCommand != null) scheduleExplain(f);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlight f = inFlight.remove(event.getRequestId());
+        if (f != null) f.stats.record(event.getElapsedTime(TimeUnit.NANOSECONDS), 0, true, slowThreshold.toNanos());
+    }
+
+    /* ---------- report ---------- */
+
+    /** Shapes ordered by total time spent, most expensive first. */
+    public List<Map<String, Object>> report() {
+        List<ShapeStats> all = new ArrayList<>(shapes.values());
+        all.sort(Comparator.comparingLong((ShapeStats s) -> s.totalNanos.sum()).reversed());
+
+        List<Map<String, Object>> out = new ArrayList<>(all.size());
+        for (ShapeStats s : all) {
+            long count = s.count.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("shape", s.key);
+            row.put("count", count);
+            row.put("totalMs", TimeUnit.NANOSECONDS.toMillis(s.totalNanos.sum()));
+            row.put("avgMs", count == 0 ? 0.0 : s.totalNanos.sum() / 1e6 / count);
+            row.put("maxMs", s.maxNanos.get() / 1e6);
+            row.put("slow", s.slow.sum());
+            row.put("failures", s.failures.sum());
+            row.put("avgReturned", count == 0 ? 0.0 : (double) s.returned.sum() / count);
+            Plan p = s.plan;
+            if (p != null) {
+                row.put("plan", p.stages);
+                row.put("collectionScan", p.collScan);
+                row.put("inMemorySort", p.inMemorySort);
+                row.put("docsExamined", p.docsExamined);
+                row.put("keysExamined", p.keysExamined);
+                row.put("returned", p.returned);
+                if (p.suggestedIndex != null) row.put("suggestedIndex", p.suggestedIndex);
+            }
+            out.add(row);
+        }
+        return out;
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    /* ---------- explain ---------- */
+
+    private void scheduleExplain(InFlight f) {
+        MongoClient c = this.client;
+        if (c == null) return;
+        explainer.execute(() -> {
+            try {
+                BsonDocument explain = new BsonDocument("explain", f.explainCommand)
+                        .append("verbosity", new BsonString("executionStats"));
+                Document result = c.getDatabase(f.database).runCommand(explain);
+                Plan plan = parsePlan(result, f.stats.query);
+                boolean newlyFlagged = (f.stats.plan == null || !f.stats.plan.collScan) && plan.collScan;
+                f.stats.plan = plan;
+                if (newlyFlagged) {
+                    log.warn("Collection scan: {} (examined {} docs for {}); suggested index {}",
+                            f.stats.key, plan.docsExamined, plan.returned, plan.suggestedIndex);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Explain failed for {}: {}", f.stats.key, e.getMessage());
+            }
+        });
+    }
+
+    private static BsonDocument stripForExplain(BsonDocument cmd) {
+        BsonDocument copy = new BsonDocument();
+        for (Map.Entry<String, BsonValue> e : cmd.entrySet()) {
+            String k = e.getKey();
+            if (k.startsWith("$") || k.equals("lsid") || k.equals("txnNumber")
+                    || k.equals("apiVersion") || k.equals("apiStrict") || k.equals("apiDeprecationErrors")) continue;
+            copy.append(k, e.getValue().clone());
+        }
+        return copy;
+    }
+
+    static Plan parsePlan(Document explain, Query query) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        Document exec = explain.get("executionStats", Document.class);
+        if (planner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.get(0) instanceof Document first && first.get("$cursor") instanceof Document cursor) {
+            // aggregate whose $match/$sort wasn't fully pushed down
+            planner = cursor.get("queryPlanner", Document.class);
+            exec = cursor.get("executionStats", Document.class);
+        }
+
+        List<String> stages = new ArrayList<>();
+        if (planner != null) {
+            Document winning = planner.get("winningPlan", Document.class);
+            if (winning != null && winning.get("queryPlan") instanceof Document sbe) winning = sbe;
+            collectStages(winning, stages);
+        }
+        boolean collScan = stages.contains("COLLSCAN");
+        boolean inMemorySort = stages.contains("SORT");
+
+        long examined = exec == null ? -1 : number(exec.get("totalDocsExamined"));
+        long keys = exec == null ? -1 : number(exec.get("totalKeysExamined"));
+        long returned = exec == null ? -1 : number(exec.get("nReturned"));
+
+        String suggestion = (collScan || inMemorySort) ? query.suggestedIndex() : null;
+        return new Plan(String.join(" <- ", stages), collScan, inMemorySort, examined, keys, returned, suggestion);
+    }
+
+    private static void collectStages(Document node, List<String> out) {
+        if (node == null) return;
+        String stage = node.getString("stage");
+        if (stage != null) {
+            String index = node.getString("indexName");
+            out.add(index == null ? stage : stage + "(" + index + ")");
+        }
+        if (node.get("inputStage") instanceof Document child) collectStages(child, out);
+        if (node.get("inputStages") instanceof List<?> children) {
+            for (Object c : children) if (c instanceof Document d) collectStages(d, out);
+        }
+    }
+
+    private static long number(Object o) {
+        return (o instanceof Number n) ? n.longValue() : -1;
+    }
+
+    /* ---------- shapes ---------- */
+
+    static Query describe(String operation, BsonDocument cmd) {
+        BsonValue collValue = cmd.get(operation);
+        if (collValue == null || !collValue.isString()) return null;
+        String collection = collValue.asString().getValue();
+
+        BsonDocument filter = new BsonDocument();
+        BsonDocument sort = new BsonDocument();
+        String extra = "";
+        switch (operation) {
+            case "find" -> {
+                filter = docOrEmpty(cmd.get("filter"));
+                sort = docOrEmpty(cmd.get("sort"));
+            }
+            case "count", "distinct" -> filter = docOrEmpty(cmd.get("query"));
+            case "findAndModify" -> {
+                filter = docOrEmpty(cmd.get("query"));
+                sort = docOrEmpty(cmd.get("sort"));
+            }
+            case "update", "delete" -> {
+                BsonValue list = cmd.get(operation.equals("update") ? "updates" : "deletes");
+                if (list != null && list.isArray() && !list.asArray().isEmpty()
+                        && list.asArray().get(0).isDocument()) {
+                    filter = docOrEmpty(list.asArray().get(0).asDocument().get("q"));
+                }
+            }
+            case "aggregate" -> {
+                BsonValue pipeline = cmd.get("pipeline");
+                if (pipeline != null && pipeline.isArray()) {
+                    BsonArray stages = pipeline.asArray();
+                    StringJoiner names = new StringJoiner(",", " [", "]");
+                    for (BsonValue s : stages) {
+                        if (!s.isDocument() || s.asDocument().isEmpty()) continue;
+                        String name = s.asDocument().getFirstKey();
+                        names.add(name);
+                        if (name.equals("$match") && filter.isEmpty()) filter = docOrEmpty(s.asDocument().get(name));
+                        if (name.equals("$sort") && sort.isEmpty()) sort = docOrEmpty(s.asDocument().get(name));
+                    }
+                    extra = names.toString();
+                }
+            }
+            default -> { /* not profiled */ }
+        }
+        // filter and sort are views into the driver's command buffer, which is released after
+        // commandStarted; the copies outlive it for the explain thread's index suggestion
+        return new Query(collection, operation, filterShape(filter) + extra, sortShape(sort), filter.clone(), sort.clone());
+    }
+
+    static String filterShape(BsonDocument filter) {
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<String, BsonValue> e : filter.entrySet()) {
+            String k = e.getKey();
+            BsonValue v = e.getValue();
+            if (k.startsWith("$") && v.isArray()) {
+                Set<String> parts = new LinkedHashSet<>();
+                for (BsonValue item : v.asArray()) if (item.isDocument()) parts.add(filterShape(item.asDocument()));
+                j.add(k + ":[" + String.join(", ", parts) + "]");
+            } else if (isOperatorDoc(v)) {
+                j.add(k + ":{" + String.join(",", v.asDocument().keySet()) + "}");
+            } else {
+                j.add(k);
+            }
+        }
+        return j.toString();
+    }
+
+    private static String sortShape(BsonDocument sort) {
+        if (sort.isEmpty()) return "";
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        sort.forEach((k, v) -> j.add(k + ":" + (v.isNumber() ? v.asNumber().intValue() : "?")));
+        return j.toString();
+    }
+
+    private static boolean isOperatorDoc(BsonValue v) {
+        return v.isDocument() && !v.asDocument().isEmpty() && v.asDocument().getFirstKey().startsWith("$");
+    }
+
+    private static BsonDocument docOrEmpty(BsonValue v) {
+        return (v != null && v.isDocument()) ? v.asDocument() : new BsonDocument();
+    }
+
+    private static long returnedCount(String operation, BsonDocument response) {
+        if (response == null) return 0;
+        switch (operation) {
+            case "find", "aggregate" -> {
+                BsonValue cursor = response.get("cursor");
+                if (cursor != null && cursor.isDocument()) {
+                    BsonValue batch = cursor.asDocument().get("firstBatch");
+                    return (batch != null && batch.isArray()) ? batch.asArray().size() : 0;
+                }
+                return 0;
+            }
+            case "count", "update", "delete" -> {
+                BsonValue n = response.get("n");
+                return (n != null && n.isNumber()) ? n.asNumber().longValue() : 0;
+            }
+            case "findAndModify" -> {
+                BsonValue value = response.get("value");
+                return (value != null && value.isDocument()) ? 1 : 0;
+            }
+            case "distinct" -> {
+                BsonValue values = response.get("values");
+                return (values != null && values.isArray()) ? values.asArray().size() : 0;
+            }
+            default -> {
+                return 0;
+            }
+        }
+    }
+
+    /* ---------- types ---------- */
+
+    record Query(String collection, String operation, String filterShape, String sortShape,
+                 BsonDocument filter, BsonDocument sort) {
+
+        /** Equality fields first, then sort keys, then range fields (the usual ESR ordering). */
+        String suggestedIndex() {
+            Map<String, String> fields = new LinkedHashMap<>();
+            List<String> ranges = new ArrayList<>();
+            for (Map.Entry<String, BsonValue> e : filter.entrySet()) {
+                if (e.getKey().startsWith("$")) continue;
+                if (isOperatorDoc(e.getValue())) ranges.add(e.getKey());
+                else fields.put(e.getKey(), "1");
+            }
+            sort.forEach((k, v) -> fields.putIfAbsent(k, v.isNumber() ? String.valueOf(v.asNumber().intValue()) : "1"));
+            for (String r : ranges) fields.putIfAbsent(r, "1");
+            if (fields.isEmpty()) return null;
+
+            StringJoiner j = new StringJoiner(", ", "{ ", " }");
+            fields.forEach((k, v) -> j.add("'" + k + "': " + v));
+            return j.toString();
+        }
+    }
+
+    record Plan(String stages, boolean collScan, boolean inMemorySort,
+                long docsExamined, long keysExamined, long returned, String suggestedIndex) {}
+
+    private record InFlight(ShapeStats stats, String database, BsonDocument explainCommand) {}
+
+    private static final class ShapeStats {
+        final String key;
+        final Query query;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLong lastExplainedAt = new AtomicLong(Long.MIN_VALUE);
+        volatile Plan plan;
+
+        ShapeStats(String key, Query query) {
+            this.key = key;
+            this.query = query;
+        }
+
+        /** @return true the first time this shape crosses the slow threshold */
+        boolean record(long nanos, long docs, boolean failed, long slowNanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            returned.add(docs);
+            if (failed) failures.increment();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (nanos >= slowNanos) {
+                slow.increment();
+                return slow.sum() == 1;
+            }
+            return false;
+        }
+
+        boolean claimExplain(Duration interval) {
+            long now = System.nanoTime();
+            long last = lastExplainedAt.get();
+            return (last == Long.MIN_VALUE || now - last >= interval.toNanos())
+                    && lastExplainedAt.compareAndSet(last, now);
+        }
+    }
+}
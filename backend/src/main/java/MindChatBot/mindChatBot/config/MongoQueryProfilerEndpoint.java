@@ -0,0 +1,39 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** GET /actuator/mongoqueries: per-shape query stats plus the startup index check; DELETE resets the stats. */
+@Component
+@Endpoint(id = "mongoqueries")
+public class MongoQueryProfilerEndpoint {
+
+    private final MongoQueryProfiler profiler;
+    private final MongoIndexVerifier indexVerifier;
+
+    public MongoQueryProfilerEndpoint(MongoQueryProfiler profiler, MongoIndexVerifier indexVerifier) {
+        this.profiler = profiler;
+        this.indexVerifier = indexVerifier;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<Map<String, Object>> queries = profiler.report();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("collectionScans", queries.stream().filter(q -> Boolean.TRUE.equals(q.get("collectionScan"))).count());
+        out.put("queries", queries);
+        out.put("missingIndexes", indexVerifier.getMissing());
+        return out;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
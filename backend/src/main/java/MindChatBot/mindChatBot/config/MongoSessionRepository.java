@@ -0,0 +1,370 @@
+package MindChatBot.mindChatBot.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * HttpSession storage shared by all nodes through the {@code http_sessions} collection.
+ * <ul>
+ *   <li>near-cache: each node keeps recently used sessions for a few seconds, so the
+ *       several requests a page load makes don't each re-read and deserialize the attributes.
+ *       A cache hit is still checked against the stored {@code version} (bumped by every full
+ *       write) with a projected read, so a logout or change on another node is seen at once;</li>
+ *   <li>write-behind: a request that only bumps the last-access time is queued and flushed
+ *       in one bulk update per interval; attribute changes are written synchronously;</li>
+ *   <li>compact: attributes are JDK-serialized into one binary field, deflated when large.</li>
+ * </ul>
+ * Expired sessions are removed by a TTL index on {@code expireAt}.
+ */
+@Slf4j
+public class MongoSessionRepository implements SessionRepository<MongoSessionRepository.MongoSession> {
+
+    static final String COLLECTION = "http_sessions";
+    private static final int COMPRESS_ABOVE_BYTES = 512;
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration maxInactiveInterval;
+    private final Duration nearCacheTtl;
+    private final int nearCacheMaxEntries;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    private final ConcurrentHashMap<String, CachedEntry> nearCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Touch> pendingTouches = new ConcurrentHashMap<>();
+
+    public MongoSessionRepository(MongoTemplate mongoTemplate,
+                                  Duration maxInactiveInterval,
+                                  Duration nearCacheTtl,
+                                  int nearCacheMaxEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.nearCacheTtl = nearCacheTtl;
+        this.nearCacheMaxEntries = nearCacheMaxEntries;
+        this.deserializer = new DeserializingConverter(getClass().getClassLoader());
+        try {
+            mongoTemplate.indexOps(COLLECTION).ensureIndex(
+                    new Index().on("expireAt", Sort.Direction.ASC).expire(0).named("ttl_expire_at"));
+        } catch (Exception e) {
+            log.warn("Could not ensure {} TTL index: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    /* ---------- SessionRepository ---------- */
+
+    @Override
+    public MongoSession createSession() {
+        MapSession s = new MapSession();
+        s.setMaxInactiveInterval(maxInactiveInterval);
+        return new MongoSession(s, true);
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        String id = session.getId();
+        if (session.idChanged()) {
+            delete(session.originalId);
+        }
+
+        MapSession snapshot = new MapSession(session.delegate);
+        long version = session.version;
+        if (session.isNew || session.dirty) {
+            version = write(snapshot);
+            pendingTouches.remove(id);
+        } else {
+            // Only the last-access time moved: defer it to the next bulk flush
+            pendingTouches.merge(id,
+                    new Touch(snapshot.getLastAccessedTime(), snapshot.getMaxInactiveInterval()),
+                    (a, b) -> a.lastAccessed.isAfter(b.lastAccessed) ? a : b);
+        }
+        cache(snapshot, version);
+        session.markSaved(version);
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        MapSession loaded = null;
+        long version = 0;
+
+        CachedEntry cached = nearCache.get(id);
+        if (cached != null && cached.loadedAt.plus(nearCacheTtl).isAfter(Instant.now())) {
+            Query head = query(where("_id").is(id));
+            head.fields().include("version").include("lastAccessed");
+            Document current = mongoTemplate.findOne(head, Document.class, COLLECTION);
+            if (current == null) {
+                // deleted (logout, invalidation, TTL) on some node
+                nearCache.remove(id);
+                return null;
+            }
+            if (version(current) == cached.version) {
+                loaded = new MapSession(cached.session);
+                version = cached.version;
+                Date lastAccessed = current.getDate("lastAccessed");
+                if (lastAccessed != null && lastAccessed.toInstant().isAfter(loaded.getLastAccessedTime())) {
+                    loaded.setLastAccessedTime(lastAccessed.toInstant());
+                }
+            }
+        }
+        if (loaded == null) {
+            Document doc = mongoTemplate.findById(id, Document.class, COLLECTION);
+            if (doc == null) {
+                nearCache.remove(id);
+                return null;
+            }
+            loaded = fromDocument(doc);
+            version = version(doc);
+            cache(loaded, version);
+        }
+
+        Touch touch = pendingTouches.get(id);
+        if (touch != null && touch.lastAccessed.isAfter(loaded.getLastAccessedTime())) {
+            loaded.setLastAccessedTime(touch.lastAccessed);
+        }
+        if (loaded.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        MongoSession session = new MongoSession(loaded, false);
+        session.version = version;
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delete(id);
+    }
+
+    /* ---------- write-behind ---------- */
+
+    @Scheduled(fixedDelayString = "${app.session.flush-interval-ms:10000}")
+    public void flushTouches() {
+        if (pendingTouches.isEmpty()) return;
+
+        Map<String, Touch> batch = new HashMap<>();
+        for (String id : Set.copyOf(pendingTouches.keySet())) {
+            Touch t = pendingTouches.remove(id);
+            if (t != null) batch.put(id, t);
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            batch.forEach((id, t) -> ops.updateOne(query(where("_id").is(id)),
+                    new Update()
+                            .max("lastAccessed", Date.from(t.lastAccessed))
+                            .max("expireAt", Date.from(t.lastAccessed.plus(t.maxInactive)))));
+            ops.execute();
+        } catch (Exception e) {
+            // Put them back; a later flush (or the next full write) will carry them
+            batch.forEach((id, t) -> pendingTouches.merge(id, t,
+                    (a, b) -> a.lastAccessed.isAfter(b.lastAccessed) ? a : b));
+            log.warn("Session last-access flush failed for {} sessions: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushTouches();
+    }
+
+    /* ---------- persistence helpers ---------- */
+
+    /** Upserts the whole session and returns its new version. */
+    private long write(MapSession s) {
+        Instant expireAt = s.getLastAccessedTime().plus(s.getMaxInactiveInterval());
+        Query q = query(where("_id").is(s.getId()));
+        q.fields().include("version");
+        Document saved = mongoTemplate.findAndModify(q,
+                new Update()
+                        .set("created", Date.from(s.getCreationTime()))
+                        .set("lastAccessed", Date.from(s.getLastAccessedTime()))
+                        .set("maxInactive", (int) s.getMaxInactiveInterval().getSeconds())
+                        .set("expireAt", Date.from(expireAt))
+                        .set("attrs", serializeAttributes(s))
+                        .inc("version", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COLLECTION);
+        return saved == null ? 0 : version(saved);
+    }
+
+    private static long version(Document doc) {
+        return doc.get("version") instanceof Number n ? n.longValue() : 0;
+    }
+
+    private void delete(String id) {
+        nearCache.remove(id);
+        pendingTouches.remove(id);
+        mongoTemplate.remove(query(where("_id").is(id)), COLLECTION);
+    }
+
+    private void cache(MapSession s, long version) {
+        if (nearCache.size() >= nearCacheMaxEntries) {
+            Instant cutoff = Instant.now().minus(nearCacheTtl);
+            nearCache.values().removeIf(e -> e.loadedAt.isBefore(cutoff));
+            if (nearCache.size() >= nearCacheMaxEntries) nearCache.clear();
+        }
+        nearCache.put(s.getId(), new CachedEntry(new MapSession(s), version, Instant.now()));
+    }
+
+    private MapSession fromDocument(Document doc) {
+        MapSession s = new MapSession(doc.getString("_id"));
+        s.setCreationTime(doc.getDate("created").toInstant());
+        s.setLastAccessedTime(doc.getDate("lastAccessed").toInstant());
+        s.setMaxInactiveInterval(Duration.ofSeconds(doc.getInteger("maxInactive", (int) maxInactiveInterval.getSeconds())));
+        Binary attrs = doc.get("attrs", Binary.class);
+        if (attrs != null) {
+            deserializeAttributes(attrs.getData()).forEach(s::setAttribute);
+        }
+        return s;
+    }
+
+    private byte[] serializeAttributes(MapSession s) {
+        HashMap<String, Object> attrs = new HashMap<>();
+        for (String name : s.getAttributeNames()) attrs.put(name, s.getAttribute(name));
+        byte[] raw = serializer.convert(attrs);
+
+        if (raw.length <= COMPRESS_ABOVE_BYTES) {
+            byte[] out = new byte[raw.length + 1];
+            out[0] = RAW;
+            System.arraycopy(raw, 0, out, 1, raw.length);
+            return out;
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 2 + 16);
+        bos.write(DEFLATED);
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(bos, new Deflater(Deflater.BEST_SPEED))) {
+            dos.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress session attributes", e);
+        }
+        return bos.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deserializeAttributes(byte[] data) {
+        if (data.length == 0) return Map.of();
+        try {
+            byte[] raw;
+            if (data[0] == DEFLATED) {
+                try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+                    raw = in.readAllBytes();
+                }
+            } else {
+                raw = new byte[data.length - 1];
+                System.arraycopy(data, 1, raw, 0, raw.length);
+            }
+            return (Map<String, Object>) deserializer.convert(raw);
+        } catch (Exception e) {
+            // e.g. a class changed between deploys; treat as an empty session rather than failing the request
+            log.warn("Discarding unreadable session attributes: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private record CachedEntry(MapSession session, long version, Instant loadedAt) {}
+
+    private record Touch(Instant lastAccessed, Duration maxInactive) {}
+
+    /* ---------- session wrapper with change tracking ---------- */
+
+    public static final class MongoSession implements Session {
+        private final MapSession delegate;
+        private String originalId;
+        private boolean isNew;
+        private boolean dirty;
+        /** Stored version this copy was loaded at or saved as */
+        private long version;
+
+        MongoSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.originalId = delegate.getId();
+            this.isNew = isNew;
+        }
+
+        boolean idChanged() {
+            return !isNew && !originalId.equals(delegate.getId());
+        }
+
+        void markSaved(long version) {
+            this.version = version;
+            this.originalId = delegate.getId();
+            this.isNew = false;
+            this.dirty = false;
+        }
+
+        @Override public String getId() { return delegate.getId(); }
+
+        @Override
+        public String changeSessionId() {
+            dirty = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override public <T> T getAttribute(String name) { return delegate.getAttribute(name); }
+
+        @Override public Set<String> getAttributeNames() { return delegate.getAttributeNames(); }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            // SessionLocaleResolver re-sets the same locale on every request; don't turn that into a write
+            if (!Objects.equals(delegate.getAttribute(name), value)) dirty = true;
+            delegate.setAttribute(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            if (delegate.getAttribute(name) != null) dirty = true;
+            delegate.removeAttribute(name);
+        }
+
+        @Override public Instant getCreationTime() { return delegate.getCreationTime(); }
+
+        @Override public void setLastAccessedTime(Instant lastAccessedTime) { delegate.setLastAccessedTime(lastAccessedTime); }
+
+        @Override public Instant getLastAccessedTime() { return delegate.getLastAccessedTime(); }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(delegate.getMaxInactiveInterval())) dirty = true;
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override public Duration getMaxInactiveInterval() { return delegate.getMaxInactiveInterval(); }
+
+        @Override public boolean isExpired() { return delegate.isExpired(); }
+    }
+}
@@ -0,0 +1,125 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Production MessageSource: every {@code <basename>[_lang[_COUNTRY]].properties} on the classpath
+ * is read once at startup and flattened per locale (base, then language, then country), so a
+ * lookup is a single map read with no file checks and no fallback chain. Files are never re-read;
+ * use the reloadable source (the default outside the prod profile) while editing bundles.
+ */
+public class PreloadedMessageSource extends AbstractMessageSource {
+
+    private final Map<Locale, Bundle> bundles;
+    private final Bundle root;
+
+    public PreloadedMessageSource(String basename) {
+        Map<Locale, Properties> files = load(basename);
+        Map<Locale, Bundle> built = new HashMap<>();
+        for (Locale locale : files.keySet()) {
+            Map<String, String> merged = new HashMap<>();
+            putAll(merged, files.get(Locale.ROOT));
+            if (StringUtils.hasText(locale.getCountry())) {
+                putAll(merged, files.get(new Locale(locale.getLanguage())));
+            }
+            putAll(merged, files.get(locale));
+            built.put(locale, new Bundle(locale, merged));
+        }
+        this.bundles = Map.copyOf(built);
+        this.root = bundles.getOrDefault(Locale.ROOT, new Bundle(Locale.ROOT, Map.of()));
+    }
+
+    /** Locales that have their own bundle file (plus {@link Locale#ROOT} for the base file). */
+    public Set<Locale> getLocales() {
+        return bundles.keySet();
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        return bundleFor(locale).messages.get(code);
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        return bundleFor(locale).format(code);
+    }
+
+    /** Exact match, then the language alone, then the base file; arbitrary ?lang= values add nothing. */
+    private Bundle bundleFor(Locale locale) {
+        if (locale == null) return root;
+        Bundle b = bundles.get(locale);
+        if (b != null) return b;
+        if (StringUtils.hasText(locale.getCountry()) || StringUtils.hasText(locale.getVariant())) {
+            b = bundles.get(new Locale(locale.getLanguage()));
+            if (b != null) return b;
+        }
+        return root;
+    }
+
+    private static void putAll(Map<String, String> target, Properties props) {
+        if (props == null) return;
+        for (String key : props.stringPropertyNames()) {
+            target.put(key, props.getProperty(key));
+        }
+    }
+
+    private static Map<Locale, Properties> load(String basename) {
+        String name = basename.startsWith("classpath:") ? basename.substring("classpath:".length()) : basename;
+        Map<Locale, Properties> files = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:" + name + "*.properties")) {
+                String file = StringUtils.stripFilenameExtension(resource.getFilename());
+                String simpleName = StringUtils.getFilename(name);
+                Locale locale;
+                if (file.equals(simpleName)) {
+                    locale = Locale.ROOT;
+                } else if (file.startsWith(simpleName + "_")) {
+                    locale = StringUtils.parseLocale(file.substring(simpleName.length() + 1));
+                } else {
+                    continue; // e.g. messages-extra.properties
+                }
+                Properties props = files.computeIfAbsent(locale, l -> new Properties());
+                try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+                    props.load(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load message bundles for " + basename, e);
+        }
+        return files;
+    }
+
+    /** Messages are immutable; formats (only needed for messages with arguments) are compiled once on first use. */
+    private final class Bundle {
+        private final Locale locale;
+        private final Map<String, String> messages;
+        private final Map<String, MessageFormat> formats = new ConcurrentHashMap<>();
+
+        Bundle(Locale locale, Map<String, String> messages) {
+            this.locale = locale;
+            this.messages = Map.copyOf(messages);
+        }
+
+        MessageFormat format(String code) {
+            String message = messages.get(code);
+            if (message == null) return null;
+            return formats.computeIfAbsent(code, c -> createMessageFormat(message, locale));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.service.InMemoryRateLimitStore;
+import MindChatBot.mindChatBot.service.MongoRateLimitStore;
+import MindChatBot.mindChatBot.service.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitStore rateLimitStore(RateLimitProperties properties, MongoTemplate mongoTemplate) {
+        return properties.getStore() == RateLimitProperties.Store.MONGO
+                ? new MongoRateLimitStore(mongoTemplate)
+                : new InMemoryRateLimitStore();
+    }
+
+    /** Runs just ahead of the Spring Security chain so /login bursts are cut off before BCrypt too. */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, RateLimitStore store) {
+        FilterRegistrationBean<RateLimitFilter> reg = new FilterRegistrationBean<>(new RateLimitFilter(properties, store));
+        reg.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        reg.addUrlPatterns("/*");
+        return reg;
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveRateLimitFilter reactiveRateLimitFilter(RateLimitProperties properties, RateLimitStore store) {
+        return new ReactiveRateLimitFilter(properties, store);
+    }
+}
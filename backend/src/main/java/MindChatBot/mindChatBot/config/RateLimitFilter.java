@@ -0,0 +1,223 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.config.RateLimitProperties.Limit;
+import MindChatBot.mindChatBot.config.RateLimitProperties.Route;
+import MindChatBot.mindChatBot.service.RateLimitStore;
+import MindChatBot.mindChatBot.service.RateLimitStore.Decision;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rejects bursts against the auth endpoints before they reach BCrypt, Mongo or SMTP.
+ * Every configured route is checked per client IP and, when the request carries one,
+ * per normalized email. Over-limit requests get 429 with a Retry-After header.
+ * JSON bodies on email-limited routes are read here in full, so one that is too large (413) or not
+ * JSON (400) is refused rather than let through without an email bucket.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_CACHED_BODY = 16 * 1024;
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final UrlPathHelper pathHelper = new UrlPathHelper();
+    private final ClientIpResolver clientIp;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimitStore store) {
+        this.properties = properties;
+        this.store = store;
+        this.clientIp = new ClientIpResolver(properties.getTrustedProxies());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRoutes().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String path = pathHelper.getPathWithinApplication(request);
+        HttpServletRequest req = request;
+        String ip = clientIp.resolve(request.getRemoteAddr(),
+                String.join(",", Collections.list(request.getHeaders(ClientIpResolver.FORWARDED_FOR))));
+
+        for (Map.Entry<String, Route> e : properties.getRoutes().entrySet()) {
+            Route route = e.getValue();
+            if (!matches(route, request.getMethod(), path)) continue;
+
+            if (route.getIp() != null) {
+                Decision d = consume(e.getKey() + ":ip:" + ip, route.getIp());
+                if (!d.allowed()) {
+                    reject(response, d, e.getKey());
+                    return;
+                }
+            }
+
+            if (route.getEmail() != null) {
+                if (isJson(req) && !(req instanceof CachedBodyRequest)) {
+                    CachedBodyRequest cached = CachedBodyRequest.wrap(req);
+                    if (cached == null) {
+                        refuse(response, HttpStatus.PAYLOAD_TOO_LARGE, "payload_too_large", "Request body is too large.");
+                        return;
+                    }
+                    if (cached.json == null) {
+                        refuse(response, HttpStatus.BAD_REQUEST, "bad_request", "Request body is not valid JSON.");
+                        return;
+                    }
+                    req = cached;
+                }
+                String email = normalizeEmail(extractEmail(req, route.getEmailField()));
+                if (email != null) {
+                    Decision d = consume(e.getKey() + ":email:" + email, route.getEmail());
+                    if (!d.allowed()) {
+                        reject(response, d, e.getKey());
+                        return;
+                    }
+                }
+            }
+        }
+
+        chain.doFilter(req, response);
+    }
+
+    private boolean matches(Route route, String method, String path) {
+        if (route.getPath() == null || !matcher.match(route.getPath(), path)) return false;
+        return route.getMethods() == null || route.getMethods().isEmpty()
+                || route.getMethods().stream().anyMatch(m -> m.equalsIgnoreCase(method));
+    }
+
+    private Decision consume(String key, Limit limit) {
+        return store.tryConsume("rl:" + key, limit.getCapacity(), limit.getPeriod());
+    }
+
+    private void reject(HttpServletResponse response, Decision d, String route) throws IOException {
+        log.warn("Rate limit hit on '{}' (retry after {}s)", route, d.retryAfterSeconds());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(d.retryAfterSeconds()));
+        refuse(response, HttpStatus.TOO_MANY_REQUESTS, "too_many_requests", "Too many requests. Please try again later.");
+    }
+
+    private static void refuse(HttpServletResponse response, HttpStatus status, String error, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        MAPPER.writeValue(response.getOutputStream(), Map.of("error", error, "message", message));
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String ct = request.getContentType();
+        return ct != null && ct.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Nullable
+    private static String extractEmail(HttpServletRequest request, String field) {
+        if (request instanceof CachedBodyRequest cached) {
+            JsonNode value = cached.json.get(field);
+            return (value != null && value.isTextual()) ? value.asText() : null;
+        }
+        return request.getParameter(field);
+    }
+
+    /** Lower-case, trim and drop "+tag" suffixes so address variants share one bucket. */
+    @Nullable
+    static String normalizeEmail(@Nullable String raw) {
+        if (!StringUtils.hasText(raw)) return null;
+        String email = raw.trim().toLowerCase(Locale.ROOT);
+        int at = email.indexOf('@');
+        if (at <= 0) return email;
+        String local = email.substring(0, at);
+        int plus = local.indexOf('+');
+        if (plus > 0) local = local.substring(0, plus);
+        return local + email.substring(at);
+    }
+
+    /** Buffers a small JSON body so it can be inspected here and read again by the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        /** Null when the body isn't JSON; an empty body reads as a missing node. */
+        @Nullable
+        private final JsonNode json;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body, @Nullable JsonNode json) {
+            super(request);
+            this.body = body;
+            this.json = json;
+        }
+
+        /**
+         * Reads up to MAX_CACHED_BODY bytes whatever Content-Length says (chunked bodies have none).
+         * Null when the body is larger than that.
+         */
+        @Nullable
+        static CachedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_CACHED_BODY) return null;
+            byte[] body = request.getInputStream().readNBytes(MAX_CACHED_BODY + 1);
+            if (body.length > MAX_CACHED_BODY) return null;
+            JsonNode json;
+            try {
+                JsonNode parsed = MAPPER.readTree(body);
+                json = (parsed != null) ? parsed : MissingNode.getInstance();
+            } catch (IOException malformed) {
+                json = null;
+            }
+            return new CachedBodyRequest(request, body, json);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) {
+                    // everything is already in memory: hand it over at once
+                    try {
+                        if (in.available() > 0) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String enc = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    enc == null ? StandardCharsets.UTF_8 : Charset.forName(enc)));
+        }
+    }
+}
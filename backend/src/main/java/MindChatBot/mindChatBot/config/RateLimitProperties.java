@@ -0,0 +1,53 @@
+package MindChatBot.mindChatBot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-bucket policies for the unauthenticated auth endpoints (app.rate-limit.*).
+ * Each route can be limited per client IP and per normalized email.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** memory = per-node buckets; mongo = buckets shared by every node */
+    private Store store = Store.MEMORY;
+
+    /**
+     * Peers (IPs or CIDR ranges) whose X-Forwarded-For is believed when picking the client IP;
+     * empty = always key on the TCP peer.
+     */
+    private List<String> trustedProxies = List.of();
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        /** Ant-style path, e.g. /signup */
+        private String path;
+        private List<String> methods = List.of("POST");
+        /** Form/JSON field holding the email (the login form posts it as "username") */
+        private String emailField = "email";
+        private Limit ip;
+        private Limit email;
+    }
+
+    /** Bucket of {@code capacity} tokens, refilled at capacity / period. */
+    @Data
+    public static class Limit {
+        private int capacity;
+        private Duration period = Duration.ofMinutes(1);
+    }
+
+    public enum Store {
+        MEMORY, MONGO
+    }
+}
@@ -0,0 +1,218 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.config.RateLimitProperties.Limit;
+import MindChatBot.mindChatBot.config.RateLimitProperties.Route;
+import MindChatBot.mindChatBot.service.RateLimitStore;
+import MindChatBot.mindChatBot.service.RateLimitStore.Decision;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * {@link RateLimitFilter} for the webflux profile: the same routes, buckets and 429 response.
+ * Emails are read from form posts and from JSON bodies, which are buffered (up to the same cap,
+ * with the same 413/400 refusals) and replayed. The store may call Mongo, so buckets are consumed
+ * on boundedElastic.
+ */
+@Slf4j
+public class ReactiveRateLimitFilter implements WebFilter, Ordered {
+
+    /** Just ahead of Spring Security's WebFilterChainProxy (-100), as the servlet filter is. */
+    static final int ORDER = -101;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_CACHED_BODY = 16 * 1024;
+    private static final String CACHED_BODY = ReactiveRateLimitFilter.class.getName() + ".body";
+    private static final byte[] REJECTED = "{\"error\":\"too_many_requests\",\"message\":\"Too many requests. Please try again later.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOO_LARGE = "{\"error\":\"payload_too_large\",\"message\":\"Request body is too large.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_JSON = "{\"error\":\"bad_request\",\"message\":\"Request body is not valid JSON.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private record Denial(String route, Decision decision) {}
+
+    /** A JSON body this filter won't pass on unread. */
+    private static final class BodyRefused extends RuntimeException {
+        private final HttpStatus status;
+        private final byte[] body;
+
+        BodyRefused(HttpStatus status, byte[] body) {
+            super(null, null, false, false);
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final ClientIpResolver clientIp;
+
+    public ReactiveRateLimitFilter(RateLimitProperties properties, RateLimitStore store) {
+        this.properties = properties;
+        this.store = store;
+        this.clientIp = new ClientIpResolver(properties.getTrustedProxies());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || properties.getRoutes().isEmpty()) return chain.filter(exchange);
+
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        List<Map.Entry<String, Route>> routes = properties.getRoutes().entrySet().stream()
+                .filter(e -> matches(e.getValue(), request.getMethod().name(), path))
+                .toList();
+        if (routes.isEmpty()) return chain.filter(exchange);
+
+        boolean needsEmail = routes.stream().anyMatch(e -> e.getValue().getEmail() != null);
+        Mono<ServerWebExchange> readable = needsEmail && isJson(request)
+                ? cacheBody(exchange).onErrorResume(BodyRefused.class,
+                        refused -> respond(exchange, refused.status, refused.body).then(Mono.empty()))
+                : Mono.just(exchange);
+        return readable.flatMap(ex -> emailFields(ex, needsEmail)
+                .flatMap(fields -> Mono.fromCallable(() -> Optional.ofNullable(firstDenial(ex, routes, fields)))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(denial -> denial.isPresent() ? reject(ex, denial.get()) : chain.filter(ex)));
+    }
+
+    private boolean matches(Route route, String method, String path) {
+        if (route.getPath() == null || !matcher.match(route.getPath(), path)) return false;
+        return route.getMethods() == null || route.getMethods().isEmpty()
+                || route.getMethods().stream().anyMatch(m -> m.equalsIgnoreCase(method));
+    }
+
+    @Nullable
+    private Denial firstDenial(ServerWebExchange exchange, List<Map.Entry<String, Route>> routes,
+                               Function<String, String> fields) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        List<String> forwardedFor = exchange.getRequest().getHeaders().get(ClientIpResolver.FORWARDED_FOR);
+        String ip = clientIp.resolve(
+                (remote == null || remote.getAddress() == null) ? null : remote.getAddress().getHostAddress(),
+                forwardedFor == null ? null : String.join(",", forwardedFor));
+
+        for (Map.Entry<String, Route> e : routes) {
+            Route route = e.getValue();
+            if (route.getIp() != null) {
+                Decision d = consume(e.getKey() + ":ip:" + ip, route.getIp());
+                if (!d.allowed()) return new Denial(e.getKey(), d);
+            }
+            if (route.getEmail() != null) {
+                String email = RateLimitFilter.normalizeEmail(fields.apply(route.getEmailField()));
+                if (email != null) {
+                    Decision d = consume(e.getKey() + ":email:" + email, route.getEmail());
+                    if (!d.allowed()) return new Denial(e.getKey(), d);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Decision consume(String key, Limit limit) {
+        return store.tryConsume("rl:" + key, limit.getCapacity(), limit.getPeriod());
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, Denial denial) {
+        log.warn("Rate limit hit on '{}' (retry after {}s)", denial.route(), denial.decision().retryAfterSeconds());
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(denial.decision().retryAfterSeconds()));
+        return respond(exchange, HttpStatus.TOO_MANY_REQUESTS, REJECTED);
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status, byte[] body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static boolean isJson(ServerHttpRequest request) {
+        MediaType ct = request.getHeaders().getContentType();
+        return ct != null && MediaType.APPLICATION_JSON.isCompatibleWith(ct);
+    }
+
+    /**
+     * Field lookup over the request body: the buffered JSON, or the form data (which the exchange
+     * caches, so Spring Security's CSRF and login filters can still read it).
+     */
+    private static Mono<Function<String, String>> emailFields(ServerWebExchange exchange, boolean needsEmail) {
+        if (!needsEmail) return Mono.just(field -> null);
+        JsonNode json = exchange.getAttribute(CACHED_BODY);
+        if (json != null) {
+            return Mono.just(field -> {
+                JsonNode value = json.get(field);
+                return (value != null && value.isTextual()) ? value.asText() : null;
+            });
+        }
+        if (isJson(exchange.getRequest())) return Mono.just(field -> null); // empty body
+        return exchange.getFormData().map(form -> form::getFirst);
+    }
+
+    /**
+     * Buffers a JSON body of up to MAX_CACHED_BODY bytes, whatever Content-Length says (chunked
+     * bodies have none), so it can be inspected here and read again by the controller.
+     * Fails with {@link BodyRefused} when the body is larger than that or isn't JSON.
+     */
+    private static Mono<ServerWebExchange> cacheBody(ServerWebExchange exchange) {
+        if (exchange.getRequest().getHeaders().getContentLength() > MAX_CACHED_BODY) {
+            return Mono.error(new BodyRefused(HttpStatus.PAYLOAD_TOO_LARGE, TOO_LARGE));
+        }
+        return DataBufferUtils.join(exchange.getRequest().getBody(), MAX_CACHED_BODY)
+                .onErrorMap(DataBufferLimitException.class, e -> new BodyRefused(HttpStatus.PAYLOAD_TOO_LARGE, TOO_LARGE))
+                .map(buffer -> {
+                    byte[] body = new byte[buffer.readableByteCount()];
+                    buffer.read(body);
+                    DataBufferUtils.release(buffer);
+                    JsonNode json;
+                    try {
+                        JsonNode parsed = MAPPER.readTree(body);
+                        json = (parsed != null) ? parsed : MissingNode.getInstance();
+                    } catch (IOException malformed) {
+                        throw new BodyRefused(HttpStatus.BAD_REQUEST, NOT_JSON);
+                    }
+                    ServerHttpRequest replay = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+                        }
+                    };
+                    ServerWebExchange replayed = exchange.mutate().request(replay).build();
+                    replayed.getAttributes().put(CACHED_BODY, json);
+                    return replayed;
+                })
+                .defaultIfEmpty(exchange);
+    }
+}
@@ -0,0 +1,144 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.controller.ViewController;
+import MindChatBot.mindChatBot.service.UserDetailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.reactive.PathRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationSuccessHandler;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.security.web.server.csrf.CookieServerCsrfTokenRepository;
+import org.springframework.security.web.server.csrf.CsrfToken;
+import org.springframework.security.web.server.csrf.CsrfWebFilter;
+import org.springframework.security.web.server.csrf.ServerCsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.server.util.matcher.AndServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * WebFlux counterpart of {@link WebSecurityConfig} for the webflux profile: the same URL rules,
+ * cookie CSRF token, form login and logout, with the security context kept in the WebSession and
+ * read through ReactiveSecurityContextHolder. app.auth.stateless (JWT cookies) is servlet-only.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final UserDetailService userDetailService;
+
+    @Value("${app.auth.stateless:false}")
+    private boolean stateless;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+
+    /** UserDetailService reads Mongo through the blocking driver, so lookups run on boundedElastic. */
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService() {
+        return username -> Mono.fromCallable(() -> userDetailService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Bean
+    public SecurityWebFilterChain webChain(ServerHttpSecurity http) {
+        if (stateless) {
+            throw new IllegalStateException("app.auth.stateless=true is not supported with the webflux profile");
+        }
+
+        CookieServerCsrfTokenRepository csrfRepo = CookieServerCsrfTokenRepository.withHttpOnlyFalse();
+        csrfRepo.setHeaderName("X-CSRF-TOKEN");
+
+        UserDetailsRepositoryReactiveAuthenticationManager authManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(reactiveUserDetailsService());
+        authManager.setPasswordEncoder(passwordEncoder());
+        // BCrypt is CPU-bound; keep it off the Netty event loop
+        authManager.setScheduler(Schedulers.boundedElastic());
+
+        RedirectServerLogoutSuccessHandler logoutSuccess = new RedirectServerLogoutSuccessHandler();
+        logoutSuccess.setLogoutSuccessUrl(URI.create("/login"));
+
+        http
+                .csrf(csrf -> csrf
+                        .csrfTokenRepository(csrfRepo)
+                        .csrfTokenRequestHandler(new ServerCsrfTokenRequestAttributeHandler())
+                        .requireCsrfProtectionMatcher(new AndServerWebExchangeMatcher(
+                                CsrfWebFilter.DEFAULT_CSRF_MATCHER,
+                                new NegatedServerWebExchangeMatcher(ServerWebExchangeMatchers.pathMatchers(
+                                        "/user/moods/**", "/user/notes/**", "/api/chat/**"))))
+                )
+                .authenticationManager(authManager)
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/login", "/signup", "/verify", "/resend-code", "/error", "/favicon.ico", "/forgot-password", "/reset-password").permitAll()
+                        .matchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
+                        .pathMatchers("/icons/**", "/uploads/**", "/site.webmanifest", "/manifest.webmanifest").permitAll()
+                        .pathMatchers("/actuator/health/**").permitAll()
+                        .matchers(scrapeOnManagementPort()).permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .formLogin(form -> form
+                        .loginPage("/login")
+                        .authenticationSuccessHandler(new RedirectServerAuthenticationSuccessHandler("/index"))
+                        .authenticationFailureHandler(new RedirectServerAuthenticationFailureHandler("/login?error=true"))
+                )
+                .logout(lo -> lo
+                        .logoutUrl("/logout")
+                        .logoutSuccessHandler(logoutSuccess)
+                );
+        return http.build();
+    }
+
+    /** Same rule as the servlet chain: an anonymous scrape only on a separate management port. */
+    private ServerWebExchangeMatcher scrapeOnManagementPort() {
+        boolean separatePort = managementPort > 0 && managementPort != serverPort;
+        ServerWebExchangeMatcher path = ServerWebExchangeMatchers.pathMatchers("/actuator/prometheus");
+        return exchange -> {
+            InetSocketAddress local = exchange.getRequest().getLocalAddress();
+            if (!separatePort || local == null || local.getPort() != managementPort) {
+                return ServerWebExchangeMatcher.MatchResult.notMatch();
+            }
+            return path.matches(exchange);
+        };
+    }
+
+    /**
+     * Reactive Thymeleaf can't read the request attribute the servlet filter exposes, so pages get
+     * the token as the {@code _csrf} model attribute (resolved before rendering); subscribing to it
+     * also writes the XSRF-TOKEN cookie the JavaScript sends back.
+     */
+    @ControllerAdvice(assignableTypes = ViewController.class)
+    static class CsrfModelAdvice {
+        @ModelAttribute("_csrf")
+        Mono<CsrfToken> csrfToken(ServerWebExchange exchange) {
+            Mono<CsrfToken> token = exchange.getAttribute(CsrfToken.class.getName());
+            return token != null ? token : Mono.empty();
+        }
+    }
+}
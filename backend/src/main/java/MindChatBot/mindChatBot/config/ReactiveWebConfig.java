@@ -0,0 +1,72 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.SimpleLocaleContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+
+import java.util.Locale;
+
+/**
+ * WebFlux side of the webflux profile. The services behind the controllers still use the blocking
+ * Mongo driver, so every handler method is invoked on a bounded worker pool rather than on a Netty
+ * event-loop thread; the Mono-returning chat, mood and note endpoints hand back to Reactor from there.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Value("${app.webflux.blocking-pool-size:64}")
+    private int blockingPoolSize;
+
+    @Bean
+    public ThreadPoolTaskExecutor webfluxBlockingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(blockingPoolSize);
+        executor.setMaxPoolSize(blockingPoolSize);
+        executor.setThreadNamePrefix("webflux-blocking-");
+        return executor;
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(webfluxBlockingExecutor());
+        // Mono-returning handlers also do a blocking write before returning their Mono
+        configurer.setControllerMethodPredicate(method -> true);
+    }
+
+    /**
+     * ?lang= first, then Accept-Language, as I18nConfig's interceptors do. Nothing is remembered
+     * between requests: there is no synchronous session to keep a chosen language in.
+     */
+    @Bean(name = WebHttpHandlerBuilder.LOCALE_CONTEXT_RESOLVER_BEAN_NAME)
+    public LocaleContextResolver localeContextResolver() {
+        return new LocaleContextResolver() {
+            @Override
+            public LocaleContext resolveLocaleContext(ServerWebExchange exchange) {
+                String lang = exchange.getRequest().getQueryParams().getFirst("lang");
+                Locale locale = StringUtils.hasText(lang)
+                        ? HeaderLocaleInterceptor.resolveFromHeader(lang)
+                        : HeaderLocaleInterceptor.resolveFromHeader(
+                                exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE));
+                return new SimpleLocaleContext(locale != null ? locale : Locale.ENGLISH);
+            }
+
+            @Override
+            public void setLocaleContext(ServerWebExchange exchange, @Nullable LocaleContext localeContext) {
+                throw new UnsupportedOperationException("The locale is resolved per request");
+            }
+        };
+    }
+}
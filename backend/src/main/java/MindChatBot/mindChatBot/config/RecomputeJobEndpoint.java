@@ -0,0 +1,42 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.model.BatchCheckpoint;
+import MindChatBot.mindChatBot.service.UserStatsRecomputeJob;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** GET /actuator/recompute: the user-stats job's checkpoint; POST starts (or resumes) a run, {"restart": true} from scratch. */
+@Component
+@Endpoint(id = "recompute")
+public class RecomputeJobEndpoint {
+
+    private final UserStatsRecomputeJob job;
+
+    public RecomputeJobEndpoint(UserStatsRecomputeJob job) {
+        this.job = job;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("runningHere", job.isRunning());
+        BatchCheckpoint cp = job.checkpoint();
+        out.put("checkpoint", cp == null ? Map.of() : cp);
+        return out;
+    }
+
+    /** {"started": false} with "reason" ALREADY_RUNNING (on this replica) or LEASE_HELD (by another one). */
+    @WriteOperation
+    public Map<String, Object> start(@Nullable Boolean restart) {
+        UserStatsRecomputeJob.Start outcome = job.start(Boolean.TRUE.equals(restart));
+        return outcome == UserStatsRecomputeJob.Start.STARTED
+                ? Map.of("started", true)
+                : Map.of("started", false, "reason", outcome.name());
+    }
+}
@@ -0,0 +1,31 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * app.session.store=mongo moves HttpSessions out of the servlet container so any replica
+ * can serve any request. Skipped in stateless mode, which has no sessions to share, and under
+ * the webflux profile, whose WebSessions stay in memory.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnExpression("'${app.session.store:container}' == 'mongo' and !${app.auth.stateless:false}")
+public class SessionStoreConfig {
+
+    @Bean
+    public MongoSessionRepository sessionRepository(MongoTemplate mongoTemplate,
+                                                    @Value("${app.session.timeout:30m}") Duration timeout,
+                                                    @Value("${app.session.near-cache-ttl:5s}") Duration nearCacheTtl,
+                                                    @Value("${app.session.near-cache-max-entries:10000}") int nearCacheMaxEntries) {
+        return new MongoSessionRepository(mongoTemplate, timeout, nearCacheTtl, nearCacheMaxEntries);
+    }
+}
@@ -0,0 +1,63 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.service.ChatArchiveService;
+import MindChatBot.mindChatBot.service.UserStatsRecomputeJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.util.Comparator;
+
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With spring.main.lazy-initialization (fast-start profile) these still start eagerly:
+     * key validation should fail the boot rather than the first request, @Scheduled methods
+     * are only registered for beans that exist, and the profiler must be on the client
+     * before its first command.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerInfrastructure() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                JwtTokenProvider.class,
+                MongoQueryProfiler.class,
+                MongoSessionRepository.class,
+                MongoIndexVerifier.class,
+                ChatArchiveService.class,
+                UserStatsRecomputeJob.class);
+    }
+
+    /** Logs the slowest startup steps recorded by the BufferingApplicationStartup set in main(). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void logStartupTimeline(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) return;
+
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        log.info("Started in {} ms; slowest steps:", event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis());
+        timeline.getEvents().stream()
+                .filter(e -> e.getDuration() != null)
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(15)
+                .forEach(e -> log.info("  {} ms  {} {}", e.getDuration().toMillis(), e.getStartupStep().getName(),
+                        describe(e.getStartupStep())));
+    }
+
+    private static String describe(org.springframework.core.metrics.StartupStep step) {
+        StringBuilder sb = new StringBuilder();
+        step.getTags().forEach(t -> {
+            if (t.getKey().equals("beanName") || t.getKey().equals("postProcessor")) {
+                sb.append(t.getKey()).append('=').append(t.getValue()).append(' ');
+            }
+        });
+        return sb.toString().trim();
+    }
+}
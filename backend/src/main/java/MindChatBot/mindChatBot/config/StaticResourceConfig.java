@@ -0,0 +1,47 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fingerprinted asset URLs (/css/styles-&lt;md5&gt;.css) are cached by browsers for a year as
+ * immutable. Templates get those URLs from @{...} via Boot's ResourceUrlEncodingFilter, using the
+ * content-version chain configured under spring.web.resources.chain. Plain, unversioned URLs
+ * (e.g. built in JavaScript) still go to Boot's /** handler and are revalidated on every use.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    /** Only names ending in -&lt;32 hex&gt;.ext land here, so a stale unversioned file is never pinned. */
+    private static final String FINGERPRINTED = "{file:.+-[0-9a-f]{32}\\.[A-Za-z0-9]+}";
+    private static final List<String> DIRECTORIES = List.of("css", "js", "icons");
+
+    @Value("${app.static.immutable-max-age:365d}")
+    private Duration immutableMaxAge;
+
+    @Value("${spring.web.resources.chain.cache:true}")
+    private boolean cacheResolvedResources;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String dir : DIRECTORIES) {
+            registry.addResourceHandler("/" + dir + "/" + FINGERPRINTED)
+                    .addResourceLocations("classpath:/static/" + dir + "/")
+                    .setCacheControl(CacheControl.maxAge(immutableMaxAge).cachePublic().immutable())
+                    .resourceChain(cacheResolvedResources)
+                    // .br/.gz siblings come from the processResources step in build.gradle
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+}
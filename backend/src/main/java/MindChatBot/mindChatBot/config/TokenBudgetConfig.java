@@ -0,0 +1,10 @@
+package MindChatBot.mindChatBot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Binds app.llm.budget.* for TokenLedger, independently of whether the tokens endpoint is exposed. */
+@Configuration
+@EnableConfigurationProperties(TokenBudgetProperties.class)
+public class TokenBudgetConfig {
+}
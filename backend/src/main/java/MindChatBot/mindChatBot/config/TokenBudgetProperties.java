@@ -0,0 +1,40 @@
+package MindChatBot.mindChatBot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Daily LLM token budgets (app.llm.budget.*). Every user is on a plan (User.plan, or
+ * {@code default-plan} when unset); a call is refused up front when today's recorded tokens
+ * plus its estimate would exceed the plan's {@code daily-tokens}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.llm.budget")
+public class TokenBudgetProperties {
+
+    /** false = usage is still recorded, but chats are limited by the app.chat.daily-limit message count */
+    private boolean enabled = true;
+
+    private String defaultPlan = "free";
+
+    private Map<String, Plan> plans = new LinkedHashMap<>();
+
+    /** ASCII characters per token for the pre-call estimate; every other character counts as one token */
+    private double charsPerToken = 4.0;
+
+    /** Completion tokens assumed by the pre-call estimate */
+    private int completionAllowance = 300;
+
+    /** How long daily ledger documents are kept */
+    private Duration retention = Duration.ofDays(90);
+
+    @Data
+    public static class Plan {
+        /** Prompt + completion tokens per UTC day; 0 = unlimited */
+        private long dailyTokens;
+    }
+}
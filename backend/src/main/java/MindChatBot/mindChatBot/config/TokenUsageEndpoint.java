@@ -0,0 +1,86 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.model.TokenUsage;
+import MindChatBot.mindChatBot.service.TokenLedger;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/tokens?day=&limit=: the day's token totals and heaviest users;
+ * GET /actuator/tokens/{userId}?days=: one user's plan, remaining budget and daily ledger;
+ * POST /actuator/tokens/{userId} {"plan": "..."} moves the user to another plan.
+ */
+@Component
+@Endpoint(id = "tokens")
+public class TokenUsageEndpoint {
+
+    private static final int MAX_ROWS = 500;
+
+    private final TokenLedger ledger;
+
+    public TokenUsageEndpoint(TokenLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @ReadOperation
+    public Map<String, Object> overview(@Nullable String day, @Nullable Integer limit) {
+        LocalDate d = parseDay(day);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("day", d.toString());
+        out.put("enforced", ledger.isEnabled());
+        out.put("totals", ledger.totals(d));
+        out.put("top", ledger.top(d, clamp(limit, 20)));
+        return out;
+    }
+
+    @ReadOperation
+    public Map<String, Object> user(@Selector String userId, @Nullable Integer days) {
+        String plan = ledger.planOf(userId);
+        long limit = ledger.limitOf(plan);
+        List<TokenUsage> history = ledger.history(userId, clamp(days, 7));
+        String today = ledger.today().toString();
+        long used = history.stream().filter(u -> today.equals(u.getDay()))
+                .mapToLong(TokenUsage::getTotalTokens).findFirst().orElse(0);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("userId", userId);
+        out.put("plan", plan);
+        out.put("dailyTokens", limit);
+        out.put("usedToday", used);
+        out.put("remainingToday", limit <= 0 ? null : Math.max(0, limit - used));
+        out.put("history", history);
+        return out;
+    }
+
+    @WriteOperation
+    public Map<String, Object> setPlan(@Selector String userId, String plan) {
+        if (!ledger.isPlan(plan)) {
+            throw new InvalidEndpointRequestException("Unknown plan: " + plan, "Unknown plan");
+        }
+        return Map.of("userId", userId, "plan", plan, "updated", ledger.setPlan(userId, plan));
+    }
+
+    private LocalDate parseDay(String day) {
+        if (day == null || day.isBlank()) return ledger.today();
+        try {
+            return LocalDate.parse(day);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException("day must be yyyy-MM-dd: " + day, "Invalid day");
+        }
+    }
+
+    private static int clamp(Integer value, int fallback) {
+        return value == null ? fallback : Math.max(1, Math.min(MAX_ROWS, value));
+    }
+}
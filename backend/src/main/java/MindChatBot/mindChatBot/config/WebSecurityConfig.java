@@ -2,7 +2,10 @@ package MindChatBot.mindChatBot.config;
 
 import MindChatBot.mindChatBot.service.UserDetailService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -14,18 +17,31 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class WebSecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final ApiAuthEntryPoint apiAuthEntryPoint;
     private final UserDetailService userDetailService;
+    private final AuthCookies authCookies;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
 
     @Bean
     public BCryptPasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
@@ -38,6 +54,25 @@ public class WebSecurityConfig {
         return authProvider;
     }
 
+    /** The JWT filter only belongs inside the security chains, not as a global servlet filter too. */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.setEnabled(false);
+        return reg;
+    }
+
+    /**
+     * Prometheus may scrape without a login only on a separate management.server.port (kept off the
+     * public network); on the application port /actuator/prometheus needs ADMIN like the rest.
+     */
+    private RequestMatcher scrapeOnManagementPort() {
+        boolean separatePort = managementPort > 0 && managementPort != serverPort;
+        return new AndRequestMatcher(
+                new AntPathRequestMatcher("/actuator/prometheus"),
+                request -> separatePort && request.getLocalPort() == managementPort);
+    }
+
     @Bean
     @Order(1)
     public SecurityFilterChain apiChain(HttpSecurity http) throws Exception {
@@ -79,33 +114,58 @@ public class WebSecurityConfig {
                                 new AntPathRequestMatcher("/api/chat/**")
                         )
                 )
-                // This chain is stateful (uses session cookies)
-                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                // Stateful (session cookie) by default; app.auth.stateless=true switches to JWT cookies
+                .sessionManagement(sm -> sm.sessionCreationPolicy(authCookies.isStateless()
+                        ? SessionCreationPolicy.STATELESS
+                        : SessionCreationPolicy.IF_REQUIRED))
                 .authenticationProvider(authenticationProvider())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login", "/signup", "/verify", "/resend-code", "/error", "/favicon.ico", "/forgot-password", "/reset-password").permitAll()
                         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
                         .requestMatchers("/icons/**", "/uploads/**", "/site.webmanifest", "/manifest.webmanifest").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers(scrapeOnManagementPort()).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // This rule now correctly handles the chat API
                         .requestMatchers("/api/chat/**").authenticated()
                         .requestMatchers("/user/**").authenticated()
                         .anyRequest().authenticated()
                 )
-                .formLogin(form -> form
-                        .loginPage("/login").loginProcessingUrl("/login")
-                        .defaultSuccessUrl("/index", true)
-                        .failureUrl("/login?error=true")
-                        .permitAll()
-                )
+                .formLogin(form -> {
+                    form.loginPage("/login").loginProcessingUrl("/login")
+                            .defaultSuccessUrl("/index", true)
+                            .failureUrl("/login?error=true")
+                            .permitAll();
+                    if (authCookies.isStateless()) form.successHandler(jwtCookieSuccessHandler());
+                })
                 .logout(lo -> lo
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/login")
-                        .deleteCookies("JSESSIONID")
+                        .addLogoutHandler((req, res, auth) -> {
+                            if (authCookies.isStateless()) authCookies.clear(res);
+                        })
+                        .deleteCookies("JSESSIONID", "SESSION")
                         .invalidateHttpSession(true)
                         .permitAll()
                 );
 
+        if (authCookies.isStateless()) {
+            // No HttpSession at all: identity comes from the JWT cookies on every request
+            http.requestCache(rc -> rc.requestCache(new NullRequestCache()))
+                    .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        }
+
         return http.build();
     }
+
+    /** Same redirect as defaultSuccessUrl("/index", true), after handing out the JWT cookies. */
+    private AuthenticationSuccessHandler jwtCookieSuccessHandler() {
+        SimpleUrlAuthenticationSuccessHandler redirect = new SimpleUrlAuthenticationSuccessHandler("/index");
+        redirect.setAlwaysUseDefaultTargetUrl(true);
+        return (request, response, authentication) -> {
+            authCookies.issue(response, authentication.getName(), authentication.getAuthorities());
+            redirect.onAuthenticationSuccess(request, response, authentication);
+        };
+    }
 } 
\ No newline at end of file
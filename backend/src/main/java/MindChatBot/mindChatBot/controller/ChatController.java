@@ -2,14 +2,14 @@ package MindChatBot.mindChatBot.controller;
 
 import MindChatBot.mindChatBot.model.ChatLog;
 import MindChatBot.mindChatBot.model.User; // <-- Import User model
+import MindChatBot.mindChatBot.service.ChatArchiveService;
+import MindChatBot.mindChatBot.service.ChatMetrics;
 import MindChatBot.mindChatBot.service.OpenAiService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -22,21 +22,26 @@ import java.util.*;
 public class ChatController {
 
     private final OpenAiService openAiService;
+    private final ChatMetrics chatMetrics;
+    private final ChatArchiveService chatArchiveService;
 
     @Autowired
-    public ChatController(OpenAiService openAiService) {
+    public ChatController(OpenAiService openAiService, ChatMetrics chatMetrics, ChatArchiveService chatArchiveService) {
         this.openAiService = openAiService;
+        this.chatMetrics = chatMetrics;
+        this.chatArchiveService = chatArchiveService;
     }
 
     @PostMapping
     public Mono<ResponseEntity<Map<String, String>>> chatWithBot(
             @RequestBody Map<String, Object> body,
-            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage) {
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage,
+            Authentication authentication, Locale locale) {
 
         // --- USER ID IS NOW FETCHED SECURELY ---
         String userId;
         try {
-            userId = getCurrentUserId();
+            userId = getCurrentUserId(authentication);
         } catch (IllegalStateException e) {
             return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated.")));
         }
@@ -47,10 +52,11 @@ public class ChatController {
             return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Message is empty.")));
         }
 
+        String lang = normalizeLang(asStringOrNull(body.get("lang")), acceptLanguage, locale);
+
         // --- ENFORCE THE DAILY LIMIT HERE ---
         // Pass Collections.emptyList() because history is now loaded inside the service
-        return openAiService.sendMessageToOpenAI(Collections.emptyList(), message, userId,
-                        normalizeLang(asStringOrNull(body.get("lang")), acceptLanguage, LocaleContextHolder.getLocale()))
+        return chatMetrics.timed(ChatMetrics.STAGE_TOTAL, lang, openAiService.sendMessageToOpenAI(Collections.emptyList(), message, userId, lang)
                 .flatMap(response -> {
                     // If the response is null or empty (user exceeded limit and warning already sent)
                     if (response == null || response.isBlank()) {
@@ -60,9 +66,9 @@ public class ChatController {
                     }
 
                     // Save chat and return response normally
-                    return openAiService.saveChatLog(userId, message, response)
+                    return chatMetrics.timed(ChatMetrics.STAGE_PERSIST, lang, openAiService.saveChatLog(userId, message, response))
                             .thenReturn(ResponseEntity.ok(Map.of("response", response)));
-                })
+                }))
                 .onErrorResume(err -> {
                     log.error("An unexpected error occurred in the chat flow for user '{}': {}", userId, err.getMessage());
                     return Mono.just(ResponseEntity.status(500)
@@ -71,11 +77,12 @@ public class ChatController {
     }
 
     @GetMapping("/history/{userId}")
-    public Mono<ResponseEntity<List<ChatLog>>> getChatHistory(@PathVariable String userId) {
+    public Mono<ResponseEntity<List<ChatLog>>> getChatHistory(@PathVariable String userId,
+                                                          Authentication authentication) {
         // --- SECURELY CHECK USER ID ---
         String authenticatedUserId;
         try {
-            authenticatedUserId = getCurrentUserId();
+            authenticatedUserId = getCurrentUserId(authentication);
         } catch (IllegalStateException e) {
             return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
         }
@@ -86,7 +93,8 @@ public class ChatController {
             return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
         }
 
-        return openAiService.getChatHistory(userId)
+        // Archived months first, then the recent turns still in chat_logs
+        return chatArchiveService.withArchived(userId, openAiService.getChatHistory(userId))
                 .collectList()
                 .map(ResponseEntity::ok)
                 .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().build()));
@@ -108,8 +116,9 @@ public class ChatController {
     }
 
     // --- SECURE HELPER TO GET LOGGED-IN USER ---
-    private String getCurrentUserId() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    // Resolved as a handler argument rather than from SecurityContextHolder, so it works under
+    // servlet MVC and under WebFlux (where it comes from ReactiveSecurityContextHolder).
+    private String getCurrentUserId(Authentication auth) {
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
             throw new IllegalStateException("No authentication in context");
         }
@@ -0,0 +1,66 @@
+package MindChatBot.mindChatBot.controller;
+
+import MindChatBot.mindChatBot.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Downloads everything stored for the signed-in user as NDJSON (?gzip=true for .ndjson.gz).
+     * Written straight to the servlet response on the request thread: no async timeout to
+     * outlive, and TCP backpressure throttles the Mongo cursors.
+     */
+    @GetMapping("/user/export")
+    public void export(@RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) throws IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        String userId = auth.getName();
+
+        String filename = "mindchat-export-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE)
+                + (gzip ? ".ndjson.gz" : ".ndjson");
+        response.setContentType(gzip ? "application/gzip" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        long started = System.nanoTime();
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024)) {
+                long lines = exportService.writeNdjson(userId, zipped);
+                zipped.finish();
+                log.info("Exported {} records (gzip) for {} in {} ms", lines, userId, (System.nanoTime() - started) / 1_000_000);
+            }
+        } else {
+            long lines = exportService.writeNdjson(userId, out);
+            log.info("Exported {} records for {} in {} ms", lines, userId, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+}
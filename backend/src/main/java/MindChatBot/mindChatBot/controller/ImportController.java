@@ -0,0 +1,64 @@
+package MindChatBot.mindChatBot.controller;
+
+import MindChatBot.mindChatBot.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * POST /user/import?format=csv|ndjson[&batchSize=500][&classifyNotes=false] with the file as
+     * the raw request body (UTF-8). Returns counts plus per-row errors; valid rows are kept even
+     * when others fail. No chat replies are generated.
+     */
+    @PostMapping(value = "/user/import", produces = "application/json")
+    public ImportService.Report importData(@RequestParam(defaultValue = "csv") String format,
+                                           @RequestParam(required = false) Integer batchSize,
+                                           @RequestParam(defaultValue = "false") boolean classifyNotes,
+                                           HttpServletRequest request) throws IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+
+        ImportService.Format parsed;
+        try {
+            parsed = ImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        if (batchSize != null && (batchSize < 1 || batchSize > ImportService.MAX_BATCH_SIZE)) {
+            throw new IllegalArgumentException("batchSize must be 1-" + ImportService.MAX_BATCH_SIZE);
+        }
+
+        long started = System.nanoTime();
+        try (Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            ImportService.Report report = importService.importStream(auth.getName(), body, parsed, batchSize, classifyNotes);
+            log.info("Imported {} rows ({} moods, {} notes, {} failed) for {} in {} ms",
+                    report.getRows(), report.getMoodsWritten(), report.getNotesWritten(), report.getFailed(),
+                    auth.getName(), (System.nanoTime() - started) / 1_000_000);
+            return report;
+        }
+    }
+}
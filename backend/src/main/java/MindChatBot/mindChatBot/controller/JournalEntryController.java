@@ -5,8 +5,8 @@
         import org.springframework.beans.factory.annotation.Autowired;
         import org.springframework.format.annotation.DateTimeFormat;
         import org.springframework.http.HttpStatus;
+        import org.springframework.http.ResponseEntity;
         import org.springframework.security.core.Authentication;
-        import org.springframework.security.core.context.SecurityContextHolder;
         import org.springframework.web.bind.annotation.*;
         import org.springframework.web.server.ResponseStatusException;
         import reactor.core.publisher.Mono;
@@ -29,11 +29,10 @@
             @GetMapping(produces = "application/json")
             public List<JournalEntry> getNotes(
                     @RequestParam(required = false)
-                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                    Authentication auth) {
 
-                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-                String userId = auth.getName();
+                String userId = currentUserId(auth);
 
                 return (date != null)
                         ? journalEntryService.getEntriesForUserByDate(userId, date)
@@ -41,10 +40,8 @@
             }
 
             @PostMapping(consumes = "application/json", produces = "application/json")
-            public Mono<Map<String, Object>> createNote(@RequestBody JournalEntry note) {
-                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-                String userId = auth.getName();
+            public Mono<Map<String, Object>> createNote(@RequestBody JournalEntry note, Authentication auth) {
+                String userId = currentUserId(auth);
 
                 if (note == null || note.getContent() == null || note.getContent().isBlank()) {
                     throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "content is required");
@@ -66,11 +63,61 @@
                         });
             }
 
+            /**
+             * Keyset-paged, newest first: pass the previous response's nextCursor to continue.
+             * view=summary (default) returns id/date/timestamp/excerpt; view=full returns whole entries.
+             */
+            @GetMapping(path = "/page", produces = "application/json")
+            public Map<String, Object> getNotesPage(
+                    @RequestParam(required = false) String cursor,
+                    @RequestParam(defaultValue = "20") int size,
+                    @RequestParam(defaultValue = "summary") String view,
+                    Authentication auth) {
+                String userId = currentUserId(auth);
+                JournalEntryService.Page<?> page = isFull(view)
+                        ? journalEntryService.getEntryPage(userId, cursor, size)
+                        : journalEntryService.getSummaryPage(userId, cursor, size);
+
+                Map<String, Object> out = new HashMap<>();
+                out.put("items", page.items());
+                out.put("nextCursor", page.nextCursor());
+                return out;
+            }
+
+            /** Entries dated from..to (inclusive, oldest first), at most a year at a time. */
+            @GetMapping(path = "/range", produces = "application/json")
+            public List<?> getNotesInRange(
+                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                    @RequestParam(defaultValue = "summary") String view,
+                    Authentication auth) {
+                String userId = currentUserId(auth);
+                return isFull(view)
+                        ? journalEntryService.getEntriesInRange(userId, from, to)
+                        : journalEntryService.getSummariesInRange(userId, from, to);
+            }
+
+            @GetMapping(path = "/{id}", produces = "application/json")
+            public ResponseEntity<JournalEntry> getNote(@PathVariable String id, Authentication auth) {
+                return journalEntryService.getEntry(currentUserId(auth), id)
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build());
+            }
+
             @GetMapping(path = "/all", produces = "application/json")
-            public List<JournalEntry> getAllNotes() {
-                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-                String userId = auth.getName();
+            public List<JournalEntry> getAllNotes(Authentication auth) {
+                String userId = currentUserId(auth);
                 return journalEntryService.getAllEntriesForUser(userId);
             }
+
+            private static String currentUserId(Authentication auth) {
+                if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+                return auth.getName();
+            }
+
+            private static boolean isFull(String view) {
+                if ("full".equalsIgnoreCase(view)) return true;
+                if ("summary".equalsIgnoreCase(view)) return false;
+                throw new IllegalArgumentException("view must be summary or full");
+            }
         }
@@ -1,11 +1,14 @@
 package MindChatBot.mindChatBot.controller;
 
+import MindChatBot.mindChatBot.dto.MoodInsights;
 import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.model.UserStats;
+import MindChatBot.mindChatBot.repository.UserStatsRepository;
+import MindChatBot.mindChatBot.service.MoodInsightsService;
 import MindChatBot.mindChatBot.service.MoodService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -17,19 +20,26 @@ import java.util.*;
 public class MoodController {
 
     private final MoodService moodService;
+    private final MoodInsightsService moodInsightsService;
+    private final UserStatsRepository userStatsRepository;
 
     @Autowired
-    public MoodController(MoodService moodService) { this.moodService = moodService; }
+    public MoodController(MoodService moodService, MoodInsightsService moodInsightsService,
+                          UserStatsRepository userStatsRepository) {
+        this.moodService = moodService;
+        this.moodInsightsService = moodInsightsService;
+        this.userStatsRepository = userStatsRepository;
+    }
 
     @GetMapping("/fetch")
-    public List<Mood> getMoodsByQuery(@RequestParam int year, @RequestParam int month) {
-        String userId = getCurrentUserId();
+    public List<Mood> getMoodsByQuery(@RequestParam int year, @RequestParam int month, Authentication auth) {
+        String userId = getCurrentUserId(auth);
         return moodService.getMoodsByMonth(userId, year, month);
     }
 
     @PostMapping("/fetch")
-    public List<Mood> getMoodsByJson(@RequestBody Map<String, Integer> request) {
-        String userId = getCurrentUserId();
+    public List<Mood> getMoodsByJson(@RequestBody Map<String, Integer> request, Authentication auth) {
+        String userId = getCurrentUserId(auth);
         Integer year = request.get("year");
         Integer month = request.get("month");
         if (year == null || month == null) throw new IllegalArgumentException("Year and month must be provided.");
@@ -39,23 +49,38 @@ public class MoodController {
     @PostMapping("/save")
     public Mono<Map<String, Object>> saveMood(
             @RequestBody Mood mood,
-            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage) {
+            @RequestHeader(value = "Accept-Language", required = false) String acceptLanguage,
+            Authentication auth, Locale locale) {
 
-        String userId = getCurrentUserId();
+        String userId = getCurrentUserId(auth);
         String bodyLang = (mood.getLang() == null ? null : mood.getLang());
-        String lang = normalizeLang(bodyLang, acceptLanguage, LocaleContextHolder.getLocale());
+        String lang = normalizeLang(bodyLang, acceptLanguage, locale);
         return moodService.saveMoodWithReply(userId, mood, lang);
     }
 
     @GetMapping("/stats")
-    public Map<String, Object> getMoodStats() {
-        String userId = getCurrentUserId();
+    public Map<String, Object> getMoodStats(Authentication auth) {
+        String userId = getCurrentUserId(auth);
         return moodService.getMoodStatistics(userId);
     }
 
+    /** Rolling averages, weekday and month-over-month figures and the per-day series, in one document. */
+    @GetMapping("/insights")
+    public MoodInsights getInsights(Authentication auth) {
+        String userId = getCurrentUserId(auth);
+        return moodInsightsService.getInsights(userId);
+    }
+
+    /** Streaks and totals from the nightly recompute; 404 until the user's first run. */
+    @GetMapping("/summary")
+    public ResponseEntity<UserStats> getSummary(Authentication auth) {
+        String userId = getCurrentUserId(auth);
+        return ResponseEntity.of(userStatsRepository.findById(userId));
+    }
+
     @GetMapping("/all")
-    public List<Mood> getAllMoods() {
-        String userId = getCurrentUserId();
+    public List<Mood> getAllMoods(Authentication auth) {
+        String userId = getCurrentUserId(auth);
         return moodService.getAllMoodsForUser(userId);
     }
 
@@ -69,8 +94,7 @@ public class MoodController {
         return "en";
     }
 
-    private String getCurrentUserId() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    private static String getCurrentUserId(Authentication auth) {
         if (auth == null) throw new IllegalStateException("No authentication in context");
         Object p = auth.getPrincipal();
         if (p instanceof MindChatBot.mindChatBot.model.User u) return u.getId();
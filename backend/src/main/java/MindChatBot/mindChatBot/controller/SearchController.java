@@ -0,0 +1,50 @@
+package MindChatBot.mindChatBot.controller;
+
+import MindChatBot.mindChatBot.service.SearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/user/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /** GET /user/search?q=...&type=all|notes|chats&page=0&size=20, best match first. */
+    @GetMapping(produces = "application/json")
+    public Map<String, Object> search(@RequestParam String q,
+                                      @RequestParam(defaultValue = "all") String type,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size,
+                                      Authentication auth) {
+        if (auth == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        if (!StringUtils.hasText(q) || q.length() > 200) {
+            throw new IllegalArgumentException("q must be 1-200 characters");
+        }
+
+        SearchService.Scope scope;
+        try {
+            scope = SearchService.Scope.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type must be all, notes or chats");
+        }
+
+        SearchService.Page result = searchService.search(auth.getName(), q.trim(), scope, page, size);
+        return Map.of(
+                "query", q.trim(),
+                "page", result.page(),
+                "size", result.size(),
+                "hasMore", result.hasMore(),
+                "hits", result.hits());
+    }
+}
@@ -2,9 +2,11 @@
 package MindChatBot.mindChatBot.controller;
 
 import MindChatBot.mindChatBot.dto.AddUserRequest;
+import MindChatBot.mindChatBot.model.OtpCode.Purpose;
 import MindChatBot.mindChatBot.model.User;
 import MindChatBot.mindChatBot.repository.UserRepository;
-import MindChatBot.mindChatBot.service.EmailService;
+import MindChatBot.mindChatBot.service.RegistrationOtpService;
+import MindChatBot.mindChatBot.service.RegistrationOtpService.VerificationResult;
 import MindChatBot.mindChatBot.service.UserDetailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +25,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Controller
@@ -32,18 +33,8 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final RegistrationOtpService otpService;
     private final UserDetailService userDetailService;
-    private final long CODE_EXPIRATION_MINUTES = 10; // Set expiration time
-
-    private String generateCode() {
-        return String.format("%06d", ThreadLocalRandom.current().nextInt(100000, 1000000));
-    }
-
-    private void updateUserWithCode(User user, String code) {
-        user.setVerificationCode(code);
-        user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(CODE_EXPIRATION_MINUTES));
-    }
 
     /* ---------- STEP 1: JSON (AJAX) ---------- */
     @PostMapping(value = "/signup", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -58,17 +49,20 @@ public class UserController {
                     .body(Map.of("error", "An account with this email already exists."));
         }
 
-        String code = generateCode();
         User user = existing.orElseGet(User::new);
         user.setEmail(email);
         user.setName(Optional.ofNullable(request.getName()).orElse("").trim());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
-        updateUserWithCode(user, code); // Use helper method
         user.setVerified(false);
         if (user.getCreatedAt() == null) user.setCreatedAt(LocalDateTime.now());
 
         userRepository.save(user);
-        emailService.sendVerificationCode(email, code);
+        if (!otpService.issueCode(email, Purpose.VERIFY)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(otpService.resendRetryAfterSeconds(email, Purpose.VERIFY)))
+                    .body(Map.of("error", "Too many wrong codes. Please try again later."));
+        }
 
         return ResponseEntity.ok(Map.of("confirmationId", email));
     }
@@ -84,41 +78,44 @@ public class UserController {
             return "redirect:/signup?error=exists";
         }
 
-        String code = generateCode();
         User user = existing.orElseGet(User::new);
         user.setEmail(email);
         user.setName(Optional.ofNullable(request.getName()).orElse("").trim());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
-        updateUserWithCode(user, code); // Use helper method
         user.setVerified(false);
         if (user.getCreatedAt() == null) user.setCreatedAt(LocalDateTime.now());
 
         userRepository.save(user);
-        emailService.sendVerificationCode(email, code);
+        String encoded = UriUtils.encode(email, StandardCharsets.UTF_8);
+        if (!otpService.issueCode(email, Purpose.VERIFY)) {
+            return "redirect:/signup?error=locked&email=" + encoded;
+        }
 
-        return "redirect:/signup?email=" + UriUtils.encode(email, StandardCharsets.UTF_8);
+        return "redirect:/signup?email=" + encoded;
     }
 
     /* ---------- STEP 2: verify code ---------- */
     @PostMapping("/verify")
     public String verifyRegistration(@RequestParam("email") String email,
                                      @RequestParam("verificationCode") String code) {
-        Optional<User> opt = userRepository.findByEmail(email.toLowerCase().trim());
+        final String normalized = email.toLowerCase().trim();
+        Optional<User> opt = userRepository.findByEmail(normalized);
         if (opt.isEmpty()) return "redirect:/signup?error=notFound";
 
         User user = opt.get();
         if (user.isVerified()) return "redirect:/login?verified=true";
 
-        // Check code and expiration
-        if (Objects.equals(user.getVerificationCode(), code) &&
-                user.getVerificationCodeExpiresAt().isAfter(LocalDateTime.now())) {
-            user.setVerified(true);
-            user.setVerificationCode(null);
-            user.setVerificationCodeExpiresAt(null);
-            userRepository.save(user);
-            return "redirect:/login?success=true";
-        }
-        return "redirect:/signup?error=invalidCode&email=" + UriUtils.encode(email, StandardCharsets.UTF_8);
+        // Check code and expiration (the code is consumed on success)
+        VerificationResult result = otpService.verify(normalized, Purpose.VERIFY, code);
+        String error = switch (result) {
+            case OK -> null;
+            case EXPIRED -> "expiredCode";
+            case NO_CODE -> "noCode";
+            case LOCKED -> "locked";
+            case INVALID -> "invalidCode";
+        };
+        if (error == null) return "redirect:/login?success=true";
+        return "redirect:/signup?error=" + error + "&email=" + UriUtils.encode(email, StandardCharsets.UTF_8);
     }
 
     /* ---------- Resend code (AJAX) ---------- */
@@ -128,11 +125,12 @@ public class UserController {
         String email = Optional.ofNullable(payload.get("email")).orElse("").trim().toLowerCase();
         Optional<User> opt = userRepository.findByEmail(email);
         if (opt.isPresent() && !opt.get().isVerified()) {
-            String code = generateCode();
-            User u = opt.get();
-            updateUserWithCode(u, code); // Use helper method
-            userRepository.save(u);
-            emailService.sendVerificationCode(email, code);
+            if (!otpService.canResend(email, Purpose.VERIFY) || !otpService.issueCode(email, Purpose.VERIFY)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER,
+                                String.valueOf(otpService.resendRetryAfterSeconds(email, Purpose.VERIFY)))
+                        .build();
+            }
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -146,19 +144,18 @@ public class UserController {
         String email = payload.get("email").toLowerCase().trim();
         log.info("Password reset request for {}", email);
 
-        Optional<User> optUser = userRepository.findByEmail(email);
-        if (optUser.isEmpty()) {
+        if (!userRepository.existsByEmail(email)) {
             // Return 404 to be handled by JS, but log it for security awareness
             log.warn("Password reset attempt for non-existent email: {}", email);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        User user = optUser.get();
-        String code = generateCode();
-        updateUserWithCode(user, code); // Reuse helper method
-        userRepository.save(user);
-
-        emailService.sendPasswordResetCode(email, code);
+        if (!otpService.canResend(email, Purpose.RESET) || !otpService.issueCode(email, Purpose.RESET)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(otpService.resendRetryAfterSeconds(email, Purpose.RESET)))
+                    .build();
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -170,34 +167,29 @@ public class UserController {
                                       RedirectAttributes redirectAttributes) {
 
         log.info("Attempting to reset password for {}", email);
-        Optional<User> optUser = userRepository.findByEmail(email.toLowerCase().trim());
+        final String normalized = email.toLowerCase().trim();
 
         // Prepare redirect attributes for both success and failure cases
         redirectAttributes.addAttribute("lang", lang);
 
-        if (optUser.isEmpty()) {
+        if (!userRepository.existsByEmail(normalized)) {
             redirectAttributes.addAttribute("error", "An unexpected error occurred.");
             return "redirect:/forgot-password";
         }
 
-        User user = optUser.get();
-
-        // Check if code is valid and not expired
-        if (user.getVerificationCode() == null ||
-                !user.getVerificationCode().equals(code) ||
-                user.getVerificationCodeExpiresAt().isBefore(LocalDateTime.now())) {
-
-            log.warn("Invalid or expired password reset code for {}", email);
+        // Check if code is valid and not expired (the code is consumed on success)
+        VerificationResult result = otpService.verify(normalized, Purpose.RESET, code);
+        if (result != VerificationResult.OK) {
+            log.warn("Password reset code rejected for {}: {}", email, result);
             redirectAttributes.addAttribute("email", email);
-            redirectAttributes.addAttribute("error", "The code is invalid or has expired.");
+            redirectAttributes.addAttribute("error", result == VerificationResult.LOCKED
+                    ? "Too many attempts. Try again later."
+                    : "The code is invalid or has expired.");
             return "redirect:/reset-password";
         }
 
-        // Success: update password, clear code, and redirect to login
-        user.setPassword(passwordEncoder.encode(password));
-        user.setVerificationCode(null);
-        user.setVerificationCodeExpiresAt(null);
-        userRepository.save(user);
+        // Success: update only the password field and redirect to login
+        userRepository.updatePasswordByEmail(normalized, passwordEncoder.encode(password));
 
         log.info("Password successfully reset for {}", email);
         redirectAttributes.addAttribute("reset_success", true);
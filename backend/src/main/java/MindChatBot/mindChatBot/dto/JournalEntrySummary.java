@@ -0,0 +1,26 @@
+package MindChatBot.mindChatBot.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** List-view projection of a JournalEntry: the excerpt is cut server-side, the full text is never sent. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntrySummary {
+
+    private String id;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private LocalDateTime timestamp;
+
+    private String excerpt;
+}
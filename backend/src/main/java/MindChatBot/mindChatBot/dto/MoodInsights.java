@@ -0,0 +1,91 @@
+package MindChatBot.mindChatBot.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the statistics page draws, computed server-side by MoodInsightsService.
+ * Levels are bad=1 … best=5; averages are null when their window has no entries.
+ */
+@Data
+@NoArgsConstructor
+public class MoodInsights {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate asOf;
+
+    private int totalDays;
+    private Map<String, Integer> mainCounts;
+    /** Keyed "main:sub". */
+    private Map<String, Integer> subCounts;
+
+    /** Trailing 7/30 calendar-day averages ending at {@link #asOf}. */
+    private Double avg7;
+    private Double avg30;
+
+    /** Every logged day, oldest first. */
+    private List<DayPoint> days;
+    /** Monday first. */
+    private List<WeekdayStats> weekdays;
+    private Double weekdayAvg;
+    private Double weekendAvg;
+    private int weekdayCount;
+    private int weekendCount;
+    /** Oldest first. */
+    private List<MonthStats> months;
+    /** Most frequent first. */
+    private List<SubMoodPair> coOccurrence;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayPoint {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+        private LocalDate date;
+        private int level;
+        private String main;
+        private String sub;
+        private Double avg7;
+        private Double avg30;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WeekdayStats {
+        /** MONDAY … SUNDAY */
+        private String day;
+        private int count;
+        private Double avg;
+        private Map<String, Integer> mainCounts;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthStats {
+        /** yyyy-MM */
+        private String month;
+        private int count;
+        private double avg;
+        /** avg minus the previous calendar month's avg; null if that month has no entries */
+        private Double delta;
+        private Map<String, Integer> mainCounts;
+    }
+
+    /** Two "main:sub" codes logged within the same ISO week, and in how many weeks that happened. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubMoodPair {
+        private String a;
+        private String b;
+        private int weeks;
+    }
+}
@@ -0,0 +1,40 @@
+package MindChatBot.mindChatBot.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of a batch job, one document per job. Doubles as the job's lease: only the replica
+ * named in {@code leaseOwner} runs it until {@code leaseUntil}, renewing at every checkpoint.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    private String job;
+
+    private String runId;
+    private String status;
+
+    /** Users are processed in key order; everything up to and including this key is done */
+    private String lastKey;
+
+    private long processed;
+    private long failed;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+
+    private String leaseOwner;
+    private Instant leaseUntil;
+}
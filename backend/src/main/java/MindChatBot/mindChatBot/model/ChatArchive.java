@@ -0,0 +1,42 @@
+package MindChatBot.mindChatBot.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold tier for chat_logs: one document per user and calendar month holding every archived
+ * turn as a deflated JSON array (see ChatArchiveCodec). Written by ChatArchiveService.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "chat_archive")
+@CompoundIndex(name = "uniq_user_month", def = "{ 'userId': 1, 'year': 1, 'month': 1 }", unique = true)
+public class ChatArchive {
+
+    @Id
+    private String id;
+
+    private String userId;
+    private int year;
+    private int month;
+
+    private int count;
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+
+    /** Size of the uncompressed JSON payload, for the storage-saved metrics */
+    private long rawBytes;
+    private long storedBytes;
+
+    private byte[] payload;
+
+    /** Guards the read-merge-write when an archive run adds to an existing bucket */
+    @Version
+    private Long version;
+}
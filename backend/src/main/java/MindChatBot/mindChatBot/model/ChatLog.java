@@ -1,9 +1,11 @@
         package MindChatBot.mindChatBot.model;
 
+        import com.fasterxml.jackson.annotation.JsonIgnore;
         import lombok.Data;
         import lombok.NoArgsConstructor;
         import org.springframework.data.annotation.Id;
         import org.springframework.data.mongodb.core.index.CompoundIndex;
+        import org.springframework.data.mongodb.core.index.CompoundIndexes;
         import org.springframework.data.mongodb.core.mapping.Document;
 
         import java.time.LocalDateTime;
@@ -11,7 +13,10 @@
         @Data
         @NoArgsConstructor
         @Document(collection = "chat_logs")
-        @CompoundIndex(name = "idx_user_ts", def = "{ 'userId': 1, 'timestamp': 1 }")
+        @CompoundIndexes({
+                @CompoundIndex(name = "idx_user_ts", def = "{ 'userId': 1, 'timestamp': 1 }"),
+                @CompoundIndex(name = "idx_user_text", def = "{ 'userId': 1, 'searchText': 'text' }")
+        })
         public class ChatLog {
 
             @Id
@@ -22,6 +27,13 @@
             private String response;
             private LocalDateTime timestamp;
 
+            // Derived from message + response by SearchText; see JournalEntry
+            @JsonIgnore
+            private String searchText;
+
+            @JsonIgnore
+            private String language;
+
             public ChatLog(String userId, String message, String response) {
                 this.userId = userId;
                 this.message = message;
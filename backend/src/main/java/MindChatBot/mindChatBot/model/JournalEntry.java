@@ -1,6 +1,7 @@
     package MindChatBot.mindChatBot.model;
 
     import com.fasterxml.jackson.annotation.JsonFormat;
+    import com.fasterxml.jackson.annotation.JsonIgnore;
     import lombok.*;
     import org.springframework.data.annotation.Id;
     import org.springframework.data.mongodb.core.index.CompoundIndexes;
@@ -16,7 +17,10 @@
     @CompoundIndexes({
             // Speeds up queries: by date and by recent list
             @CompoundIndex(name = "idx_user_date", def = "{ 'userId': 1, 'date': 1 }"),
-            @CompoundIndex(name = "idx_user_ts_desc", def = "{ 'userId': 1, 'timestamp': -1 }")
+            // Newest-first listing; _id breaks timestamp ties for the /user/notes/page cursor
+            @CompoundIndex(name = "idx_user_ts_id_desc", def = "{ 'userId': 1, 'timestamp': -1, '_id': -1 }"),
+            // /user/search: userId prefix keeps every $text query inside one user's entries
+            @CompoundIndex(name = "idx_user_text", def = "{ 'userId': 1, 'searchText': 'text' }")
     })
     public class JournalEntry {
         @Id
@@ -34,4 +38,11 @@
         // Optional: nice ISO output for timestamp
         @JsonFormat(shape = JsonFormat.Shape.STRING)
         private LocalDateTime timestamp;
+
+        // Derived from content by SearchText on every save; "language" is Mongo's per-document analyzer override
+        @JsonIgnore
+        private String searchText;
+
+        @JsonIgnore
+        private String language;
     }
@@ -0,0 +1,54 @@
+package MindChatBot.mindChatBot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One-time code for email verification or password reset.
+ * Kept out of the users collection so issuing/verifying codes never rewrites the user document.
+ */
+@Document(collection = "otp_codes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpCode {
+
+    /** "<purpose>:<email>" — at most one live code per purpose and address */
+    @Id
+    private String id;
+
+    private String email;
+
+    private Purpose purpose;
+
+    /** SHA-256 of the code (hex); the plaintext is only ever in the email */
+    private String codeHash;
+
+    private int attempts;
+
+    private Instant sentAt;
+
+    private Instant codeExpiresAt;
+
+    private Instant lockedUntil;
+
+    /** Mongo removes the document once this passes (covers both code expiry and lockouts) */
+    @Indexed(name = "ttl_expire_at", expireAfterSeconds = 0)
+    private Instant expireAt;
+
+    public static String idFor(Purpose purpose, String email) {
+        return purpose.name().toLowerCase() + ":" + email;
+    }
+
+    public enum Purpose {
+        VERIFY, RESET
+    }
+}
@@ -0,0 +1,30 @@
+package MindChatBot.mindChatBot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Shared token bucket for the auth rate limiter (used when app.rate-limit.store=mongo). */
+@Document(collection = "rate_limit_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitBucket {
+
+    @Id
+    private String id;
+
+    private double tokens;
+
+    /** Epoch millis of the last refill; also the optimistic-concurrency check value */
+    private long updatedAt;
+
+    /** Idle buckets are full again by this time, so Mongo can drop them */
+    @Indexed(name = "ttl_expire_at", expireAfterSeconds = 0)
+    private Instant expireAt;
+}
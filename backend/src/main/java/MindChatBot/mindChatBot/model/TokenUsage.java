@@ -0,0 +1,50 @@
+package MindChatBot.mindChatBot.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One user's LLM token consumption for one UTC day (id "userId|yyyy-MM-dd"), kept up to date
+ * with $inc upserts by TokenLedger after every completions call.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "token_usage")
+@CompoundIndex(name = "day_total", def = "{ 'day': 1, 'totalTokens': -1 }")
+public class TokenUsage {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    /** ISO date (UTC), e.g. 2026-10-19 */
+    private String day;
+
+    private long promptTokens;
+    private long completionTokens;
+    private long totalTokens;
+    private long calls;
+
+    /** Total tokens per call type (chat, classify) */
+    private Map<String, Long> byCall = new LinkedHashMap<>();
+
+    /** Calls whose response had no usage block and were charged the pre-call estimate */
+    private long estimatedCalls;
+
+    /** Calls refused before reaching the upstream because the budget was spent */
+    private long rejected;
+
+    private Instant updatedAt;
+
+    @Indexed(name = "ttl_expire_at", expireAfterSeconds = 0)
+    private Instant expireAt;
+}
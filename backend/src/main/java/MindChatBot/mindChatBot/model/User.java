@@ -46,23 +46,12 @@
             @Builder.Default
             private LocalDateTime createdAt = LocalDateTime.now();
 
-            // --- Email verification / 2FA registration state ---
-            @JsonIgnore
-            @ToString.Exclude
-            private String verificationCode;
-
-            private LocalDateTime verificationCodeExpiresAt;
-
-            private LocalDateTime lastVerificationCodeSentAt;
-
-            @Builder.Default
-            private int verificationAttemptCount = 0;
-
-            private LocalDateTime verificationLockedUntil;
-
+            // Verification/reset codes live in otp_codes (see OtpCode), not on the user
             @Builder.Default
             private boolean isVerified = false;
-            // --- end verification state ---
+
+            // LLM token-budget plan (app.llm.budget.plans); null = the default plan
+            private String plan;
 
             public String getNameSafe() {
                 return (name != null && !name.isBlank())
@@ -95,19 +84,4 @@
             public boolean isEnabled() {
                 return this.isVerified;
             }
-
-            /* ---------- Helpers for verification lifecycle ---------- */
-
-            public void clearVerificationState() {
-                this.verificationCode = null;
-                this.verificationCodeExpiresAt = null;
-                this.lastVerificationCodeSentAt = null;
-                this.verificationAttemptCount = 0;
-                this.verificationLockedUntil = null;
-            }
-
-            public void markVerified() {
-                this.isVerified = true;
-                clearVerificationState();
-            }
         }
@@ -0,0 +1,44 @@
+package MindChatBot.mindChatBot.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** Per-user totals and streaks, rebuilt for every user by UserStatsRecomputeJob. */
+@Data
+@NoArgsConstructor
+@Document(collection = "user_stats")
+public class UserStats {
+
+    /** The user's email, as everywhere else */
+    @Id
+    private String userId;
+
+    private int moodDays;
+    private Double avgLevel;
+    private Map<String, Integer> mainCounts;
+
+    /** Consecutive days with a mood, ending today or yesterday */
+    private int currentStreak;
+    private int longestStreak;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate firstMoodDate;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate lastMoodDate;
+
+    private long noteCount;
+    private int noteDays;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate lastNoteDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private LocalDateTime computedAt;
+    private String runId;
+}
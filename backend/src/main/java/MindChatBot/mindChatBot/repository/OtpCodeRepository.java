@@ -0,0 +1,7 @@
+package MindChatBot.mindChatBot.repository;
+
+import MindChatBot.mindChatBot.model.OtpCode;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OtpCodeRepository extends MongoRepository<OtpCode, String> {
+}
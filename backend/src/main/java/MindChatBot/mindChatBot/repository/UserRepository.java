@@ -3,10 +3,26 @@ package MindChatBot.mindChatBot.repository;
 
 import MindChatBot.mindChatBot.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Targeted $set updates so verification/reset don't replace the whole user document
+    @Query("{ 'email': ?0 }")
+    @Update("{ '$set': { 'isVerified': true } }")
+    long markVerifiedByEmail(String email);
+
+    @Query("{ 'email': ?0 }")
+    @Update("{ '$set': { 'password': ?1 } }")
+    long updatePasswordByEmail(String email, String encodedPassword);
+
+    // Cursor over emails in index order, for batch jobs that checkpoint by the last email done
+    @Query(value = "{ 'email': { '$gt': ?0 } }", fields = "{ 'email': 1 }", sort = "{ 'email': 1 }")
+    Stream<User> streamEmailsAfter(String afterEmail);
 }
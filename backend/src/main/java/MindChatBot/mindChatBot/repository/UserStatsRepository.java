@@ -0,0 +1,7 @@
+package MindChatBot.mindChatBot.repository;
+
+import MindChatBot.mindChatBot.model.UserStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface UserStatsRepository extends MongoRepository<UserStats, String> {
+}
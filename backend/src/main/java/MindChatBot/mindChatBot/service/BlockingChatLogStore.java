@@ -0,0 +1,48 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.repository.ChatLogRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The synchronous repository, with each call shifted to boundedElastic: the chain is often
+ * resumed on a Netty event-loop thread by the WebClient response, where blocking is not allowed.
+ */
+public class BlockingChatLogStore implements ChatLogStore {
+
+    private final ChatLogRepository repository;
+
+    public BlockingChatLogStore(ChatLogRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Long> countSince(String userId, LocalDateTime since) {
+        return Mono.fromCallable(() -> repository.countByUserIdAndTimestampAfter(userId, since))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<ChatLog> findByUser(String userId) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findByUserIdOrderByTimestampAsc(userId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<ChatLog> save(ChatLog log) {
+        return Mono.fromCallable(() -> repository.save(log))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> insertAll(List<ChatLog> logs) {
+        return Mono.fromRunnable(() -> repository.insert(logs))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
@@ -0,0 +1,72 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/** Turns in a ChatArchive payload: a JSON array of {id, message, response, timestamp}, deflated. */
+final class ChatArchiveCodec {
+
+    record Turn(String id, String message, String response, LocalDateTime timestamp) {
+
+        static Turn of(ChatLog log) {
+            return new Turn(log.getId(), log.getMessage(), log.getResponse(), log.getTimestamp());
+        }
+
+        ChatLog toChatLog(String userId) {
+            ChatLog log = new ChatLog();
+            log.setId(id);
+            log.setUserId(userId);
+            log.setMessage(message);
+            log.setResponse(response);
+            log.setTimestamp(timestamp);
+            return log;
+        }
+    }
+
+    private static final TypeReference<List<Turn>> TURNS = new TypeReference<>() {};
+
+    private ChatArchiveCodec() {}
+
+    static byte[] json(ObjectMapper mapper, List<Turn> turns) {
+        try {
+            return mapper.writeValueAsBytes(turns);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize archived chat turns", e);
+        }
+    }
+
+    /** Cold data is written once and read rarely, so this trades CPU for size. */
+    static byte[] deflate(byte[] raw) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 4 + 16);
+        // closing the stream doesn't end a Deflater passed in, so free its native buffer here
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(bos, deflater)) {
+            dos.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress archived chat turns", e);
+        } finally {
+            deflater.end();
+        }
+        return bos.toByteArray();
+    }
+
+    static List<Turn> decode(ObjectMapper mapper, byte[] payload) {
+        if (payload == null || payload.length == 0) return new ArrayList<>();
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+            return mapper.readValue(in.readAllBytes(), TURNS);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable chat archive payload", e);
+        }
+    }
+}
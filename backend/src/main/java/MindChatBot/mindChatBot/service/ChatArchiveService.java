@@ -0,0 +1,220 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatArchive;
+import MindChatBot.mindChatBot.model.ChatLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Moves chat logs older than app.chat.archive.older-than out of chat_logs into one compressed
+ * ChatArchive bucket per user and month. Only whole months are archived (the cutoff is rounded
+ * down to the 1st), so a bucket is normally written once. Chat context only reads recent turns
+ * from chat_logs; the history endpoint and the export read both tiers.
+ * <p>
+ * A bucket is saved before its source logs are deleted, and merging dedupes by log id, so a run
+ * interrupted in between (or racing another replica) repeats work instead of losing turns.
+ * <p>
+ * Metrics: {@code mindchat.chat.archive.turns} (turns moved),
+ * {@code mindchat.chat.archive.bytes} (tier = raw | stored, totals over chat_archive) and
+ * {@code mindchat.chat.archive.run} (duration of a pass).
+ */
+@Slf4j
+@Service
+public class ChatArchiveService {
+
+    public record Result(int users, int buckets, long turns) {}
+
+    private static final int CURSOR_BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter turnsArchived;
+    private final Timer runTimer;
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.chat.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.chat.archive.older-than:90d}")
+    private Duration olderThan;
+
+    public ChatArchiveService(MongoTemplate mongoTemplate, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.turnsArchived = Counter.builder("mindchat.chat.archive.turns").register(registry);
+        this.runTimer = Timer.builder("mindchat.chat.archive.run").register(registry);
+        Gauge.builder("mindchat.chat.archive.bytes", rawBytes, AtomicLong::get)
+                .baseUnit("bytes").tag("tier", "raw").register(registry);
+        Gauge.builder("mindchat.chat.archive.bytes", storedBytes, AtomicLong::get)
+                .baseUnit("bytes").tag("tier", "stored").register(registry);
+    }
+
+    /** Runs on its own thread so a long archive pass doesn't hold up the other @Scheduled jobs. */
+    @Scheduled(cron = "${app.chat.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled || !running.compareAndSet(false, true)) return;
+        Thread t = new Thread(() -> {
+            try {
+                Result r = archiveBefore(cutoff(LocalDateTime.now(), olderThan));
+                if (r.turns() > 0) {
+                    log.info("Chat archive: moved {} turns of {} users into {} monthly buckets", r.turns(), r.users(), r.buckets());
+                }
+            } catch (Exception e) {
+                log.error("Chat archive run failed: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "chat-archive");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Start of the month containing {@code now - olderThan}; everything before it is archived. */
+    static LocalDateTime cutoff(LocalDateTime now, Duration olderThan) {
+        return now.minus(olderThan).toLocalDate().withDayOfMonth(1).atStartOfDay();
+    }
+
+    public Result archiveBefore(LocalDateTime cutoff) {
+        return runTimer.record(() -> {
+            List<String> users = mongoTemplate.findDistinct(
+                    query(where("timestamp").lt(cutoff)), "userId", ChatLog.class, String.class);
+            int buckets = 0;
+            long turns = 0;
+            for (String userId : users) {
+                Query q = query(where("userId").is(userId).and("timestamp").lt(cutoff))
+                        .with(Sort.by(Sort.Direction.ASC, "timestamp"))
+                        .cursorBatchSize(CURSOR_BATCH);
+                q.fields().exclude("searchText", "language");
+
+                YearMonth month = null;
+                List<ChatLog> logs = new ArrayList<>();
+                try (Stream<ChatLog> stream = mongoTemplate.stream(q, ChatLog.class)) {
+                    Iterator<ChatLog> it = stream.iterator();
+                    while (it.hasNext()) {
+                        ChatLog chat = it.next();
+                        YearMonth ym = YearMonth.from(chat.getTimestamp());
+                        if (month != null && !month.equals(ym)) {
+                            long moved = archiveMonth(userId, month, logs);
+                            if (moved > 0) buckets++;
+                            turns += moved;
+                            logs.clear();
+                        }
+                        month = ym;
+                        logs.add(chat);
+                    }
+                }
+                if (!logs.isEmpty()) {
+                    long moved = archiveMonth(userId, month, logs);
+                    if (moved > 0) buckets++;
+                    turns += moved;
+                }
+            }
+            refreshTotals();
+            return new Result(users.size(), buckets, turns);
+        });
+    }
+
+    /** Merges {@code logs} into the user's bucket for {@code month}, then deletes them from chat_logs. */
+    private long archiveMonth(String userId, YearMonth month, List<ChatLog> logs) {
+        ChatArchive bucket = mongoTemplate.findOne(query(where("userId").is(userId)
+                .and("year").is(month.getYear()).and("month").is(month.getMonthValue())), ChatArchive.class);
+        Map<String, ChatArchiveCodec.Turn> turns = new LinkedHashMap<>();
+        if (bucket == null) {
+            bucket = new ChatArchive();
+            bucket.setUserId(userId);
+            bucket.setYear(month.getYear());
+            bucket.setMonth(month.getMonthValue());
+        } else {
+            for (ChatArchiveCodec.Turn t : ChatArchiveCodec.decode(objectMapper, bucket.getPayload())) turns.put(t.id(), t);
+        }
+        for (ChatLog chat : logs) turns.putIfAbsent(chat.getId(), ChatArchiveCodec.Turn.of(chat));
+
+        List<ChatArchiveCodec.Turn> ordered = new ArrayList<>(turns.values());
+        ordered.sort(Comparator.comparing(ChatArchiveCodec.Turn::timestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        byte[] raw = ChatArchiveCodec.json(objectMapper, ordered);
+        byte[] payload = ChatArchiveCodec.deflate(raw);
+        bucket.setCount(ordered.size());
+        bucket.setFirstTimestamp(ordered.get(0).timestamp());
+        bucket.setLastTimestamp(ordered.get(ordered.size() - 1).timestamp());
+        bucket.setRawBytes(raw.length);
+        bucket.setStoredBytes(payload.length);
+        bucket.setPayload(payload);
+
+        try {
+            mongoTemplate.save(bucket);
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            // another replica is archiving the same month; its run (or the next one of ours) covers these logs
+            log.info("Chat archive bucket {} / {} changed concurrently, skipped", userId, month);
+            return 0;
+        }
+        List<String> ids = logs.stream().map(ChatLog::getId).toList();
+        mongoTemplate.remove(query(where("_id").in(ids)), ChatLog.class);
+        turnsArchived.increment(ids.size());
+        return ids.size();
+    }
+
+    /** Archived turns, oldest first; runs the blocking reads on boundedElastic. */
+    public Flux<ChatLog> findArchived(String userId) {
+        return Flux.defer(() -> Flux.fromIterable(mongoTemplate.find(query(where("userId").is(userId))
+                        .with(Sort.by(Sort.Direction.ASC, "year", "month")), ChatArchive.class)))
+                .concatMapIterable(this::unpack)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** Hot and cold tiers as one history, oldest first. */
+    public Flux<ChatLog> withArchived(String userId, Flux<ChatLog> hot) {
+        return Flux.concat(findArchived(userId), hot);
+    }
+
+    List<ChatLog> unpack(ChatArchive bucket) {
+        return ChatArchiveCodec.decode(objectMapper, bucket.getPayload()).stream()
+                .map(t -> t.toChatLog(bucket.getUserId()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshTotals() {
+        try {
+            Document totals = mongoTemplate.aggregate(Aggregation.newAggregation(
+                            Aggregation.group().sum("rawBytes").as("raw").sum("storedBytes").as("stored")),
+                    ChatArchive.class, Document.class).getUniqueMappedResult();
+            if (totals == null) return;
+            rawBytes.set(((Number) totals.getOrDefault("raw", 0L)).longValue());
+            storedBytes.set(((Number) totals.getOrDefault("stored", 0L)).longValue());
+        } catch (Exception e) {
+            // Only the size gauges depend on this; don't fail startup or an archive run over it
+            log.warn("Could not read chat archive totals: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Chat log access for the Mono-based chat pipeline; see ChatStoreConfig for the implementations. */
+public interface ChatLogStore {
+
+    Mono<Long> countSince(String userId, LocalDateTime since);
+
+    /** Oldest first. */
+    Flux<ChatLog> findByUser(String userId);
+
+    Mono<ChatLog> save(ChatLog log);
+
+    /** One insertMany; the logs must be new. */
+    Mono<Void> insertAll(List<ChatLog> logs);
+}
@@ -0,0 +1,108 @@
+package MindChatBot.mindChatBot.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency and size metrics for the chat pipeline, exposed through /actuator/prometheus.
+ * <ul>
+ *   <li>{@code mindchat.chat.stage} timer: stage = limit_check | prompt_build | upstream_ttfb |
+ *       upstream | extract | persist | total, plus lang, model and outcome tags;</li>
+ *   <li>{@code mindchat.llm.tokens} summary: kind = prompt | completion, from the upstream usage block;</li>
+ *   <li>{@code mindchat.llm.response.size} summary: reply size in UTF-8 bytes.</li>
+ * </ul>
+ */
+@Component
+public class ChatMetrics {
+
+    public static final String STAGE_LIMIT_CHECK = "limit_check";
+    public static final String STAGE_PROMPT_BUILD = "prompt_build";
+    public static final String STAGE_UPSTREAM_TTFB = "upstream_ttfb";
+    public static final String STAGE_UPSTREAM = "upstream";
+    public static final String STAGE_EXTRACT = "extract";
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_TOTAL = "total";
+
+    private final MeterRegistry registry;
+
+    @Value("${openai.model:gpt-4.1-nano}")
+    private String model;
+
+    public ChatMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Times {@code source} from subscription to its terminal signal. */
+    public <T> Mono<T> timed(String stage, String lang, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> record(stage, lang, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    public void record(String stage, String lang, long nanos) {
+        record(stage, lang, "ok", nanos);
+    }
+
+    public void record(String stage, String lang, String outcome, long nanos) {
+        Timer.builder("mindchat.chat.stage")
+                .tag("stage", stage)
+                .tag("lang", lang)
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Records the OpenAI {@code usage} block (if present) for a chat or classify call. */
+    public void recordUsage(String call, String lang, Map<?, ?> response) {
+        if (response == null || !(response.get("usage") instanceof Map<?, ?> usage)) return;
+        tokens(call, lang, "prompt", usage.get("prompt_tokens"));
+        tokens(call, lang, "completion", usage.get("completion_tokens"));
+    }
+
+    public void recordResponseSize(String call, String lang, String content) {
+        if (content == null) return;
+        DistributionSummary.builder("mindchat.llm.response.size")
+                .baseUnit("bytes")
+                .tag("call", call)
+                .tag("lang", lang)
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(content.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private void tokens(String call, String lang, String kind, Object value) {
+        if (!(value instanceof Number n)) return;
+        DistributionSummary.builder("mindchat.llm.tokens")
+                .baseUnit("tokens")
+                .tag("call", call)
+                .tag("lang", lang)
+                .tag("model", model)
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(n.doubleValue());
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "ok";
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatArchive;
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.model.User;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * A user's complete data as NDJSON, one {"type": ..., "data": {...}} object per line: an
+ * "export" header, the "profile", then every "mood", "note" and "chat" (archived months
+ * first, unpacked to the same shape as live chat logs). Each collection is
+ * read through a Mongo cursor and each document is written as soon as it arrives, so memory
+ * stays at one batch however large the account is; a slow client simply blocks the writer.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int CURSOR_BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    /** Flushing after every document would turn each line into its own network write. */
+    private final ObjectWriter writer;
+
+    public ExportService(MongoTemplate mongoTemplate, UserRepository userRepository, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /** Returns the number of data lines written (header and profile excluded). */
+    public long writeNdjson(String userId, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("version", FORMAT_VERSION);
+            header.put("userId", userId);
+            header.put("exportedAt", Instant.now().toString());
+            line(gen, "export", header);
+
+            Optional<User> user = userRepository.findByEmail(userId);
+            if (user.isPresent()) {
+                Map<String, Object> profile = new LinkedHashMap<>();
+                profile.put("email", user.get().getEmail());
+                profile.put("name", user.get().getName());
+                profile.put("createdAt", user.get().getCreatedAt());
+                line(gen, "profile", profile);
+            }
+
+            long count = 0;
+            count += stream(gen, "mood", Mood.class, userId);
+            count += stream(gen, "note", JournalEntry.class, userId);
+            count += streamArchivedChats(gen, userId);
+            count += stream(gen, "chat", ChatLog.class, userId);
+            gen.flush();
+            return count;
+        }
+    }
+
+    private long stream(JsonGenerator gen, String type, Class<?> entity, String userId) throws IOException {
+        Query q = query(where("userId").is(userId)).cursorBatchSize(CURSOR_BATCH);
+        q.fields().exclude("searchText", "language");
+        long n = 0;
+        try (Stream<?> docs = mongoTemplate.stream(q, entity)) {
+            Iterator<?> it = docs.iterator();
+            while (it.hasNext()) {
+                line(gen, type, it.next());
+                if (++n % CURSOR_BATCH == 0) gen.flush();
+            }
+        }
+        return n;
+    }
+
+    private long streamArchivedChats(JsonGenerator gen, String userId) throws IOException {
+        Query q = query(where("userId").is(userId)).with(Sort.by(Sort.Direction.ASC, "year", "month")).cursorBatchSize(16);
+        long n = 0;
+        try (Stream<ChatArchive> buckets = mongoTemplate.stream(q, ChatArchive.class)) {
+            Iterator<ChatArchive> it = buckets.iterator();
+            while (it.hasNext()) {
+                ChatArchive bucket = it.next();
+                for (ChatArchiveCodec.Turn turn : ChatArchiveCodec.decode(objectMapper, bucket.getPayload())) {
+                    line(gen, "chat", turn.toChatLog(userId));
+                    n++;
+                }
+                gen.flush();
+            }
+        }
+        return n;
+    }
+
+    private void line(JsonGenerator gen, String type, Object data) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", type);
+        gen.writeFieldName("data");
+        writer.writeValue(gen, data);
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+}
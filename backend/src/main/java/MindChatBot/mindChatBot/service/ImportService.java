@@ -0,0 +1,317 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.model.Mood;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Bulk import of moods and journal entries from CSV (header row required) or NDJSON. Each
+ * row/line has a {@code date} (yyyy-MM-dd) plus {@code emoji}+{@code subMood} for a mood,
+ * {@code note} for a journal entry, or both; {@code lang} is optional.
+ * <p>
+ * Rows are validated one by one and written in unordered bulk upserts of {@code batchSize}:
+ * moods on the uniq_user_day key (the last row for a day wins), notes on (user, date, content)
+ * so re-running an import does not duplicate them. No chatbot replies are generated; notes
+ * can optionally be queued for mood classification (NoteClassificationQueue).
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    public static final int MAX_BATCH_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MoodService moodService;
+    private final NoteClassificationQueue classificationQueue;
+    private final MoodInsightsService moodInsightsService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${app.import.max-rows:20000}")
+    private int maxRows;
+
+    public ImportService(MongoTemplate mongoTemplate, MoodService moodService,
+                         NoteClassificationQueue classificationQueue, MoodInsightsService moodInsightsService,
+                         ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.moodService = moodService;
+        this.classificationQueue = classificationQueue;
+        this.moodInsightsService = moodInsightsService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Getter
+    public static class Report {
+        private int rows;
+        private int moodsWritten;
+        private int notesWritten;
+        private int classificationQueued;
+        private int classificationRejected;
+        private int failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void fail(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new RowError(row, message));
+        }
+    }
+
+    public record RowError(int row, String message) {}
+
+    public Report importStream(String userId, Reader input, Format format, Integer batchSize, boolean classifyNotes)
+            throws IOException {
+        int batch = Math.max(1, Math.min(batchSize == null ? defaultBatchSize : batchSize, MAX_BATCH_SIZE));
+        Batch pending = new Batch(userId, batch, classifyNotes, new Report());
+        BufferedReader reader = new BufferedReader(input);
+
+        if (format == Format.CSV) {
+            List<String> header = CsvReader.next(reader);
+            if (header == null) return pending.report;
+            List<String> columns = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+            List<String> cells;
+            int row = 0;
+            while ((cells = CsvReader.next(reader)) != null) {
+                row++;
+                if (cells.size() == 1 && cells.get(0).isBlank()) continue;
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < cells.size(); i++) fields.put(columns.get(i), cells.get(i));
+                if (!pending.accept(row, fields)) break;
+            }
+        } else {
+            String line;
+            int row = 0;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank()) continue;
+                Map<String, String> fields = new HashMap<>();
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) throw new IOException("not a JSON object");
+                    node.fields().forEachRemaining(e -> fields.put(e.getKey().toLowerCase(Locale.ROOT),
+                            e.getValue().isNull() ? null : e.getValue().asText()));
+                } catch (IOException e) {
+                    pending.report.rows++;
+                    pending.report.fail(row, "invalid JSON: " + e.getMessage());
+                    continue;
+                }
+                if (!pending.accept(row, fields)) break;
+            }
+        }
+        pending.flush();
+        if (pending.report.moodsWritten > 0) moodInsightsService.invalidate(userId);
+        return pending.report;
+    }
+
+    /** Rows waiting for the next bulk write. */
+    private final class Batch {
+        private final String userId;
+        private final int size;
+        private final boolean classifyNotes;
+        private final Report report;
+        private final Map<LocalDate, PendingMood> moods = new LinkedHashMap<>();
+        private final List<PendingNote> notes = new ArrayList<>();
+        /** Days given a mood by this import, so their notes are not sent for classification. */
+        private final Set<LocalDate> moodDays = new HashSet<>();
+
+        Batch(String userId, int size, boolean classifyNotes, Report report) {
+            this.userId = userId;
+            this.size = size;
+            this.classifyNotes = classifyNotes;
+            this.report = report;
+        }
+
+        /** False once max-rows is reached. */
+        boolean accept(int row, Map<String, String> f) {
+            if (report.rows >= maxRows) {
+                report.fail(row, "row limit of " + maxRows + " reached; the rest of the input was ignored");
+                return false;
+            }
+            report.rows++;
+
+            LocalDate date;
+            try {
+                date = LocalDate.parse(value(f, "date").orElseThrow(() -> new IllegalArgumentException("date is required")));
+            } catch (DateTimeParseException e) {
+                report.fail(row, "date must be yyyy-MM-dd");
+                return true;
+            } catch (IllegalArgumentException e) {
+                report.fail(row, e.getMessage());
+                return true;
+            }
+
+            Optional<String> emoji = value(f, "emoji", "mood", "main");
+            Optional<String> sub = value(f, "submood", "sub");
+            Optional<String> note = value(f, "note", "content");
+            String lang = value(f, "lang").orElse(null);
+
+            if (emoji.isEmpty() && sub.isEmpty() && note.isEmpty()) {
+                report.fail(row, "row has neither a mood nor a note");
+                return true;
+            }
+            if (emoji.isPresent() || sub.isPresent()) {
+                String main = emoji.map(s -> s.toLowerCase(Locale.ROOT)).orElse(null);
+                String s = sub.map(v -> v.toLowerCase(Locale.ROOT)).orElse(null);
+                if (!moodService.isValidMood(main, s)) {
+                    report.fail(row, "invalid mood '" + main + "' / '" + s + "'");
+                    return true;
+                }
+                moods.put(date, new PendingMood(row, main, s, lang));
+                moodDays.add(date);
+            }
+            if (note.isPresent()) {
+                notes.add(new PendingNote(row, date, note.get()));
+            }
+
+            if (moods.size() >= size) flushMoods();
+            if (notes.size() >= size) flushNotes();
+            return true;
+        }
+
+        void flush() {
+            flushMoods();
+            flushNotes();
+        }
+
+        private void flushMoods() {
+            if (moods.isEmpty()) return;
+            List<PendingMood> ops = new ArrayList<>(moods.values());
+            List<LocalDate> days = new ArrayList<>(moods.keySet());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Mood.class);
+            for (int i = 0; i < ops.size(); i++) {
+                LocalDate d = days.get(i);
+                PendingMood m = ops.get(i);
+                Update update = new Update().set("emoji", m.emoji()).set("subMood", m.sub());
+                if (m.lang() != null) update.set("lang", m.lang());
+                bulk.upsert(query(where("userId").is(userId).and("year").is(d.getYear())
+                        .and("month").is(d.getMonthValue()).and("day").is(d.getDayOfMonth())), update);
+            }
+            report.moodsWritten += ops.size() - execute(bulk, ops.stream().map(PendingMood::row).toList());
+            moods.clear();
+        }
+
+        private void flushNotes() {
+            if (notes.isEmpty()) return;
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalEntry.class);
+            for (PendingNote n : notes) {
+                JournalEntry derived = SearchText.index(JournalEntry.builder().content(n.content()).build());
+                bulk.upsert(query(where("userId").is(userId).and("date").is(n.date()).and("content").is(n.content())),
+                        new Update()
+                                .setOnInsert("timestamp", n.date().atStartOfDay())
+                                .set("searchText", derived.getSearchText())
+                                .set("language", derived.getLanguage()));
+            }
+            List<Integer> rows = notes.stream().map(PendingNote::row).toList();
+            Set<Integer> failedRows = new HashSet<>();
+            int failures = execute(bulk, rows, failedRows);
+            report.notesWritten += notes.size() - failures;
+
+            if (classifyNotes) {
+                for (PendingNote n : notes) {
+                    if (failedRows.contains(n.row()) || moodDays.contains(n.date())) continue;
+                    if (classificationQueue.offer(userId, n.date(), n.content())) report.classificationQueued++;
+                    else report.classificationRejected++;
+                }
+            }
+            notes.clear();
+        }
+
+        private int execute(BulkOperations bulk, List<Integer> rows) {
+            return execute(bulk, rows, new HashSet<>());
+        }
+
+        /** Runs the batch; per-operation failures are mapped back to their input rows. */
+        private int execute(BulkOperations bulk, List<Integer> rows, Set<Integer> failedRows) {
+            try {
+                bulk.execute();
+                return 0;
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    int row = rows.get(error.getIndex());
+                    failedRows.add(row);
+                    report.fail(row, error.getMessage());
+                }
+                return e.getErrors().size();
+            }
+        }
+    }
+
+    private record PendingMood(int row, String emoji, String sub, String lang) {}
+
+    private record PendingNote(int row, LocalDate date, String content) {}
+
+    private static Optional<String> value(Map<String, String> fields, String... names) {
+        for (String name : names) {
+            String v = fields.get(name);
+            if (v != null && !v.isBlank()) return Optional.of(v.trim());
+        }
+        return Optional.empty();
+    }
+
+    /** RFC 4180 records: quoted fields may contain commas, doubled quotes and line breaks. */
+    static final class CsvReader {
+
+        private CsvReader() {}
+
+        /** The next record's fields, or null at end of input. */
+        static List<String> next(BufferedReader in) throws IOException {
+            int c = in.read();
+            if (c == -1) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int n = in.read();
+                        if (n == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (n != -1) in.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
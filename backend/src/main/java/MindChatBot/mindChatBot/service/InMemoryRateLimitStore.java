@@ -0,0 +1,59 @@
+package MindChatBot.mindChatBot.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-node token buckets. Each bucket is an immutable snapshot swapped with CAS,
+ * so concurrent requests never block on a lock.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int SWEEP_EVERY = 4096;
+
+    private final ConcurrentHashMap<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+
+    @Override
+    public Decision tryConsume(String key, int capacity, Duration period) {
+        if (capacity <= 0) return Decision.denied(period.getSeconds());
+        double ratePerNano = capacity / (double) period.toNanos();
+
+        long now = System.nanoTime();
+        AtomicReference<Bucket> ref = buckets.get(key);
+        if (ref == null) {
+            AtomicReference<Bucket> created = new AtomicReference<>(new Bucket(capacity, now, period.toNanos()));
+            ref = buckets.putIfAbsent(key, created);
+            if (ref == null) ref = created;
+        }
+
+        if (calls.incrementAndGet() % SWEEP_EVERY == 0) sweep(now);
+
+        while (true) {
+            Bucket cur = ref.get();
+            long t = System.nanoTime();
+            double tokens = Math.min(capacity, cur.tokens + Math.max(0, t - cur.updatedAt) * ratePerNano);
+            if (tokens < 1.0) {
+                long waitNanos = (long) Math.ceil((1.0 - tokens) / ratePerNano);
+                return Decision.denied(Duration.ofNanos(waitNanos).toSeconds() + 1);
+            }
+            if (ref.compareAndSet(cur, new Bucket(tokens - 1.0, t, cur.fullAfterNanos))) {
+                return Decision.ALLOWED;
+            }
+        }
+    }
+
+    /** Drop buckets that have been idle long enough to be full again; they'd be recreated identically. */
+    private void sweep(long now) {
+        buckets.forEach((key, ref) -> {
+            Bucket b = ref.get();
+            if (now - b.updatedAt > b.fullAfterNanos) {
+                buckets.remove(key, ref);
+            }
+        });
+    }
+
+    private record Bucket(double tokens, long updatedAt, long fullAfterNanos) {}
+}
@@ -1,22 +1,44 @@
     package MindChatBot.mindChatBot.service;
 
+    import MindChatBot.mindChatBot.dto.JournalEntrySummary;
     import MindChatBot.mindChatBot.model.JournalEntry;
     import MindChatBot.mindChatBot.repository.JournalEntryRepository;
+    import org.bson.types.ObjectId;
     import org.springframework.beans.factory.annotation.Autowired;
     import org.springframework.data.domain.PageRequest;
+    import org.springframework.data.domain.Sort;
+    import org.springframework.data.mongodb.core.MongoExpression;
+    import org.springframework.data.mongodb.core.MongoTemplate;
+    import org.springframework.data.mongodb.core.query.Criteria;
+    import org.springframework.data.mongodb.core.query.Query;
     import org.springframework.stereotype.Service;
     import reactor.core.publisher.Mono;
+    import reactor.core.scheduler.Schedulers;
 
+    import java.nio.charset.StandardCharsets;
     import java.time.LocalDate;
+    import java.time.LocalDateTime;
+    import java.util.Base64;
     import java.util.HashMap;
     import java.util.List;
     import java.util.Map;
     import java.util.Optional;
+    import java.util.function.Function;
+
+    import static org.springframework.data.mongodb.core.query.Criteria.where;
+    import static org.springframework.data.mongodb.core.query.Query.query;
 
     @Service
     public class JournalEntryService {
 
+        public static final int MAX_PAGE_SIZE = 100;
+        public static final int MAX_RANGE_DAYS = 366;
+        public static final int EXCERPT_LENGTH = 160;
+
+        private static final String COLLECTION = "journal_entries";
+
         private final JournalEntryRepository journalEntryRepository;
+        private final MongoTemplate mongoTemplate;
 
         @Autowired
         private OpenAiService openAiService;
@@ -25,8 +47,117 @@
         private MoodService moodService;
 
         @Autowired
-        public JournalEntryService(JournalEntryRepository journalEntryRepository) {
+        public JournalEntryService(JournalEntryRepository journalEntryRepository, MongoTemplate mongoTemplate) {
             this.journalEntryRepository = journalEntryRepository;
+            this.mongoTemplate = mongoTemplate;
+        }
+
+        /** One page of a keyset listing; nextCursor is null on the last page. */
+        public record Page<T>(List<T> items, String nextCursor) {}
+
+        /**
+         * Newest first, walking idx_user_ts_id_desc: each page seeks past the cursor instead of
+         * skipping, so page 500 costs the same as page 1.
+         */
+        public Page<JournalEntrySummary> getSummaryPage(String userId, String cursor, int size) {
+            Query q = pageQuery(userId, cursor, size);
+            summaryFields(q);
+            List<JournalEntrySummary> rows = mongoTemplate.find(q, JournalEntrySummary.class, COLLECTION);
+            return toPage(rows, size, s -> new Cursor(s.getTimestamp(), s.getId()));
+        }
+
+        public Page<JournalEntry> getEntryPage(String userId, String cursor, int size) {
+            Query q = pageQuery(userId, cursor, size);
+            q.fields().exclude("searchText", "language");
+            List<JournalEntry> rows = mongoTemplate.find(q, JournalEntry.class, COLLECTION);
+            return toPage(rows, size, e -> new Cursor(e.getTimestamp(), e.getId()));
+        }
+
+        /** Entries dated from..to inclusive, oldest first, on idx_user_date. The span is capped at MAX_RANGE_DAYS. */
+        public List<JournalEntrySummary> getSummariesInRange(String userId, LocalDate from, LocalDate to) {
+            Query q = rangeQuery(userId, from, to);
+            summaryFields(q);
+            return mongoTemplate.find(q, JournalEntrySummary.class, COLLECTION);
+        }
+
+        public List<JournalEntry> getEntriesInRange(String userId, LocalDate from, LocalDate to) {
+            Query q = rangeQuery(userId, from, to);
+            q.fields().exclude("searchText", "language");
+            return mongoTemplate.find(q, JournalEntry.class, COLLECTION);
+        }
+
+        /** The full entry, only if it belongs to userId. */
+        public Optional<JournalEntry> getEntry(String userId, String id) {
+            if (!ObjectId.isValid(id)) return Optional.empty();
+            return journalEntryRepository.findById(id).filter(e -> userId.equals(e.getUserId()));
+        }
+
+        private static Query pageQuery(String userId, String cursor, int size) {
+            Criteria c = where("userId").is(userId);
+            if (cursor != null && !cursor.isBlank()) {
+                Cursor after = Cursor.decode(cursor);
+                ObjectId afterId = new ObjectId(after.id());
+                // Entries from before timestamps were always set have none; they sort last, by _id
+                if (after.timestamp() == null) {
+                    c = c.and("timestamp").is(null).and("_id").lt(afterId);
+                } else {
+                    c = c.orOperator(
+                            where("timestamp").lt(after.timestamp()),
+                            where("timestamp").is(after.timestamp()).and("_id").lt(afterId),
+                            where("timestamp").is(null));
+                }
+            }
+            return query(c)
+                    .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("_id")))
+                    .limit(Math.max(1, Math.min(size, MAX_PAGE_SIZE)) + 1);
+        }
+
+        private static Query rangeQuery(String userId, LocalDate from, LocalDate to) {
+            if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+            if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+                throw new IllegalArgumentException("range is limited to " + MAX_RANGE_DAYS + " days");
+            }
+            return query(where("userId").is(userId).and("date").gte(from).lte(to))
+                    .with(Sort.by(Sort.Order.asc("date")));
+        }
+
+        /** Only id/date/timestamp and the first EXCERPT_LENGTH code points of content leave the server. */
+        private static void summaryFields(Query q) {
+            q.fields().include("date", "timestamp");
+            q.fields().project(MongoExpression.create("{ $substrCP: [ { $ifNull: ['$content', ''] }, 0, " + EXCERPT_LENGTH + " ] }"))
+                    .as("excerpt");
+        }
+
+        private static <T> Page<T> toPage(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            if (rows.size() <= pageSize) return new Page<>(rows, null);
+            List<T> items = List.copyOf(rows.subList(0, pageSize));
+            return new Page<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+        }
+
+        /**
+         * Position after the last row of a page: (timestamp, _id), sent to clients as opaque base64url.
+         * A null timestamp (a legacy entry) is encoded as an empty one.
+         */
+        record Cursor(LocalDateTime timestamp, String id) {
+
+            String encode() {
+                String raw = (timestamp == null ? "" : timestamp.toString()) + "|" + id;
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            }
+
+            static Cursor decode(String cursor) {
+                try {
+                    String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                    int bar = raw.indexOf('|');
+                    String id = raw.substring(bar + 1);
+                    if (!ObjectId.isValid(id)) throw new IllegalArgumentException(id);
+                    String ts = raw.substring(0, bar);
+                    return new Cursor(ts.isEmpty() ? null : LocalDateTime.parse(ts), id);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("invalid cursor");
+                }
+            }
         }
 
         // ---- Queries ----
@@ -49,20 +180,20 @@
         }
 
         public JournalEntry saveEntry(JournalEntry journalEntry) {
-            return journalEntryRepository.save(journalEntry);
+            return journalEntryRepository.save(SearchText.index(journalEntry));
         }
 
         // ---- Save entry, analyze mood, save mood, return single reply ----
         public Mono<Map<String, Object>> saveEntryWithReply(JournalEntry journalEntry) {
             // Persist note first (blocking repo)
-            JournalEntry saved = journalEntryRepository.save(journalEntry);
+            JournalEntry saved = journalEntryRepository.save(SearchText.index(journalEntry));
 
             final String userId = saved.getUserId();
             final String noteContent = saved.getContent() == null ? "" : saved.getContent();
             final LocalDate noteDate = saved.getDate() != null ? saved.getDate() : LocalDate.now();
 
             // Ask OpenAI to classify mood
-            return openAiService.analyzeMoodFromNote(noteContent)
+            return openAiService.analyzeMoodFromNote(noteContent, userId)
                     .flatMap(moodMap -> {
                         // Validate mood
                         String main = moodMap.get("main");
@@ -115,7 +246,7 @@
                                     main, sub, noteDate.toString()
                             ));
                             return out;
-                        });
+                        }).subscribeOn(Schedulers.boundedElastic()); // off the WebClient's event-loop thread
                     })
                     .onErrorResume(err -> {
                         // Never 500 to the client—still return the note with a safe reply
@@ -0,0 +1,85 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.RateLimitBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Token buckets shared through Mongo so every node enforces the same budget.
+ * Updates are compare-and-set on (tokens, updatedAt); losers of a race simply re-read and retry.
+ * If Mongo is unavailable the limiter fails open rather than blocking logins.
+ */
+@Slf4j
+public class MongoRateLimitStore implements RateLimitStore {
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoRateLimitStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        try {
+            IndexOperations ops = mongoTemplate.indexOps(RateLimitBucket.class);
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(RateLimitBucket.class)
+                    .forEach(ops::ensureIndex);
+        } catch (Exception e) {
+            log.warn("Could not ensure rate_limit_buckets indexes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Decision tryConsume(String key, int capacity, Duration period) {
+        if (capacity <= 0) return Decision.denied(period.getSeconds());
+        double ratePerMilli = capacity / (double) period.toMillis();
+
+        try {
+            for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+                long now = System.currentTimeMillis();
+                Instant expireAt = Instant.ofEpochMilli(now).plus(period);
+                RateLimitBucket cur = mongoTemplate.findById(key, RateLimitBucket.class);
+
+                if (cur == null) {
+                    try {
+                        mongoTemplate.insert(new RateLimitBucket(key, capacity - 1.0, now, expireAt));
+                        return Decision.ALLOWED;
+                    } catch (DuplicateKeyException race) {
+                        continue;
+                    }
+                }
+
+                double tokens = Math.min(capacity, cur.getTokens() + Math.max(0, now - cur.getUpdatedAt()) * ratePerMilli);
+                if (tokens < 1.0) {
+                    long waitMillis = (long) Math.ceil((1.0 - tokens) / ratePerMilli);
+                    return Decision.denied(waitMillis / 1000 + 1);
+                }
+
+                long modified = mongoTemplate.updateFirst(
+                        query(where("_id").is(key)
+                                .and("updatedAt").is(cur.getUpdatedAt())
+                                .and("tokens").is(cur.getTokens())),
+                        Update.update("tokens", tokens - 1.0)
+                                .set("updatedAt", now)
+                                .set("expireAt", expireAt),
+                        RateLimitBucket.class).getModifiedCount();
+                if (modified == 1) return Decision.ALLOWED;
+            }
+            // Heavy contention on one key is itself a burst; ask the client to back off briefly
+            return Decision.denied(1);
+        } catch (DataAccessException e) {
+            log.warn("Rate limit store unavailable, allowing request for {}: {}", key, e.getMessage());
+            return Decision.ALLOWED;
+        }
+    }
+}
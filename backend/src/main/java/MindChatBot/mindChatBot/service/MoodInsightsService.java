@@ -0,0 +1,257 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.dto.MoodInsights;
+import MindChatBot.mindChatBot.model.Mood;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Server-side mood analytics for the statistics page. Each user's day → mood series is read
+ * once (one indexed query, five fields per day) and kept in a bounded LRU; mood writes patch
+ * that series in place through {@link #onMoodSaved} so the next request only recomputes the
+ * derived figures in memory. Entries also expire after app.insights.cache-ttl, which bounds
+ * staleness from writes made on other replicas or by bulk paths ({@link #invalidate}).
+ */
+@Service
+public class MoodInsightsService {
+
+    static final Map<String, Integer> LEVELS = Map.of("bad", 1, "poor", 2, "neutral", 3, "good", 4, "best", 5);
+    private static final List<String> MAINS = List.of("bad", "poor", "neutral", "good", "best");
+    private static final int MAX_PAIRS = 20;
+
+    record DayMood(String main, String sub) {}
+
+    private static final class Cached {
+        final TreeMap<LocalDate, DayMood> series;
+        final long loadedAt;
+        MoodInsights insights;
+
+        Cached(TreeMap<LocalDate, DayMood> series, long loadedAt) {
+            this.series = series;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final long ttlMillis;
+    private final Map<String, Cached> cache;
+
+    public MoodInsightsService(MongoTemplate mongoTemplate,
+                               @Value("${app.insights.cache-ttl:10m}") Duration ttl,
+                               @Value("${app.insights.cache-max-users:5000}") int maxUsers) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttlMillis = ttl.toMillis();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    public MoodInsights getInsights(String userId) {
+        long now = System.currentTimeMillis();
+        Cached c = cache.get(userId);
+        if (c == null || now - c.loadedAt > ttlMillis) {
+            c = new Cached(load(userId), now);
+            cache.put(userId, c);
+        }
+        LocalDate today = LocalDate.now();
+        synchronized (c) {
+            if (c.insights == null || !today.equals(c.insights.getAsOf())) {
+                c.insights = compute(c.series, today);
+            }
+            return c.insights;
+        }
+    }
+
+    /** Called after a single-day mood write; a user with nothing cached needs no work. */
+    public void onMoodSaved(String userId, int year, int month, int day, String main, String sub) {
+        Cached c = cache.get(userId);
+        if (c == null) return;
+        LocalDate date;
+        try {
+            date = LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            // Not a real day, so it can't be patched into the series; reload on the next read
+            invalidate(userId);
+            return;
+        }
+        synchronized (c) {
+            c.series.put(date, new DayMood(main, sub));
+            c.insights = null;
+        }
+    }
+
+    /** Drops the user's cached series, e.g. after a bulk import. */
+    public void invalidate(String userId) {
+        cache.remove(userId);
+    }
+
+    private TreeMap<LocalDate, DayMood> load(String userId) {
+        Query q = query(where("userId").is(userId));
+        q.fields().include("year", "month", "day", "emoji", "subMood");
+        TreeMap<LocalDate, DayMood> series = new TreeMap<>();
+        for (Mood m : mongoTemplate.find(q, Mood.class)) {
+            if (!LEVELS.containsKey(m.getEmoji())) continue;
+            try {
+                series.put(LocalDate.of(m.getYear(), m.getMonth(), m.getDay()), new DayMood(m.getEmoji(), m.getSubMood()));
+            } catch (java.time.DateTimeException e) {
+                // a malformed legacy row; nothing to plot
+            }
+        }
+        return series;
+    }
+
+    static MoodInsights compute(SortedMap<LocalDate, DayMood> series, LocalDate today) {
+        MoodInsights out = new MoodInsights();
+        out.setAsOf(today);
+        out.setTotalDays(series.size());
+
+        List<LocalDate> dates = new ArrayList<>(series.keySet());
+        int[] levels = new int[dates.size()];
+        for (int i = 0; i < levels.length; i++) levels[i] = LEVELS.get(series.get(dates.get(i)).main());
+
+        // --- distribution ---
+        Map<String, Integer> mainCounts = zeroMainCounts();
+        Map<String, Integer> subCounts = new TreeMap<>();
+        for (DayMood d : series.values()) {
+            mainCounts.merge(d.main(), 1, Integer::sum);
+            if (d.sub() != null) subCounts.merge(d.main() + ":" + d.sub(), 1, Integer::sum);
+        }
+        out.setMainCounts(mainCounts);
+        out.setSubCounts(subCounts);
+
+        // --- rolling averages: trailing windows over calendar days, two pointers each ---
+        Double[] avg7 = trailing(dates, levels, 7);
+        Double[] avg30 = trailing(dates, levels, 30);
+        List<MoodInsights.DayPoint> days = new ArrayList<>(dates.size());
+        for (int i = 0; i < dates.size(); i++) {
+            DayMood d = series.get(dates.get(i));
+            days.add(new MoodInsights.DayPoint(dates.get(i), levels[i], d.main(), d.sub(), avg7[i], avg30[i]));
+        }
+        out.setDays(days);
+        out.setAvg7(windowAverage(dates, levels, today, 7));
+        out.setAvg30(windowAverage(dates, levels, today, 30));
+
+        // --- weekday / weekend ---
+        int[] wdCount = new int[7];
+        int[] wdSum = new int[7];
+        List<Map<String, Integer>> wdMains = new ArrayList<>();
+        for (int i = 0; i < 7; i++) wdMains.add(zeroMainCounts());
+        for (int i = 0; i < dates.size(); i++) {
+            int dow = dates.get(i).getDayOfWeek().getValue() - 1;
+            wdCount[dow]++;
+            wdSum[dow] += levels[i];
+            wdMains.get(dow).merge(series.get(dates.get(i)).main(), 1, Integer::sum);
+        }
+        List<MoodInsights.WeekdayStats> weekdays = new ArrayList<>(7);
+        int weekdayN = 0, weekdaySum = 0, weekendN = 0, weekendSum = 0;
+        for (int i = 0; i < 7; i++) {
+            weekdays.add(new MoodInsights.WeekdayStats(DayOfWeek.of(i + 1).name(), wdCount[i],
+                    avg(wdSum[i], wdCount[i]), wdMains.get(i)));
+            if (i >= 5) { weekendN += wdCount[i]; weekendSum += wdSum[i]; }
+            else { weekdayN += wdCount[i]; weekdaySum += wdSum[i]; }
+        }
+        out.setWeekdays(weekdays);
+        out.setWeekdayCount(weekdayN);
+        out.setWeekendCount(weekendN);
+        out.setWeekdayAvg(avg(weekdaySum, weekdayN));
+        out.setWeekendAvg(avg(weekendSum, weekendN));
+
+        // --- month over month ---
+        TreeMap<YearMonth, int[]> monthTotals = new TreeMap<>();
+        Map<YearMonth, Map<String, Integer>> monthMains = new HashMap<>();
+        for (int i = 0; i < dates.size(); i++) {
+            YearMonth ym = YearMonth.from(dates.get(i));
+            int[] t = monthTotals.computeIfAbsent(ym, k -> new int[2]);
+            t[0]++;
+            t[1] += levels[i];
+            monthMains.computeIfAbsent(ym, k -> zeroMainCounts()).merge(series.get(dates.get(i)).main(), 1, Integer::sum);
+        }
+        List<MoodInsights.MonthStats> months = new ArrayList<>(monthTotals.size());
+        for (Map.Entry<YearMonth, int[]> e : monthTotals.entrySet()) {
+            double a = (double) e.getValue()[1] / e.getValue()[0];
+            int[] prev = monthTotals.get(e.getKey().minusMonths(1));
+            Double delta = prev == null ? null : round(a - (double) prev[1] / prev[0]);
+            months.add(new MoodInsights.MonthStats(e.getKey().toString(), e.getValue()[0], round(a), delta,
+                    monthMains.get(e.getKey())));
+        }
+        out.setMonths(months);
+
+        // --- sub-mood co-occurrence within ISO weeks ---
+        Map<LocalDate, SortedSet<String>> weeks = new HashMap<>();
+        for (Map.Entry<LocalDate, DayMood> e : series.entrySet()) {
+            if (e.getValue().sub() == null) continue;
+            weeks.computeIfAbsent(e.getKey().with(DayOfWeek.MONDAY), k -> new TreeSet<>())
+                    .add(e.getValue().main() + ":" + e.getValue().sub());
+        }
+        Map<List<String>, Integer> pairs = new HashMap<>();
+        for (SortedSet<String> codes : weeks.values()) {
+            List<String> list = new ArrayList<>(codes);
+            for (int i = 0; i < list.size(); i++) {
+                for (int j = i + 1; j < list.size(); j++) {
+                    pairs.merge(List.of(list.get(i), list.get(j)), 1, Integer::sum);
+                }
+            }
+        }
+        out.setCoOccurrence(pairs.entrySet().stream()
+                .sorted(Map.Entry.<List<String>, Integer>comparingByValue().reversed()
+                        .thenComparing(e -> e.getKey().get(0))
+                        .thenComparing(e -> e.getKey().get(1)))
+                .limit(MAX_PAIRS)
+                .map(e -> new MoodInsights.SubMoodPair(e.getKey().get(0), e.getKey().get(1), e.getValue()))
+                .toList());
+        return out;
+    }
+
+    /** For each entry i, the average of entries dated within the {@code window} days ending at dates[i]. */
+    private static Double[] trailing(List<LocalDate> dates, int[] levels, int window) {
+        Double[] out = new Double[dates.size()];
+        int lo = 0, sum = 0;
+        for (int hi = 0; hi < dates.size(); hi++) {
+            sum += levels[hi];
+            while (ChronoUnit.DAYS.between(dates.get(lo), dates.get(hi)) >= window) sum -= levels[lo++];
+            out[hi] = avg(sum, hi - lo + 1);
+        }
+        return out;
+    }
+
+    private static Double windowAverage(List<LocalDate> dates, int[] levels, LocalDate end, int window) {
+        LocalDate start = end.minusDays(window - 1L);
+        int n = 0, sum = 0;
+        for (int i = dates.size() - 1; i >= 0 && !dates.get(i).isBefore(start); i--) {
+            if (dates.get(i).isAfter(end)) continue;
+            n++;
+            sum += levels[i];
+        }
+        return avg(sum, n);
+    }
+
+    private static Map<String, Integer> zeroMainCounts() {
+        Map<String, Integer> m = new LinkedHashMap<>();
+        for (String main : MAINS) m.put(main, 0);
+        return m;
+    }
+
+    private static Double avg(int sum, int n) {
+        return n == 0 ? null : round((double) sum / n);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
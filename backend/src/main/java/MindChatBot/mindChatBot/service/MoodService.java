@@ -1,22 +1,43 @@
 // File: src/main/java/MindChatBot/mindChatBot/service/MoodService.java
 package MindChatBot.mindChatBot.service;
 
-import MindChatBot.mindChatBot.model.ChatLog;
 import MindChatBot.mindChatBot.model.Mood;
-import MindChatBot.mindChatBot.repository.ChatLogRepository;
 import MindChatBot.mindChatBot.repository.MoodRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.*;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 @Service
 public class MoodService {
 
     @Autowired private OpenAiService openAiService;
     @Autowired private MoodRepository moodRepository;
-    @Autowired private ChatLogRepository chatLogRepository;
+    @Autowired private ChatLogStore chatLogStore;
+    @Autowired private MoodInsightsService moodInsightsService;
+    @Autowired private MongoTemplate mongoTemplate;
+
+    /** Result of a mood write: the day's mood before (null if there was none) and after. */
+    public record MoodWrite(Mood previous, Mood current) {
+        public boolean inserted() { return previous == null; }
+        public boolean changed() {
+            return previous == null
+                    || !Objects.equals(previous.getEmoji(), current.getEmoji())
+                    || !Objects.equals(previous.getSubMood(), current.getSubMood());
+        }
+    }
 
     // Main → Sub mood map
     private static final Map<String, List<String>> MOOD_MAP = Map.of(
@@ -50,20 +71,77 @@ public class MoodService {
         if (!isValidMood(main, sub)) {
             throw new IllegalArgumentException("Invalid mood combo: main='" + main + "', sub='" + sub + "'");
         }
-        Mood existing = moodRepository.findByUserIdAndYearAndMonthAndDay(userId, year, month, day);
-        if (existing != null) {
-            existing.setEmoji(main);
-            existing.setSubMood(sub);
-            return moodRepository.save(existing);
+        return writeMood(userId, year, month, day, main, sub, null).current();
+    }
+
+    /**
+     * The single write path for a day's mood: one findAndModify upsert on the uniq_user_day key,
+     * returning the previous document, so concurrent writes for the same day serialize in Mongo
+     * instead of racing a find against a save. Callers validate the pair first.
+     */
+    public MoodWrite writeMood(String userId, int year, int month, int day, String main, String sub, String lang) {
+        requireValidDate(year, month, day);
+        Update update = new Update().set("emoji", main).set("subMood", sub);
+        if (lang != null) update.set("lang", lang);
+        ObjectId newId = new ObjectId();
+        update.setOnInsert("_id", newId);
+
+        Mood previous = findAndModify(dayQuery(userId, year, month, day), update, true);
+        Mood current = new Mood();
+        current.setId(previous != null ? previous.getId() : newId.toHexString());
+        current.setUserId(userId);
+        current.setYear(year);
+        current.setMonth(month);
+        current.setDay(day);
+        current.setEmoji(main);
+        current.setSubMood(sub);
+        current.setLang(lang != null ? lang : (previous != null ? previous.getLang() : null));
+
+        MoodWrite write = new MoodWrite(previous, current);
+        if (write.changed()) moodInsightsService.onMoodSaved(userId, year, month, day, main, sub);
+        return write;
+    }
+
+    /**
+     * Sets the day's mood only if it has none (e.g. a background classifier must not overwrite
+     * what the user picked). Returns the write, or null if a mood was already there.
+     */
+    public MoodWrite writeMoodIfAbsent(String userId, int year, int month, int day, String main, String sub) {
+        requireValidDate(year, month, day);
+        ObjectId newId = new ObjectId();
+        Update update = new Update().setOnInsert("_id", newId).setOnInsert("emoji", main).setOnInsert("subMood", sub);
+        if (findAndModify(dayQuery(userId, year, month, day), update, true) != null) return null;
+
+        Mood current = Mood.builder().id(newId.toHexString()).userId(userId)
+                .year(year).month(month).day(day).emoji(main).subMood(sub).build();
+        moodInsightsService.onMoodSaved(userId, year, month, day, main, sub);
+        return new MoodWrite(null, current);
+    }
+
+    /** Rejects days such as Feb 30 before they are stored (IllegalArgumentException = 400). */
+    private static void requireValidDate(int year, int month, int day) {
+        try {
+            LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date " + year + "-" + month + "-" + day);
+        }
+    }
+
+    private static Query dayQuery(String userId, int year, int month, int day) {
+        return query(where("userId").is(userId).and("year").is(year).and("month").is(month).and("day").is(day));
+    }
+
+    /** Returns the pre-image. */
+    private Mood findAndModify(Query q, Update update, boolean upsert) {
+        try {
+            return mongoTemplate.findAndModify(q, update,
+                    FindAndModifyOptions.options().upsert(upsert).returnNew(false), Mood.class);
+        } catch (DuplicateKeyException e) {
+            // Two upserts for a missing day both tried to insert; the index let one through, so this is now an update
+            // (servers from 4.2 normally retry this themselves)
+            return mongoTemplate.findAndModify(q, update,
+                    FindAndModifyOptions.options().returnNew(false), Mood.class);
         }
-        Mood m = new Mood();
-        m.setUserId(userId);
-        m.setYear(year);
-        m.setMonth(month);
-        m.setDay(day);
-        m.setEmoji(main);
-        m.setSubMood(sub);
-        return moodRepository.save(m);
     }
 
     /** Fetch moods for a specific month */
@@ -83,25 +161,15 @@ public class MoodService {
         }
 
         // Upsert mood
-        Mood savedMood;
-        Mood existingMood = moodRepository.findByUserIdAndYearAndMonthAndDay(
-                userId, mood.getYear(), mood.getMonth(), mood.getDay());
-        if (existingMood != null) {
-            existingMood.setEmoji(mood.getEmoji());
-            existingMood.setSubMood(mood.getSubMood());
-            savedMood = moodRepository.save(existingMood);
-        } else {
-            mood.setUserId(userId);
-            savedMood = moodRepository.save(mood);
-        }
+        Mood savedMood = writeMood(userId, mood.getYear(), mood.getMonth(), mood.getDay(),
+                mood.getEmoji(), mood.getSubMood(), mood.getLang()).current();
 
         // Build a short, localized user message for the bot context
         String moodMessage = localizedMoodMessage(mood, lang);
 
-        // Recent chat history (for continuity)
-        List<ChatLog> history = chatLogRepository.findByUserIdOrderByTimestampAsc(userId);
-
-        return openAiService.sendMessageToOpenAI(history, moodMessage, userId, lang)
+        // Recent chat history (for continuity); through the store so write-behind logs are included
+        return chatLogStore.findByUser(userId).collectList()
+                .flatMap(history -> openAiService.sendMessageToOpenAI(history, moodMessage, userId, lang))
                 .flatMap(response ->
                         openAiService.saveChatLog(userId, moodMessage, response)
                                 .thenReturn(Map.of("mood", savedMood, "reply", response))
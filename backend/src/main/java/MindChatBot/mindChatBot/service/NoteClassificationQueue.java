@@ -0,0 +1,81 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.repository.MoodRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background mood classification for imported journal entries: one worker, one LLM call at a
+ * time, so a big import trickles into the upstream instead of bursting it. Days that already
+ * have a mood (imported or set since) are left alone. Queued work is lost on shutdown; the
+ * notes themselves are already saved.
+ */
+@Slf4j
+@Component
+public class NoteClassificationQueue {
+
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(30);
+
+    private final OpenAiService openAiService;
+    private final MoodService moodService;
+    private final MoodRepository moodRepository;
+    private final ThreadPoolExecutor worker;
+
+    public NoteClassificationQueue(OpenAiService openAiService, MoodService moodService, MoodRepository moodRepository,
+                                   @Value("${app.import.classification-queue-capacity:10000}") int capacity) {
+        this.openAiService = openAiService;
+        this.moodService = moodService;
+        this.moodRepository = moodRepository;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(capacity), r -> {
+            Thread t = new Thread(r, "note-classify");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** False when the queue is full; the caller reports it, nothing is retried. */
+    public boolean offer(String userId, LocalDate date, String content) {
+        try {
+            worker.execute(() -> classify(userId, date, content));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public int pending() {
+        return worker.getQueue().size();
+    }
+
+    private void classify(String userId, LocalDate date, String content) {
+        try {
+            // cheap pre-check to skip the LLM call; the insert-only write below is what guarantees
+            // a mood the user set in the meantime is never overwritten
+            if (moodRepository.findByUserIdAndYearAndMonthAndDay(
+                    userId, date.getYear(), date.getMonthValue(), date.getDayOfMonth()) != null) {
+                return;
+            }
+            Map<String, String> mood = openAiService.analyzeMoodFromNote(content, userId).block(CALL_TIMEOUT);
+            if (mood == null || !moodService.isValidMood(mood.get("main"), mood.get("sub"))) return;
+            moodService.writeMoodIfAbsent(userId, date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                    mood.get("main"), mood.get("sub"));
+        } catch (RuntimeException e) {
+            log.warn("Classification of imported note {} / {} failed: {}", userId, date, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -1,7 +1,6 @@
 package MindChatBot.mindChatBot.service;
 
 import MindChatBot.mindChatBot.model.ChatLog;
-import MindChatBot.mindChatBot.repository.ChatLogRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -22,10 +22,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class OpenAiService {
 
     private final WebClient webClient;
-    private final ChatLogRepository chatLogRepository;
+    private final ChatLogStore chatLogStore;
+    private final ChatMetrics metrics;
+    private final TokenLedger tokenLedger;
 
-    // The daily message limit per user
-    private static final int DAILY_MESSAGE_LIMIT = 10;
+    // The daily message limit per user, used only when token budgets are off (app.llm.budget.enabled)
+    @Value("${app.chat.daily-limit:10}")
+    private int dailyMessageLimit;
 
     // Track users who have already received the daily limit warning
     private final Set<String> warnedUsers = ConcurrentHashMap.newKeySet();
@@ -39,17 +42,31 @@ public class OpenAiService {
     @Value("${openai.system.prompt:}")
     private String systemPrompt;
 
-    public OpenAiService(WebClient.Builder webClientBuilder, ChatLogRepository chatLogRepository) {
-        this.webClient = webClientBuilder.baseUrl("https://api.openai.com/v1").build();
-        this.chatLogRepository = chatLogRepository;
+    public OpenAiService(WebClient.Builder webClientBuilder,
+                         ChatLogStore chatLogStore,
+                         ChatMetrics metrics,
+                         TokenLedger tokenLedger,
+                         @Value("${openai.api.base-url:https://api.openai.com/v1}") String baseUrl) {
+        // Boot's builder carries the observation customizer, so the call joins the request's trace (traceparent header)
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.chatLogStore = chatLogStore;
+        this.metrics = metrics;
+        this.tokenLedger = tokenLedger;
     }
 
-    public Mono<Boolean> isLimitReached(String userId) {
-        return Mono.fromCallable(() -> {
-            LocalDateTime startOfDay = LocalDate.now(ZoneOffset.UTC).atStartOfDay();
-            long messagesToday = chatLogRepository.countByUserIdAndTimestampAfter(userId, startOfDay);
+    /**
+     * Whether a chat costing about {@code estimate} tokens would exceed the user's daily token
+     * budget, or, with budgets off, whether they already sent app.chat.daily-limit messages today.
+     */
+    public Mono<Boolean> isLimitReached(String userId, long estimate) {
+        if (tokenLedger.isEnabled()) {
+            return Mono.fromCallable(() -> !tokenLedger.check(userId, TokenLedger.CALL_CHAT, estimate).allowed())
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        LocalDateTime startOfDay = LocalDate.now(ZoneOffset.UTC).atStartOfDay();
+        return chatLogStore.countSince(userId, startOfDay).map(messagesToday -> {
             log.info("User {} has sent {} messages today.", userId, messagesToday);
-            return messagesToday >= DAILY_MESSAGE_LIMIT;
+            return messagesToday >= dailyMessageLimit;
         });
     }
 
@@ -57,64 +74,52 @@ public class OpenAiService {
 
     /** NEW: language-aware send with daily limit warning once per user */
     public Mono<String> sendMessageToOpenAI(List<ChatLog> history, String message, String userId, String lang) {
-        return isLimitReached(userId)
-                .flatMap(limitReached -> {
-                    if (limitReached) {
-                        // Only warn once
-                        if (!warnedUsers.contains(userId)) {
-                            warnedUsers.add(userId);
-                            log.info("User {} reached daily limit of {}", userId, DAILY_MESSAGE_LIMIT);
-                            return Mono.just("⚠️ You have reached the daily chat limit. Please try again tomorrow.");
-                        } else {
-                            // silently ignore further requests after first warning
-                            log.info("User {} attempted to chat after daily limit, ignored.", userId);
-                            return Mono.empty();
+        String l = normalizedLang(lang);
+        return Mono.defer(() -> {
+            long buildStart = System.nanoTime();
+            String userName = safeUserName(userId);
+            Map<String, Object> requestBody = buildChatRequest(history, message, userName, l);
+            metrics.record(ChatMetrics.STAGE_PROMPT_BUILD, l, System.nanoTime() - buildStart);
+            long estimate = tokenLedger.estimate(requestBody);
+
+            return metrics.timed(ChatMetrics.STAGE_LIMIT_CHECK, l, isLimitReached(userId, estimate))
+                    .flatMap(limitReached -> {
+                        if (limitReached) {
+                            // Only warn once
+                            if (!warnedUsers.contains(userId)) {
+                                warnedUsers.add(userId);
+                                log.info("User {} reached the daily limit (~{} tokens requested)", userId, estimate);
+                                return Mono.just("⚠️ You have reached the daily chat limit. Please try again tomorrow.");
+                            } else {
+                                // silently ignore further requests after first warning
+                                log.info("User {} attempted to chat after daily limit, ignored.", userId);
+                                return Mono.empty();
+                            }
                         }
-                    }
-
-                    // Remove warning if user hasn't hit limit
-                    warnedUsers.remove(userId);
-
-                    // Proceed with OpenAI call
-                    String l = normalizedLang(lang);
-                    List<Map<String, String>> messages = new ArrayList<>();
-                    messages.add(Map.of("role", "system", "content", systemPromptFor(l)));
-
-                    String userName = safeUserName(userId);
-
-                    int maxHistory = 5;
-                    int startIdx = Math.max(0, history.size() - maxHistory);
-                    for (int i = startIdx; i < history.size(); i++) {
-                        ChatLog chat = history.get(i);
-                        String userMsg = trim200(chat.getMessage());
-                        String botResp = trim200(chat.getResponse());
-                        if (userMsg != null) messages.add(Map.of("role", "user", "content", userMsg));
-                        if (botResp != null) messages.add(Map.of("role", "assistant", "content", botResp));
-                    }
 
-                    messages.add(Map.of("role", "user", "content", trim200(message)));
-
-                    Map<String, Object> requestBody = new HashMap<>();
-                    requestBody.put("model", model);
-                    requestBody.put("messages", messages);
-                    if (userName != null) requestBody.put("user", userName);
-
-                    return webClient.post()
-                            .uri("/chat/completions")
-                            .header("Authorization", "Bearer " + openaiApiKey)
-                            .bodyValue(requestBody)
-                            .retrieve()
-                            .bodyToMono(Map.class)
-                            .flatMap(this::extractMessage)
-                            .switchIfEmpty(Mono.fromCallable(() -> {
-                                log.warn("OpenAI returned empty body/choices for user={}", userName);
-                                return "(empty response)";
-                            }))
-                            .onErrorResume(e -> {
-                                log.error("OpenAI call failed: {}", e.getMessage(), e);
-                                return Mono.just("(Chat service is temporarily unavailable.)");
-                            });
-                });
+                        // Remove warning if user hasn't hit limit
+                        warnedUsers.remove(userId);
+
+                        // Proceed with OpenAI call
+                        return metrics.timed(ChatMetrics.STAGE_UPSTREAM, l, postCompletion(requestBody, l))
+                                .flatMap(res -> charge(userId, TokenLedger.CALL_CHAT, res, estimate))
+                                .flatMap(res -> {
+                                    metrics.recordUsage("chat", l, res);
+                                    long extractStart = System.nanoTime();
+                                    Mono<String> content = extractMessage(res);
+                                    metrics.record(ChatMetrics.STAGE_EXTRACT, l, System.nanoTime() - extractStart);
+                                    return content.doOnNext(c -> metrics.recordResponseSize("chat", l, c));
+                                })
+                                .switchIfEmpty(Mono.fromCallable(() -> {
+                                    log.warn("OpenAI returned empty body/choices for user={}", userName);
+                                    return "(empty response)";
+                                }))
+                                .onErrorResume(e -> {
+                                    log.error("OpenAI call failed: {}", e.getMessage(), e);
+                                    return Mono.just("(Chat service is temporarily unavailable.)");
+                                });
+                    });
+        });
     }
 
     /** Old signature kept for compatibility (defaults to English) */
@@ -122,7 +127,11 @@ public class OpenAiService {
         return sendMessageToOpenAI(history, message, userId, "en");
     }
 
-    public Mono<Map<String, String>> analyzeMoodFromNote(String noteContent) {
+    /**
+     * Classifies a note's mood. The tokens are charged to {@code userId}; with budgets on, a user
+     * whose budget can't cover the call gets a {@link TokenLedger.BudgetExceededException}.
+     */
+    public Mono<Map<String, String>> analyzeMoodFromNote(String noteContent, String userId) {
         String prompt = "Below is a user's journal entry. Classify the emotion of this entry as one of the following.\n" +
                 "Main mood: best, good, neutral, poor, bad\n" +
                 "Sub mood list:\n" +
@@ -142,13 +151,12 @@ public class OpenAiService {
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", model);
         requestBody.put("messages", messages);
+        long estimate = tokenLedger.estimate(requestBody);
 
-        return webClient.post()
-                .uri("/chat/completions")
-                .header("Authorization", "Bearer " + openaiApiKey)
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(Map.class)
+        return checkBudget(userId, TokenLedger.CALL_CLASSIFY, estimate)
+                .then(postCompletion(requestBody, "n/a"))
+                .doOnNext(res -> metrics.recordUsage(TokenLedger.CALL_CLASSIFY, "n/a", res))
+                .flatMap(res -> charge(userId, TokenLedger.CALL_CLASSIFY, res, estimate))
                 .flatMap(res -> extractMessage(res).flatMap(content -> {
                     try {
                         String c = (content == null) ? "" : content.trim();
@@ -166,18 +174,78 @@ public class OpenAiService {
     }
 
     public Flux<ChatLog> getChatHistory(String userId) {
-        List<ChatLog> logs = chatLogRepository.findByUserIdOrderByTimestampAsc(userId);
         // Return only current user's logs to avoid showing other users
-        return Flux.fromIterable(logs).filter(log -> userId.equals(log.getUserId()));
+        return chatLogStore.findByUser(userId).filter(log -> userId.equals(log.getUserId()));
     }
 
     public Mono<Void> saveChatLog(String userId, String message, String response) {
-        ChatLog log = new ChatLog(userId, message, response);
-        return Mono.fromCallable(() -> chatLogRepository.save(log)).then();
+        ChatLog log = SearchText.index(new ChatLog(userId, message, response));
+        return chatLogStore.save(log).then();
+    }
+
+    private Mono<Void> checkBudget(String userId, String call, long estimate) {
+        if (!tokenLedger.isEnabled()) return Mono.empty();
+        return Mono.fromCallable(() -> tokenLedger.check(userId, call, estimate))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(d -> d.allowed() ? Mono.<Void>empty() : Mono.error(new TokenLedger.BudgetExceededException(d)));
+    }
+
+    /** Adds the response's token usage to the user's ledger (a blocking upsert, so off the event loop). */
+    private Mono<Map<String, Object>> charge(String userId, String call, Map<String, Object> response, long estimate) {
+        return Mono.fromRunnable(() -> tokenLedger.record(userId, call, response, estimate))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(response);
+    }
+
+    /**
+     * POSTs to /chat/completions. The time until response headers arrive is recorded as
+     * upstream TTFB separately from the body download and decode.
+     */
+    @SuppressWarnings("unchecked")
+    private Mono<Map<String, Object>> postCompletion(Map<String, Object> requestBody, String lang) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.post()
+                    .uri("/chat/completions")
+                    .header("Authorization", "Bearer " + openaiApiKey)
+                    .bodyValue(requestBody)
+                    .exchangeToMono(resp -> {
+                        metrics.record(ChatMetrics.STAGE_UPSTREAM_TTFB, lang,
+                                resp.statusCode().isError() ? "error" : "ok", System.nanoTime() - start);
+                        if (resp.statusCode().isError()) {
+                            return resp.createError();
+                        }
+                        return resp.bodyToMono(Map.class).map(m -> (Map<String, Object>) m);
+                    });
+        });
     }
 
     /* ---------- helpers ---------- */
 
+    /** System prompt, the last 5 exchanges and the new message, each trimmed to 200 chars. */
+    Map<String, Object> buildChatRequest(List<ChatLog> history, String message, String userName, String lang) {
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(Map.of("role", "system", "content", systemPromptFor(lang)));
+
+        int maxHistory = 5;
+        int startIdx = Math.max(0, history.size() - maxHistory);
+        for (int i = startIdx; i < history.size(); i++) {
+            ChatLog chat = history.get(i);
+            String userMsg = trim200(chat.getMessage());
+            String botResp = trim200(chat.getResponse());
+            if (userMsg != null) messages.add(Map.of("role", "user", "content", userMsg));
+            if (botResp != null) messages.add(Map.of("role", "assistant", "content", botResp));
+        }
+
+        messages.add(Map.of("role", "user", "content", trim200(message)));
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        if (userName != null) requestBody.put("user", userName);
+        return requestBody;
+    }
+
     private static String trim200(String s) {
         if (s == null) return null;
         return (s.length() > 200) ? s.substring(0, 200) + "..." : s;
@@ -189,7 +257,7 @@ public class OpenAiService {
         return userId;
     }
 
-    private Mono<String> extractMessage(Map<?, ?> response) {
+    Mono<String> extractMessage(Map<?, ?> response) {
         try {
             List<?> choices = (List<?>) response.get("choices");
             if (choices == null || choices.isEmpty()) {
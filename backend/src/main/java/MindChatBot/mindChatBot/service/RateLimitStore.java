@@ -0,0 +1,21 @@
+package MindChatBot.mindChatBot.service;
+
+import java.time.Duration;
+
+/** Token-bucket storage used by the auth rate limiter. */
+public interface RateLimitStore {
+
+    /**
+     * Take one token from the bucket identified by {@code key}, creating it full if needed.
+     * The bucket holds {@code capacity} tokens and refills at capacity / period.
+     */
+    Decision tryConsume(String key, int capacity, Duration period);
+
+    record Decision(boolean allowed, long retryAfterSeconds) {
+        public static final Decision ALLOWED = new Decision(true, 0);
+
+        public static Decision denied(long retryAfterSeconds) {
+            return new Decision(false, Math.max(1, retryAfterSeconds));
+        }
+    }
+}
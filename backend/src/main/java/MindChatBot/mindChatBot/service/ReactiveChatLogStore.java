@@ -0,0 +1,48 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Non-blocking driver end to end, so the chat pipeline never hops to a worker pool
+ * for its Mongo reads and writes. Same queries as ChatLogRepository (idx_user_ts).
+ */
+public class ReactiveChatLogStore implements ChatLogStore {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveChatLogStore(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Long> countSince(String userId, LocalDateTime since) {
+        return mongoTemplate.count(query(where("userId").is(userId).and("timestamp").gt(since)), ChatLog.class);
+    }
+
+    @Override
+    public Flux<ChatLog> findByUser(String userId) {
+        Query q = query(where("userId").is(userId)).with(Sort.by(Sort.Direction.ASC, "timestamp"));
+        return mongoTemplate.find(q, ChatLog.class);
+    }
+
+    @Override
+    public Mono<ChatLog> save(ChatLog log) {
+        return mongoTemplate.save(log);
+    }
+
+    @Override
+    public Mono<Void> insertAll(List<ChatLog> logs) {
+        return mongoTemplate.insertAll(logs).then();
+    }
+}
@@ -1,14 +1,37 @@
 // src/main/java/MindChatBot/mindChatBot/service/RegistrationOtpService.java
 package MindChatBot.mindChatBot.service;
 
-import MindChatBot.mindChatBot.model.User;
+import MindChatBot.mindChatBot.model.OtpCode;
+import MindChatBot.mindChatBot.model.OtpCode.Purpose;
+import MindChatBot.mindChatBot.repository.OtpCodeRepository;
 import MindChatBot.mindChatBot.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Issues and checks the 6-digit codes used for signup verification and password reset.
+ * Codes live in the small {@code otp_codes} collection (TTL-expired, hashed) instead of on the user.
+ */
+@Slf4j
 @Service
 public class RegistrationOtpService {
 
@@ -16,75 +39,156 @@ public class RegistrationOtpService {
     private static final Duration RESEND_COOLDOWN = Duration.ofSeconds(60);
     private static final int MAX_ATTEMPTS = 5;
     private static final Duration LOCK_DURATION = Duration.ofMinutes(15);
+    private static final SecureRandom RANDOM = new SecureRandom();
 
+    private final OtpCodeRepository otpCodeRepository;
+    private final MongoTemplate mongoTemplate;
     private final UserRepository userRepository;
     private final EmailService emailService;
 
-    public RegistrationOtpService(UserRepository userRepository, EmailService emailService) {
+    public RegistrationOtpService(OtpCodeRepository otpCodeRepository,
+                                  MongoTemplate mongoTemplate,
+                                  UserRepository userRepository,
+                                  EmailService emailService) {
+        this.otpCodeRepository = otpCodeRepository;
+        this.mongoTemplate = mongoTemplate;
         this.userRepository = userRepository;
         this.emailService = emailService;
     }
 
-    /** Issue (or re-issue) a 6-digit code and email it to the user. */
-    public void issueCode(User user) {
-        String code = String.format("%06d", ThreadLocalRandom.current().nextInt(0, 1_000_000));
-        LocalDateTime now = LocalDateTime.now();
+    /** The TTL index is what cleans up expired codes, so make sure it exists. */
+    @PostConstruct
+    void ensureIndexes() {
+        try {
+            IndexOperations ops = mongoTemplate.indexOps(OtpCode.class);
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(OtpCode.class)
+                    .forEach(ops::ensureIndex);
+        } catch (Exception e) {
+            log.warn("Could not ensure otp_codes indexes: {}", e.getMessage());
+        }
+    }
 
-        user.setVerificationCode(code);
-        user.setVerificationCodeExpiresAt(now.plus(CODE_TTL));
-        user.setLastVerificationCodeSentAt(now);
-        user.setVerificationAttemptCount(0);
-        user.setVerificationLockedUntil(null);
+    /**
+     * Issue (or re-issue) a 6-digit code and email it to the address. Wrong guesses carry over to
+     * the new code, so re-issuing can't reset the attempt limit; while the address is locked out
+     * nothing is issued and this returns false.
+     */
+    public boolean issueCode(String email, Purpose purpose) {
+        String id = OtpCode.idFor(purpose, email);
+        Instant now = Instant.now();
+        // A lockout that has run out (and the TTL monitor hasn't removed yet) starts over
+        mongoTemplate.remove(query(where("_id").is(id).and("lockedUntil").lte(now)), OtpCode.class);
 
-        userRepository.save(user);
-        // Keep the 2-arg signature to match your current EmailService
-        emailService.sendVerificationCode(user.getEmail(), code);
+        String code = String.format("%06d", RANDOM.nextInt(1_000_000));
+        Instant expiresAt = now.plus(CODE_TTL);
+        Update update = new Update()
+                .set("email", email)
+                .set("purpose", purpose)
+                .set("codeHash", hash(purpose, email, code))
+                .set("sentAt", now)
+                .set("codeExpiresAt", expiresAt)
+                .set("expireAt", expiresAt)
+                .setOnInsert("attempts", 0);
+        try {
+            // Only an unlocked document matches; against a locked one the upsert's insert collides on _id
+            mongoTemplate.upsert(query(where("_id").is(id).and("lockedUntil").is(null)), update, OtpCode.class);
+        } catch (DuplicateKeyException e) {
+            log.info("Not issuing a {} code to {}: locked out", purpose, email);
+            return false;
+        }
+
+        if (purpose == Purpose.RESET) {
+            emailService.sendPasswordResetCode(email, code);
+        } else {
+            emailService.sendVerificationCode(email, code);
+        }
+        return true;
     }
 
     /** Whether a new code can be re-sent right now (cooldown respected). */
-    public boolean canResend(User user) {
-        LocalDateTime last = user.getLastVerificationCodeSentAt();
-        return last == null || Duration.between(last, LocalDateTime.now()).compareTo(RESEND_COOLDOWN) >= 0;
+    public boolean canResend(String email, Purpose purpose) {
+        return resendRetryAfterSeconds(email, purpose) == 0;
     }
 
-    /** How many seconds the client should wait before requesting another resend. */
-    public long resendRetryAfterSeconds(User user) {
-        LocalDateTime last = user.getLastVerificationCodeSentAt();
-        if (last == null) return 0;
-        long elapsed = Duration.between(last, LocalDateTime.now()).getSeconds();
+    /** How many seconds the client should wait before requesting another resend (cooldown or lockout). */
+    public long resendRetryAfterSeconds(String email, Purpose purpose) {
+        Optional<OtpCode> otp = otpCodeRepository.findById(OtpCode.idFor(purpose, email));
+        if (otp.isEmpty()) return 0;
+        Instant now = Instant.now();
+        Instant lockedUntil = otp.get().getLockedUntil();
+        if (lockedUntil != null && now.isBefore(lockedUntil)) {
+            return Math.max(1, Duration.between(now, lockedUntil).getSeconds());
+        }
+        if (otp.get().getSentAt() == null) return 0;
+        long elapsed = Duration.between(otp.get().getSentAt(), now).getSeconds();
         long remain = RESEND_COOLDOWN.getSeconds() - elapsed;
         return Math.max(0, remain);
     }
 
-    /** Validate a submitted code and update the user state accordingly. */
-    public VerificationResult verify(User user, String submittedCode) {
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Validate a submitted code. Wrong guesses are counted with an atomic $inc; a correct code is
+     * consumed (deleted) and, for {@link Purpose#VERIFY}, the user is flagged verified.
+     */
+    public VerificationResult verify(String email, Purpose purpose, String submittedCode) {
+        String id = OtpCode.idFor(purpose, email);
+        Optional<OtpCode> opt = otpCodeRepository.findById(id);
+        if (opt.isEmpty()) return VerificationResult.NO_CODE;
 
-        if (user.getVerificationLockedUntil() != null && now.isBefore(user.getVerificationLockedUntil())) {
+        OtpCode otp = opt.get();
+        Instant now = Instant.now();
+
+        if (otp.getLockedUntil() != null && now.isBefore(otp.getLockedUntil())) {
             return VerificationResult.LOCKED;
         }
-        if (user.getVerificationCode() == null || user.getVerificationCodeExpiresAt() == null) {
+        if (otp.getCodeHash() == null || otp.getCodeExpiresAt() == null) {
             return VerificationResult.NO_CODE;
         }
-        if (now.isAfter(user.getVerificationCodeExpiresAt())) {
+        if (now.isAfter(otp.getCodeExpiresAt())) {
             return VerificationResult.EXPIRED;
         }
-        if (!user.getVerificationCode().equals(submittedCode)) {
-            int attempts = user.getVerificationAttemptCount() + 1;
-            user.setVerificationAttemptCount(attempts);
+
+        String submittedHash = hash(purpose, email, submittedCode == null ? "" : submittedCode.trim());
+        if (!MessageDigest.isEqual(otp.getCodeHash().getBytes(StandardCharsets.US_ASCII),
+                submittedHash.getBytes(StandardCharsets.US_ASCII))) {
+            OtpCode updated = mongoTemplate.findAndModify(
+                    query(where("_id").is(id)),
+                    new Update().inc("attempts", 1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    OtpCode.class);
+            int attempts = (updated == null) ? MAX_ATTEMPTS : updated.getAttempts();
             if (attempts >= MAX_ATTEMPTS) {
-                user.setVerificationLockedUntil(now.plus(LOCK_DURATION));
+                Instant lockedUntil = now.plus(LOCK_DURATION);
+                mongoTemplate.updateFirst(query(where("_id").is(id)),
+                        Update.update("lockedUntil", lockedUntil).set("expireAt", lockedUntil),
+                        OtpCode.class);
+                return VerificationResult.LOCKED;
             }
-            userRepository.save(user);
-            return attempts >= MAX_ATTEMPTS ? VerificationResult.LOCKED : VerificationResult.INVALID;
+            return VerificationResult.INVALID;
         }
 
-        // success
-        user.markVerified();
-        userRepository.save(user);
+        // Consume only the code we just checked, so a concurrent re-issue isn't wiped out
+        long removed = mongoTemplate.remove(
+                query(where("_id").is(id).and("codeHash").is(otp.getCodeHash())),
+                OtpCode.class).getDeletedCount();
+        if (removed == 0) return VerificationResult.NO_CODE;
+
+        if (purpose == Purpose.VERIFY) {
+            userRepository.markVerifiedByEmail(email);
+        }
         return VerificationResult.OK;
     }
 
+    private static String hash(Purpose purpose, String email, String code) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest((OtpCode.idFor(purpose, email) + ":" + code).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     public enum VerificationResult {
         OK, INVALID, EXPIRED, NO_CODE, LOCKED
     }
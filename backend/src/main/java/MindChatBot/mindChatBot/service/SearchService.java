@@ -0,0 +1,173 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.dto.SearchHit;
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.model.JournalEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Ranked search over a user's journal entries and chat logs. Both collections carry a
+ * { userId: 1, searchText: "text" } index, so a query only touches that user's postings
+ * and Mongo ranks by textScore; nothing is scanned. searchText is kept current on every
+ * save (SearchText.index), so there is no separate indexing step.
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+    public enum Scope { NOTES, CHATS, ALL }
+
+    public static final int MAX_PAGE_SIZE = 50;
+    /** Deep pages re-rank everything before them; nobody reads result 1000. */
+    public static final int MAX_OFFSET = 1000;
+
+    private static final String NOTES = "journal_entries";
+    private static final String CHATS = "chat_logs";
+    private static final int SNIPPET_BEFORE = 60;
+    private static final int SNIPPET_AFTER = 120;
+    private static final int BACKFILL_BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.search.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    public SearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public record Page(List<SearchHit> hits, int page, int size, boolean hasMore) {}
+
+    public Page search(String userId, String q, Scope scope, int page, int size) {
+        String terms = SearchText.query(q);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = Math.max(0, page) * pageSize;
+        if (terms.isEmpty() || offset > MAX_OFFSET) return new Page(List.of(), page, pageSize, false);
+
+        String language = SearchText.languageOf(q);
+        Set<String> words = SearchText.words(q);
+        Set<String> grams = new LinkedHashSet<>(Arrays.asList(terms.split(" ")));
+        List<SearchHit> hits = new ArrayList<>();
+
+        if (scope == Scope.ALL) {
+            // Each side's top (offset + size + 1) is enough to cut the merged window
+            int window = offset + pageSize + 1;
+            hits.addAll(find(NOTES, userId, terms, language, 0, window, words, grams));
+            hits.addAll(find(CHATS, userId, terms, language, 0, window, words, grams));
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+            hits = hits.size() > offset ? new ArrayList<>(hits.subList(offset, hits.size())) : new ArrayList<>();
+        } else {
+            String collection = scope == Scope.NOTES ? NOTES : CHATS;
+            hits.addAll(find(collection, userId, terms, language, offset, pageSize + 1, words, grams));
+        }
+
+        boolean hasMore = hits.size() > pageSize;
+        return new Page(hasMore ? List.copyOf(hits.subList(0, pageSize)) : List.copyOf(hits), page, pageSize, hasMore);
+    }
+
+    private List<SearchHit> find(String collection, String userId, String terms, String language,
+                                 int skip, int limit, Set<String> words, Set<String> grams) {
+        Query q = TextQuery.queryText(TextCriteria.forLanguage(language).matching(terms))
+                .includeScore("score")
+                .sortByScore()
+                .addCriteria(where("userId").is(userId))
+                .skip(skip)
+                .limit(limit);
+        q.fields().exclude("searchText");
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (Document d : mongoTemplate.find(q, Document.class, collection)) {
+            double score = d.get("score") instanceof Number n ? n.doubleValue() : 0;
+            if (NOTES.equals(collection)) {
+                JournalEntry e = mongoTemplate.getConverter().read(JournalEntry.class, d);
+                hits.add(new SearchHit("note", e.getId(), e.getDate(), e.getTimestamp(),
+                        snippet(e.getContent(), words, grams), score));
+            } else {
+                ChatLog c = mongoTemplate.getConverter().read(ChatLog.class, d);
+                String text = Objects.toString(c.getMessage(), "") + "\n" + Objects.toString(c.getResponse(), "");
+                hits.add(new SearchHit("chat", c.getId(), null, c.getTimestamp(),
+                        snippet(text, words, grams), score));
+            }
+        }
+        return hits;
+    }
+
+    /** A window around the first query word (or Korean bigram) found in the text. */
+    static String snippet(String text, Set<String> words, Set<String> grams) {
+        if (text == null) return "";
+        String lower = text.toLowerCase(Locale.ROOT);
+        int at = -1;
+        for (Set<String> candidates : List.of(words, grams)) {
+            for (String w : candidates) {
+                int i = lower.indexOf(w);
+                if (i >= 0 && (at < 0 || i < at)) at = i;
+            }
+            if (at >= 0) break;
+        }
+        if (at < 0) at = 0;
+        int from = Math.max(0, at - SNIPPET_BEFORE);
+        int to = Math.min(text.length(), at + SNIPPET_AFTER);
+        return (from > 0 ? "…" : "") + text.substring(from, to).replaceAll("\\s+", " ").trim()
+                + (to < text.length() ? "…" : "");
+    }
+
+    /**
+     * Documents saved before searchText existed are invisible to $text. With
+     * app.search.backfill-on-startup=true they are indexed in batches once the app is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStartup) return;
+        try {
+            long notes = backfill(NOTES, JournalEntry.class);
+            long chats = backfill(CHATS, ChatLog.class);
+            log.info("Search backfill: indexed {} journal entries and {} chat logs", notes, chats);
+        } catch (Exception e) {
+            // Unindexed documents just stay out of search results until the next attempt
+            log.warn("Search backfill failed: {}", e.getMessage());
+        }
+    }
+
+    private long backfill(String collection, Class<?> type) {
+        long total = 0;
+        while (true) {
+            Query missing = query(where("searchText").exists(false)).limit(BACKFILL_BATCH);
+            List<?> batch = mongoTemplate.find(missing, type, collection);
+            if (batch.isEmpty()) return total;
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type, collection);
+            for (Object doc : batch) {
+                String id;
+                String searchText;
+                String language;
+                if (doc instanceof JournalEntry e) {
+                    SearchText.index(e);
+                    id = e.getId(); searchText = e.getSearchText(); language = e.getLanguage();
+                } else {
+                    ChatLog c = SearchText.index((ChatLog) doc);
+                    id = c.getId(); searchText = c.getSearchText(); language = c.getLanguage();
+                }
+                bulk.updateOne(query(where("_id").is(id)),
+                        new Update().set("searchText", searchText).set("language", language));
+            }
+            bulk.execute();
+            total += batch.size();
+        }
+    }
+}
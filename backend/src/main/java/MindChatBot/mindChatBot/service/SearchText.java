@@ -0,0 +1,106 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.model.JournalEntry;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Builds the {@code searchText}/{@code language} pair stored on searchable documents and the
+ * matching $text query. Mongo's text analyzers stem English and Russian but have no Korean
+ * tokenizer, so Hangul runs are indexed (and queried) as overlapping bigrams under language
+ * "none": "행복했다" becomes "행복 복했 했다", and a search for "행복" hits it.
+ */
+public final class SearchText {
+
+    public static final String ENGLISH = "english";
+    public static final String RUSSIAN = "russian";
+    public static final String NONE = "none";
+
+    private SearchText() {}
+
+    /** Refreshes the derived search fields; call before every save of the entry. */
+    public static JournalEntry index(JournalEntry entry) {
+        entry.setSearchText(of(entry.getContent()));
+        entry.setLanguage(languageOf(entry.getContent()));
+        return entry;
+    }
+
+    public static ChatLog index(ChatLog log) {
+        String text = (log.getMessage() == null ? "" : log.getMessage()) + "\n"
+                + (log.getResponse() == null ? "" : log.getResponse());
+        log.setSearchText(of(text));
+        log.setLanguage(languageOf(text));
+        return log;
+    }
+
+    /** Text to store in the text-indexed field. */
+    public static String of(String text) {
+        if (text == null || text.isBlank()) return "";
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        forEachToken(text, token -> out.append(token).append(' '));
+        return out.toString().trim();
+    }
+
+    /** Mongo text-search language for a document or a query, from its dominant script. */
+    public static String languageOf(String text) {
+        if (text == null) return ENGLISH;
+        int hangul = 0, cyrillic = 0, latin = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isHangul(c)) hangul++;
+            else if (Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC) cyrillic++;
+            else if (Character.isLetter(c)) latin++;
+        }
+        if (hangul > 0 && hangul >= cyrillic && hangul >= latin) return NONE;
+        if (cyrillic > latin) return RUSSIAN;
+        return ENGLISH;
+    }
+
+    /** $search string; terms are OR-ed and ranked by Mongo's textScore. */
+    public static String query(String q) {
+        Set<String> terms = new LinkedHashSet<>();
+        forEachToken(q == null ? "" : q, terms::add);
+        return String.join(" ", terms);
+    }
+
+    /** Query terms as the user typed them (lower-cased), for snippet highlighting. */
+    public static Set<String> words(String q) {
+        Set<String> words = new LinkedHashSet<>();
+        if (q == null) return words;
+        for (String w : q.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+
+    private static void forEachToken(String text, Consumer<String> sink) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0, n = lower.length();
+        while (i < n) {
+            char c = lower.charAt(i);
+            if (isHangul(c)) {
+                int start = i;
+                while (i < n && isHangul(lower.charAt(i))) i++;
+                if (i - start == 1) {
+                    sink.accept(lower.substring(start, i));
+                } else {
+                    for (int j = start; j + 2 <= i; j++) sink.accept(lower.substring(j, j + 2));
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < n && Character.isLetterOrDigit(lower.charAt(i)) && !isHangul(lower.charAt(i))) i++;
+                sink.accept(lower.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isHangul(char c) {
+        return (c >= '가' && c <= '힣') || (c >= 'ᄀ' && c <= 'ᇿ') || (c >= '㄰' && c <= '㆏');
+    }
+}
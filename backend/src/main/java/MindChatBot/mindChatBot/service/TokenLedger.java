@@ -0,0 +1,246 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.config.TokenBudgetProperties;
+import MindChatBot.mindChatBot.model.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Per-user daily token ledger (token_usage) and the plan budgets enforced against it.
+ * <ul>
+ *   <li>{@link #estimate} sizes a request from its message text before it is sent;</li>
+ *   <li>{@link #check} refuses the call when today's tokens plus that estimate exceed the plan;</li>
+ *   <li>{@link #record} adds the response's actual {@code usage} block, or the estimate when the
+ *       upstream sent none.</li>
+ * </ul>
+ * The check and the record are separate round trips, so parallel calls from one user can each
+ * pass and overshoot the budget by about one call. Like the rate limiter, the ledger fails open:
+ * if Mongo is unavailable, calls are allowed and go unrecorded.
+ */
+@Slf4j
+@Service
+public class TokenLedger {
+
+    public static final String CALL_CHAT = "chat";
+    public static final String CALL_CLASSIFY = "classify";
+
+    /** Role and framing tokens the API adds around every message */
+    static final int MESSAGE_OVERHEAD = 4;
+
+    /** Outcome of a budget check; {@code limit} 0 = unlimited. */
+    public record Decision(boolean allowed, String plan, long limit, long used, long estimate) {
+        static Decision unmetered(long estimate) {
+            return new Decision(true, null, 0, 0, estimate);
+        }
+    }
+
+    /** Raised instead of making a call the user's budget can't cover. */
+    public static class BudgetExceededException extends RuntimeException {
+        private final transient Decision decision;
+
+        public BudgetExceededException(Decision decision) {
+            super("Daily token budget of " + decision.limit() + " reached (" + decision.used() + " used)");
+            this.decision = decision;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final TokenBudgetProperties properties;
+    private final MeterRegistry registry;
+    private final Clock clock;
+
+    @Autowired
+    public TokenLedger(MongoTemplate mongoTemplate, TokenBudgetProperties properties, MeterRegistry registry) {
+        this(mongoTemplate, properties, registry, Clock.systemUTC());
+    }
+
+    TokenLedger(MongoTemplate mongoTemplate, TokenBudgetProperties properties, MeterRegistry registry, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.registry = registry;
+        this.clock = clock;
+    }
+
+    /** Whether budgets are enforced; usage is recorded either way. */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /** Prompt tokens for the request's messages plus the configured completion allowance. */
+    public long estimate(Map<String, Object> requestBody) {
+        long tokens = properties.getCompletionAllowance();
+        if (requestBody.get("messages") instanceof List<?> messages) {
+            for (Object m : messages) {
+                tokens += MESSAGE_OVERHEAD;
+                if (m instanceof Map<?, ?> message && message.get("content") instanceof String content) {
+                    tokens += estimateText(content);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    long estimateText(String text) {
+        long ascii = 0, other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            if (cp < 0x80) ascii++;
+            else other++;
+            i += Character.charCount(cp);
+        }
+        return (long) Math.ceil(ascii / properties.getCharsPerToken()) + other;
+    }
+
+    public Decision check(String userId, String call, long estimate) {
+        if (userId == null) return Decision.unmetered(estimate);
+        try {
+            String plan = planOf(userId);
+            long limit = limitOf(plan);
+            if (limit <= 0) return new Decision(true, plan, 0, 0, estimate);
+
+            String day = today().toString();
+            TokenUsage usage = mongoTemplate.findById(id(userId, day), TokenUsage.class);
+            long used = usage == null ? 0 : usage.getTotalTokens();
+            Decision decision = new Decision(used + estimate <= limit, plan, limit, used, estimate);
+            if (!decision.allowed()) {
+                registry.counter("mindchat.llm.budget.rejected", "call", call, "plan", plan).increment();
+                mongoTemplate.upsert(query(where("_id").is(id(userId, day))),
+                        onInsert(userId, day).inc("rejected", 1), TokenUsage.class);
+            }
+            return decision;
+        } catch (DataAccessException e) {
+            log.warn("Token budget check failed for {}, allowing the call: {}", userId, e.getMessage());
+            return Decision.unmetered(estimate);
+        }
+    }
+
+    /** Adds the {@code usage} block of a completions response, or {@code estimate} if it has none. */
+    public void record(String userId, String call, Map<?, ?> response, long estimate) {
+        if (response != null && response.get("usage") instanceof Map<?, ?> usage
+                && usage.get("prompt_tokens") instanceof Number prompt) {
+            long completion = usage.get("completion_tokens") instanceof Number n ? n.longValue() : 0;
+            record(userId, call, prompt.longValue(), completion, false);
+        } else {
+            record(userId, call, estimate, 0, true);
+        }
+    }
+
+    void record(String userId, String call, long promptTokens, long completionTokens, boolean estimated) {
+        if (userId == null) return;
+        String day = today().toString();
+        long total = promptTokens + completionTokens;
+        Update update = onInsert(userId, day)
+                .inc("promptTokens", promptTokens)
+                .inc("completionTokens", completionTokens)
+                .inc("totalTokens", total)
+                .inc("calls", 1)
+                .inc("byCall." + call, total)
+                .set("updatedAt", Instant.now(clock));
+        if (estimated) update.inc("estimatedCalls", 1);
+        try {
+            mongoTemplate.upsert(query(where("_id").is(id(userId, day))), update, TokenUsage.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not record {} tokens for {}: {}", total, userId, e.getMessage());
+        }
+    }
+
+    /* ---------- Reads for the tokens actuator endpoint ---------- */
+
+    /** The user's plan name: User.plan when it names a configured plan, otherwise the default. */
+    public String planOf(String userId) {
+        Query q = query(where("email").is(userId));
+        q.fields().include("plan");
+        Document user = mongoTemplate.findOne(q, Document.class, "users");
+        String plan = user == null ? null : user.getString("plan");
+        return plan != null && properties.getPlans().containsKey(plan) ? plan : properties.getDefaultPlan();
+    }
+
+    public long limitOf(String plan) {
+        TokenBudgetProperties.Plan p = properties.getPlans().get(plan);
+        return p == null ? 0 : p.getDailyTokens();
+    }
+
+    public boolean isPlan(String plan) {
+        return properties.getPlans().containsKey(plan);
+    }
+
+    /** Sets User.plan; false if there is no such user. */
+    public boolean setPlan(String userId, String plan) {
+        return mongoTemplate.updateFirst(query(where("email").is(userId)), Update.update("plan", plan), "users")
+                .getMatchedCount() > 0;
+    }
+
+    /** The user's ledger for the last {@code days} days (today included), newest first; idle days are absent. */
+    public List<TokenUsage> history(String userId, int days) {
+        LocalDate today = today();
+        List<String> ids = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) ids.add(id(userId, today.minusDays(i).toString()));
+        List<TokenUsage> out = new ArrayList<>(mongoTemplate.find(query(where("_id").in(ids)), TokenUsage.class));
+        out.sort(Comparator.comparing(TokenUsage::getDay).reversed());
+        return out;
+    }
+
+    /** Heaviest users of the day (the day_total index serves this). */
+    public List<TokenUsage> top(LocalDate day, int limit) {
+        return mongoTemplate.find(query(where("day").is(day.toString()))
+                .with(Sort.by(Sort.Direction.DESC, "totalTokens"))
+                .limit(limit), TokenUsage.class);
+    }
+
+    /** Sums of every token counter over all users for the day, plus {@code users}. */
+    public Map<String, Object> totals(LocalDate day) {
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(where("day").is(day.toString())),
+                Aggregation.group()
+                        .count().as("users")
+                        .sum("calls").as("calls")
+                        .sum("promptTokens").as("promptTokens")
+                        .sum("completionTokens").as("completionTokens")
+                        .sum("totalTokens").as("totalTokens")
+                        .sum("estimatedCalls").as("estimatedCalls")
+                        .sum("rejected").as("rejected"),
+                Aggregation.project().andExclude("_id"));
+        Document totals = mongoTemplate.aggregate(agg, TokenUsage.class, Document.class).getUniqueMappedResult();
+        return totals == null ? Map.<String, Object>of("users", 0) : totals;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private Update onInsert(String userId, String day) {
+        return new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("day", day)
+                .setOnInsert("expireAt", LocalDate.parse(day).atStartOfDay(clock.getZone()).toInstant()
+                        .plus(properties.getRetention()));
+    }
+
+    static String id(String userId, String day) {
+        return userId + "|" + day;
+    }
+}
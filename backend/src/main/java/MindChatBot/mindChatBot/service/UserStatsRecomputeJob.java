@@ -0,0 +1,438 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.BatchCheckpoint;
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.model.User;
+import MindChatBot.mindChatBot.model.UserStats;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Nightly rebuild of {@link UserStats} for every user while the app stays online.
+ * <p>
+ * User emails are streamed from UserRepository in index order and cut into chunks of
+ * app.batch.recompute.chunk-size. Each chunk is split recursively on a dedicated ForkJoinPool
+ * (app.batch.recompute.parallelism workers) down to leaves of leaf-size users. A leaf reads each
+ * user's moods and notes through cursors and writes its results in one unordered bulk upsert.
+ * <p>
+ * After a chunk completes, the last email is checkpointed in batch_checkpoints and the job's
+ * lease is renewed, so a crashed or redeployed run resumes from there and only one replica
+ * runs at a time. Chunks are paced to max-users-per-second so that, together with the bounded
+ * pool, the job leaves Mongo capacity for live traffic.
+ * <p>
+ * Metrics: {@code mindchat.batch.users} (job, outcome = ok | failed), {@code mindchat.batch.chunk}
+ * timer, and the {@code mindchat.batch.progress} / {@code mindchat.batch.running} gauges.
+ */
+@Slf4j
+@Service
+public class UserStatsRecomputeJob {
+
+    public static final String JOB = "user-stats-recompute";
+    private static final int CURSOR_BATCH = 500;
+
+    /** What a request to start a run came to. */
+    public enum Start { STARTED, ALREADY_RUNNING, LEASE_HELD }
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final Counter usersOk;
+    private final Counter usersFailed;
+    private final Timer chunkTimer;
+    private final AtomicLong progress = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final String owner;
+
+    @Value("${app.batch.recompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.batch.recompute.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.batch.recompute.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.batch.recompute.leaf-size:25}")
+    private int leafSize;
+
+    @Value("${app.batch.recompute.max-users-per-second:200}")
+    private int maxUsersPerSecond;
+
+    @Value("${app.batch.recompute.lease:10m}")
+    private Duration lease;
+
+    public UserStatsRecomputeJob(MongoTemplate mongoTemplate, UserRepository userRepository, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.usersOk = Counter.builder("mindchat.batch.users").tag("job", JOB).tag("outcome", "ok").register(registry);
+        this.usersFailed = Counter.builder("mindchat.batch.users").tag("job", JOB).tag("outcome", "failed").register(registry);
+        this.chunkTimer = Timer.builder("mindchat.batch.chunk").tag("job", JOB).register(registry);
+        Gauge.builder("mindchat.batch.progress", progress, AtomicLong::get).tag("job", JOB).register(registry);
+        Gauge.builder("mindchat.batch.running", running, r -> r.get() ? 1 : 0).tag("job", JOB).register(registry);
+        this.owner = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /** Hands the run to its own thread; it can take hours and must not hold a scheduler thread. */
+    @Scheduled(cron = "${app.batch.recompute.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) start(false);
+    }
+
+    /**
+     * Takes the lease here, then hands the run to its own thread, so a caller learns whether a run
+     * actually started on this replica, is already going, or is held by another replica.
+     */
+    public Start start(boolean restart) {
+        Start claimed = claim();
+        if (claimed != Start.STARTED) return claimed;
+        Thread t = new Thread(() -> runClaimed(restart), JOB);
+        t.setDaemon(true);
+        t.start();
+        return Start.STARTED;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public BatchCheckpoint checkpoint() {
+        return mongoTemplate.findById(JOB, BatchCheckpoint.class);
+    }
+
+    /**
+     * Resumes an unfinished run, or starts a new one if the last run completed (or
+     * {@code restart}). Returns false when another replica holds the lease.
+     */
+    public boolean run(boolean restart) {
+        return claim() == Start.STARTED && runClaimed(restart);
+    }
+
+    /** Marks this replica as running and takes the lease; anything but STARTED leaves both untouched. */
+    private Start claim() {
+        if (!running.compareAndSet(false, true)) return Start.ALREADY_RUNNING;
+        try {
+            if (acquireLease() != null) return Start.STARTED;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        log.info("{}: lease held by another replica, skipping", JOB);
+        running.set(false);
+        return Start.LEASE_HELD;
+    }
+
+    /** The run itself, once {@link #claim()} succeeded; clears {@code running} when it ends. */
+    private boolean runClaimed(boolean restart) {
+        ForkJoinPool pool = null;
+        try {
+            BatchCheckpoint cp = checkpoint();
+            String runId;
+            String after;
+            long processed;
+            long failed;
+            if (restart || cp.getRunId() == null || BatchCheckpoint.COMPLETED.equals(cp.getStatus())) {
+                runId = UUID.randomUUID().toString();
+                after = "";
+                processed = 0;
+                failed = 0;
+                mongoTemplate.updateFirst(leased(), new Update()
+                        .set("runId", runId).set("status", BatchCheckpoint.RUNNING).set("lastKey", after)
+                        .set("processed", 0L).set("failed", 0L)
+                        .set("startedAt", Instant.now()).set("updatedAt", Instant.now()).unset("finishedAt"),
+                        BatchCheckpoint.class);
+                log.info("{}: starting run {}", JOB, runId);
+            } else {
+                runId = cp.getRunId();
+                after = cp.getLastKey() == null ? "" : cp.getLastKey();
+                processed = cp.getProcessed();
+                failed = cp.getFailed();
+                log.info("{}: resuming run {} after '{}' ({} users done)", JOB, runId, after, processed);
+            }
+            progress.set(processed);
+
+            ForkJoinPool workers = new ForkJoinPool(Math.max(1, parallelism));
+            pool = workers;
+            long started = System.nanoTime();
+            try (Stream<User> users = userRepository.streamEmailsAfter(after)) {
+                Iterator<User> it = users.iterator();
+                List<String> chunk = new ArrayList<>(chunkSize);
+                while (true) {
+                    boolean more = it.hasNext();
+                    if (more) {
+                        String email = it.next().getEmail();
+                        if (email != null) chunk.add(email);
+                    }
+                    if (chunk.size() >= chunkSize || (!more && !chunk.isEmpty())) {
+                        long chunkStart = System.nanoTime();
+                        Totals totals = new Totals();
+                        List<String> ids = List.copyOf(chunk);
+                        chunkTimer.record(() -> { workers.invoke(new Split(ids, runId, totals)); });
+                        processed += totals.ok.get();
+                        failed += totals.failed.get();
+                        if (!saveCheckpoint(ids.get(ids.size() - 1), processed, failed)) {
+                            log.warn("{}: lost the lease, stopping run {}", JOB, runId);
+                            return false;
+                        }
+                        pace(ids.size(), System.nanoTime() - chunkStart);
+                        chunk.clear();
+                    }
+                    if (!more) break;
+                }
+            }
+
+            mongoTemplate.updateFirst(leased(), new Update()
+                    .set("status", BatchCheckpoint.COMPLETED).set("finishedAt", Instant.now())
+                    .set("leaseUntil", Instant.EPOCH), BatchCheckpoint.class);
+            log.info("{}: run {} finished, {} users ok, {} failed, {} s", JOB, runId, processed, failed,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            // the checkpoint stays RUNNING, so the next trigger resumes after the last finished chunk
+            log.error("{}: run aborted: {}", JOB, e.getMessage(), e);
+            return false;
+        } finally {
+            if (pool != null) pool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    /** Takes the lease if it is free, expired or already ours; null when another replica has it. */
+    private BatchCheckpoint acquireLease() {
+        Instant now = Instant.now();
+        Query q = query(where("_id").is(JOB).orOperator(
+                where("leaseUntil").exists(false),
+                where("leaseUntil").lt(now),
+                where("leaseOwner").is(owner)));
+        try {
+            return mongoTemplate.findAndModify(q,
+                    new Update().set("leaseOwner", owner).set("leaseUntil", now.plus(lease)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), BatchCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private Query leased() {
+        return query(where("_id").is(JOB).and("leaseOwner").is(owner));
+    }
+
+    private boolean saveCheckpoint(String lastKey, long processed, long failed) {
+        Instant now = Instant.now();
+        return mongoTemplate.updateFirst(leased(), new Update()
+                .set("lastKey", lastKey).set("processed", processed).set("failed", failed)
+                .set("updatedAt", now).set("leaseUntil", now.plus(lease)), BatchCheckpoint.class)
+                .getMatchedCount() > 0;
+    }
+
+    /** Sleeps off whatever is left of the chunk's time budget at max-users-per-second. */
+    private void pace(int users, long elapsedNanos) throws InterruptedException {
+        if (maxUsersPerSecond <= 0) return;
+        long budget = TimeUnit.SECONDS.toNanos(users) / maxUsersPerSecond;
+        if (budget > elapsedNanos) TimeUnit.NANOSECONDS.sleep(budget - elapsedNanos);
+    }
+
+    private static final class Totals {
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+    }
+
+    /** Halves the user list until it fits in a leaf. */
+    private final class Split extends RecursiveAction {
+        private final List<String> users;
+        private final String runId;
+        private final Totals totals;
+
+        Split(List<String> users, String runId, Totals totals) {
+            this.users = users;
+            this.runId = runId;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (users.size() <= Math.max(1, leafSize)) {
+                new Leaf(users, runId, totals).run();
+                return;
+            }
+            int mid = users.size() / 2;
+            invokeAll(new Split(users.subList(0, mid), runId, totals),
+                      new Split(users.subList(mid, users.size()), runId, totals));
+        }
+    }
+
+    /** Computes a handful of users and writes them in one bulk upsert. */
+    private final class Leaf {
+        private final List<String> users;
+        private final String runId;
+        private final Totals totals;
+
+        Leaf(List<String> users, String runId, Totals totals) {
+            this.users = users;
+            this.runId = runId;
+            this.totals = totals;
+        }
+
+        void run() {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserStats.class);
+            List<String> written = new ArrayList<>(users.size());
+            LocalDate today = LocalDate.now();
+            for (String userId : users) {
+                try {
+                    UserStats s = computeFor(userId, today);
+                    s.setRunId(runId);
+                    bulk.upsert(query(where("_id").is(userId)), toUpdate(s));
+                    written.add(userId);
+                } catch (RuntimeException e) {
+                    log.warn("{}: user {} failed: {}", JOB, userId, e.getMessage());
+                    fail(1);
+                }
+            }
+            if (written.isEmpty()) return;
+            int failedWrites = 0;
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                failedWrites = e.getErrors().size();
+                log.warn("{}: {} of {} stats writes failed: {}", JOB, failedWrites, written.size(),
+                        e.getErrors().get(0).getMessage());
+            } catch (RuntimeException e) {
+                failedWrites = written.size();
+                log.warn("{}: stats write for {} users failed: {}", JOB, written.size(), e.getMessage());
+            }
+            fail(failedWrites);
+            int ok = written.size() - failedWrites;
+            totals.ok.addAndGet(ok);
+            usersOk.increment(ok);
+            progress.addAndGet(ok);
+        }
+
+        private void fail(int n) {
+            if (n == 0) return;
+            totals.failed.addAndGet(n);
+            usersFailed.increment(n);
+        }
+    }
+
+    UserStats computeFor(String userId, LocalDate today) {
+        Query moods = query(where("userId").is(userId)).cursorBatchSize(CURSOR_BATCH);
+        moods.fields().include("year", "month", "day", "emoji");
+        TreeMap<LocalDate, String> days = new TreeMap<>();
+        try (Stream<Mood> cursor = mongoTemplate.stream(moods, Mood.class)) {
+            cursor.forEach(m -> {
+                if (!MoodInsightsService.LEVELS.containsKey(m.getEmoji())) return;
+                try {
+                    days.put(LocalDate.of(m.getYear(), m.getMonth(), m.getDay()), m.getEmoji());
+                } catch (DateTimeException ignored) {
+                    // malformed legacy row
+                }
+            });
+        }
+
+        Query notes = query(where("userId").is(userId)).cursorBatchSize(CURSOR_BATCH);
+        notes.fields().include("date");
+        long noteCount = 0;
+        Set<LocalDate> noteDays = new HashSet<>();
+        LocalDate lastNote = null;
+        try (Stream<JournalEntry> cursor = mongoTemplate.stream(notes, JournalEntry.class)) {
+            Iterator<JournalEntry> it = cursor.iterator();
+            while (it.hasNext()) {
+                LocalDate d = it.next().getDate();
+                noteCount++;
+                if (d == null) continue;
+                noteDays.add(d);
+                if (lastNote == null || d.isAfter(lastNote)) lastNote = d;
+            }
+        }
+
+        UserStats s = summarize(userId, days, today);
+        s.setNoteCount(noteCount);
+        s.setNoteDays(noteDays.size());
+        s.setLastNoteDate(lastNote);
+        return s;
+    }
+
+    /** Counts, average level and streaks from a user's date → main mood series. */
+    static UserStats summarize(String userId, SortedMap<LocalDate, String> days, LocalDate today) {
+        UserStats s = new UserStats();
+        s.setUserId(userId);
+        s.setComputedAt(LocalDateTime.now());
+        s.setMoodDays(days.size());
+
+        Map<String, Integer> mainCounts = new TreeMap<>();
+        int sum = 0;
+        int longest = 0;
+        int run = 0;
+        LocalDate prev = null;
+        for (Map.Entry<LocalDate, String> e : days.entrySet()) {
+            mainCounts.merge(e.getValue(), 1, Integer::sum);
+            sum += MoodInsightsService.LEVELS.get(e.getValue());
+            run = (prev != null && prev.plusDays(1).equals(e.getKey())) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            prev = e.getKey();
+        }
+        s.setMainCounts(mainCounts);
+        s.setAvgLevel(days.isEmpty() ? null : Math.round(sum * 100.0 / days.size()) / 100.0);
+        s.setLongestStreak(longest);
+        // the last run only counts as current if it reaches today or yesterday
+        s.setCurrentStreak(prev != null && !prev.isBefore(today.minusDays(1)) ? run : 0);
+        if (!days.isEmpty()) {
+            s.setFirstMoodDate(days.firstKey());
+            s.setLastMoodDate(days.lastKey());
+        }
+        return s;
+    }
+
+    private Update toUpdate(UserStats s) {
+        return new Update()
+                .set("moodDays", s.getMoodDays())
+                .set("avgLevel", s.getAvgLevel())
+                .set("mainCounts", s.getMainCounts())
+                .set("currentStreak", s.getCurrentStreak())
+                .set("longestStreak", s.getLongestStreak())
+                .set("firstMoodDate", s.getFirstMoodDate())
+                .set("lastMoodDate", s.getLastMoodDate())
+                .set("noteCount", s.getNoteCount())
+                .set("noteDays", s.getNoteDays())
+                .set("lastNoteDate", s.getLastNoteDate())
+                .set("computedAt", s.getComputedAt())
+                .set("runId", s.getRunId());
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Write-behind decorator (app.chat.write-behind.enabled): {@link #save} only enqueues, and a
+ * single flusher thread writes the queue to the backing store in insertMany batches of up to
+ * batch-size documents, or whatever has arrived after flush-interval.
+ * <ul>
+ *   <li>Backpressure: when the bounded queue is full, a save writes through synchronously
+ *       instead of being dropped, so callers slow down to Mongo's pace.</li>
+ *   <li>Read-your-writes: queued logs stay in a per-user overlay until their batch is
+ *       acknowledged, and {@link #findByUser} / {@link #countSince} include them. Ids are
+ *       assigned on enqueue, so overlay entries already visible in Mongo are skipped.</li>
+ *   <li>A batch that fails is retried one document at a time with upserts by id, which is
+ *       idempotent after a partial insertMany.</li>
+ *   <li>{@link #destroy} stops intake and flushes what is left before the context closes.</li>
+ * </ul>
+ * A crash (not a shutdown) loses at most the queued logs, which is the trade-off for
+ * acknowledging the chat reply before its log is durable.
+ */
+@Slf4j
+public class WriteBehindChatLogStore implements ChatLogStore, DisposableBean {
+
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ChatLogStore backend;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<ChatLog> queue;
+    private final Map<String, Map<String, ChatLog>> overlay = new ConcurrentHashMap<>();
+    private final Thread flusher;
+    private volatile boolean accepting = true;
+
+    private final Counter flushed;
+    private final Counter writeThrough;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+
+    public WriteBehindChatLogStore(ChatLogStore backend, int capacity, int batchSize, Duration flushInterval,
+                                   MeterRegistry registry) {
+        this.backend = backend;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("mindchat.chat.writebehind.queue", queue, Collection::size).register(registry);
+        this.flushed = Counter.builder("mindchat.chat.writebehind.flushed").register(registry);
+        this.writeThrough = Counter.builder("mindchat.chat.writebehind.write_through").register(registry);
+        this.failed = Counter.builder("mindchat.chat.writebehind.failed").register(registry);
+        this.batchSizes = DistributionSummary.builder("mindchat.chat.writebehind.batch").register(registry);
+        this.flusher = new Thread(this::flushLoop, "chat-log-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public Mono<ChatLog> save(ChatLog log) {
+        return Mono.defer(() -> {
+            if (log.getId() == null) log.setId(new ObjectId().toHexString());
+            if (!accepting) return backend.save(log);
+            Map<String, ChatLog> mine = overlay.computeIfAbsent(log.getUserId(), k -> new ConcurrentHashMap<>());
+            mine.put(log.getId(), log);
+            if (queue.offer(log)) {
+                // destroy() may have stopped intake since the check above, and the flusher may
+                // already have found the queue empty and exited: take the log back unless it did
+                if (accepting || !queue.remove(log)) return Mono.just(log);
+            }
+            // full (the backpressure) or shutting down: write through
+            mine.remove(log.getId());
+            writeThrough.increment();
+            return backend.save(log);
+        });
+    }
+
+    @Override
+    public Mono<Void> insertAll(List<ChatLog> logs) {
+        return backend.insertAll(logs);
+    }
+
+    @Override
+    public Mono<Long> countSince(String userId, LocalDateTime since) {
+        // briefly over-counts a batch that is acknowledged but not yet cleared; fine for a daily limit
+        return backend.countSince(userId, since).map(n -> n + pending(userId).stream()
+                .filter(l -> l.getTimestamp() != null && l.getTimestamp().isAfter(since))
+                .count());
+    }
+
+    @Override
+    public Flux<ChatLog> findByUser(String userId) {
+        return Flux.defer(() -> {
+            Set<String> seen = new HashSet<>();
+            return backend.findByUser(userId)
+                    .doOnNext(l -> seen.add(l.getId()))
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(pending(userId).stream()
+                            .filter(l -> !seen.contains(l.getId()))
+                            .sorted(Comparator.comparing(ChatLog::getTimestamp,
+                                    Comparator.nullsFirst(Comparator.naturalOrder())))
+                            .toList())));
+        });
+    }
+
+    /** Queued, not yet acknowledged logs for the user. */
+    private List<ChatLog> pending(String userId) {
+        Map<String, ChatLog> mine = overlay.get(userId);
+        return mine == null ? List.of() : List.copyOf(mine.values());
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void flushLoop() {
+        List<ChatLog> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                ChatLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    ChatLog next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Chat log flusher error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChatLog> batch) {
+        try {
+            backend.insertAll(batch).block(WRITE_TIMEOUT);
+            flushed.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Chat log batch of {} failed ({}), retrying one by one", batch.size(), e.getMessage());
+            for (ChatLog l : batch) {
+                try {
+                    backend.save(l).block(WRITE_TIMEOUT);
+                    flushed.increment();
+                } catch (RuntimeException one) {
+                    failed.increment();
+                    log.error("Dropping chat log {} for {}: {}", l.getId(), l.getUserId(), one.getMessage());
+                }
+            }
+        } finally {
+            batchSizes.record(batch.size());
+            for (ChatLog l : batch) {
+                Map<String, ChatLog> mine = overlay.get(l.getUserId());
+                if (mine != null) {
+                    mine.remove(l.getId());
+                    if (mine.isEmpty()) overlay.remove(l.getUserId(), mine);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops intake (later saves write through) and waits for the queue to drain. The flusher is
+     * not interrupted: it notices within one flush interval, and an interrupt could cancel a
+     * batch write halfway.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        accepting = false;
+        flusher.join(WRITE_TIMEOUT.toMillis());
+        if (!queue.isEmpty()) {
+            log.warn("{} chat logs still queued at shutdown", queue.size());
+        }
+    }
+}
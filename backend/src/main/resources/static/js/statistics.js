@@ -73,20 +73,28 @@
 
   let selectedMonth = startOfMonth(NOW);
   let lineChart = null;
-  const MONTH_CACHE = new Map(); // "yyyy-mm" -> Map("yyyy-mm-dd" -> level 1..5)
+  const MONTH_CACHE = new Map(); // "yyyy-mm" -> Map("yyyy-mm-dd" -> { level 1..5, avg7 })
 
-  // ---- pies (overall stats) ----
-  fetch("/user/moods/stats", {
+  // One precomputed document (GET /user/moods/insights); null -> fall back to per-month fetches
+  const INSIGHTS = fetch("/user/moods/insights", {
     headers: { Accept:"application/json", "Cache-Control":"no-cache", ...auth() },
     cache: "no-store", credentials: "same-origin"
   })
-  .then(r => r.json())
-  .then(data => {
-    // Prefer counts if backend provides them; otherwise fall back to existing percentages (sum≈100)
-    const mainCounts = data?.mainMoodCounts || {};
-    const mainStats  = data?.mainMoodStats  || {}; // percentages (old)
-    const subCounts  = data?.subMoodCounts  || {};
-    const subStats   = data?.subMoodStats   || {}; // percentages (old)
+  .then(r => (r.ok ? r.json() : null))
+  .catch(e => { console.error("insights failed", e); return null; });
+
+  // ---- pies (overall stats) ----
+  INSIGHTS
+  .then(insights => insights
+    ? { data: insights, fromInsights: true }
+    : fetch("/user/moods/stats", {
+        headers: { Accept:"application/json", "Cache-Control":"no-cache", ...auth() },
+        cache: "no-store", credentials: "same-origin"
+      }).then(r => r.json()).then(data => ({ data, fromInsights: false })))
+  .then(({ data, fromInsights }) => {
+    renderSummary(data);
+
+    const { mainCounts, mainStats, subCounts, subStats } = pieSource(data, fromInsights);
 
     // Main distribution pie — show counts
     if (pieEl) {
@@ -214,6 +222,84 @@
     renderMonth(selectedMonth);
   });
 
+  // ---- trend summary + weekday bars (insights only) ----
+  // /insights names its counts mainCounts/subCounts; the /stats fallback sends mainMoodCounts/subMoodCounts
+  // and, from older backends, only the percentages (sum≈100)
+  function pieSource(data, fromInsights) {
+    if (fromInsights) {
+      return { mainCounts: data?.mainCounts || {}, mainStats: {}, subCounts: data?.subCounts || {}, subStats: {} };
+    }
+    return {
+      mainCounts: data?.mainMoodCounts || {},
+      mainStats:  data?.mainMoodStats  || {},
+      subCounts:  data?.subMoodCounts  || {},
+      subStats:   data?.subMoodStats   || {},
+    };
+  }
+
+  function renderSummary(data) {
+    const summaryEl = document.getElementById("trendSummary");
+    const weekdayEl = document.getElementById("weekdayChart");
+    if (!data || !Array.isArray(data.days)) return;
+
+    const fmt = (v) => (v == null ? "—" : Number(v).toFixed(2));
+    const thisKey = `${THIS_MONTH.getFullYear()}-${String(THIS_MONTH.getMonth()+1).padStart(2,"0")}`;
+    const cur = (data.months || []).find(m => m.month === thisKey);
+    const delta = cur?.delta == null ? "—" : `${cur.delta > 0 ? "+" : ""}${Number(cur.delta).toFixed(2)}`;
+
+    if (summaryEl) {
+      const rows = [
+        [t("stats_avg7", "7-day average"), fmt(data.avg7)],
+        [t("stats_avg30", "30-day average"), fmt(data.avg30)],
+        [t("stats_weekdays", "Weekdays"), fmt(data.weekdayAvg)],
+        [t("stats_weekends", "Weekends"), fmt(data.weekendAvg)],
+        [t("stats_vsLastMonth", "vs last month"), delta],
+      ];
+      summaryEl.innerHTML = "";
+      for (const [label, value] of rows) {
+        const item = document.createElement("div");
+        item.className = "trend-item";
+        const v = document.createElement("strong");
+        v.textContent = value;
+        const l = document.createElement("span");
+        l.textContent = label;
+        item.append(v, l);
+        summaryEl.appendChild(item);
+      }
+    }
+
+    if (weekdayEl && Array.isArray(data.weekdays)) {
+      const base = new Date(2024, 0, 1); // a Monday
+      const labels = data.weekdays.map((_, i) =>
+        new Date(base.getFullYear(), 0, 1 + i).toLocaleDateString(L, { weekday: "short" }));
+      new Chart(weekdayEl.getContext("2d"), {
+        type: "bar",
+        data: {
+          labels,
+          datasets: [{
+            data: data.weekdays.map(w => w.avg),
+            backgroundColor: data.weekdays.map(w => colorByLevel(Math.round(w.avg || 0))),
+            borderRadius: 6
+          }]
+        },
+        options: {
+          plugins: {
+            legend: { display: false },
+            title: { display: true, text: t("stats_weekdayTitle", "Average mood by weekday"), color: INK, font: { size: 14, weight: "800" } },
+            tooltip: {
+              displayColors: false,
+              callbacks: { label: (c) => ` ${fmt(c.parsed.y)} (n=${data.weekdays[c.dataIndex].count})` }
+            }
+          },
+          scales: {
+            y: { min: 0, max: 5, ticks: { stepSize: 1, color: SUBTEXT, callback: (v) => LABELS[v] || "" }, grid: { color: GRID } },
+            x: { ticks: { color: SUBTEXT }, grid: { display: false } }
+          }
+        }
+      });
+    }
+  }
+
   // ---- monthly data (per-day line) ----
   async function fetchMonthMap(monthStart) {
     const y = monthStart.getFullYear(), m = monthStart.getMonth() + 1;
@@ -221,6 +307,15 @@
     if (MONTH_CACHE.has(key)) return MONTH_CACHE.get(key);
 
     const map = new Map();
+    const insights = await INSIGHTS;
+    if (insights && Array.isArray(insights.days)) {
+      for (const p of insights.days) {
+        if (String(p.date).startsWith(key)) map.set(p.date, { level: p.level, avg7: p.avg7 });
+      }
+      MONTH_CACHE.set(key, map);
+      return map;
+    }
+
     try {
       const res = await fetch(`/user/moods/fetch?year=${y}&month=${m}`, {
         headers: { Accept: "application/json", ...auth() },
@@ -233,7 +328,7 @@
           const main = String(it.emoji || "").toLowerCase();
           if (!day || !LEVEL[main]) continue;
           const d = new Date(y, monthStart.getMonth(), day);
-          map.set(ymd(d), LEVEL[main]); // last one wins per day
+          map.set(ymd(d), { level: LEVEL[main], avg7: null }); // last one wins per day
         }
       }
     } catch (e) { console.error("fetch month failed", e); }
@@ -257,7 +352,8 @@
     }
 
     const map    = await fetchMonthMap(monthStart);
-    const values = days.map(d => map.get(ymd(d)) ?? null);
+    const values = days.map(d => map.get(ymd(d))?.level ?? null);
+    const avg7   = days.map(d => map.get(ymd(d))?.avg7 ?? null);
     const any    = values.some(v => v != null);
 
     if (lineChart) lineChart.destroy();
@@ -287,6 +383,17 @@
           segment: {
             borderColor: (c) => colorByLevel((c.p1?.parsed?.y) ?? (c.p0?.parsed?.y) ?? 3)
           }
+        }, {
+          label: t("stats_avg7", "7-day average"),
+          data: avg7,
+          tension: 0.3,
+          fill: false,
+          spanGaps: true,
+          borderWidth: 2,
+          borderDash: [6, 4],
+          borderColor: SUBTEXT,
+          pointRadius: 0,
+          hitRadius: 0
         }]
       },
       options: {
@@ -304,7 +411,9 @@
                 try { return new Date(d).toLocaleDateString(L, { month:"short", day:"numeric", year:"numeric" }); }
                 catch { return String(d); }
               },
-              label: (c) => ` ${LABELS[c.parsed.y] || "—"}`
+              label: (c) => (c.datasetIndex === 1
+                ? ` ${t("stats_avg7", "7-day average")}: ${Number(c.parsed.y).toFixed(2)}`
+                : ` ${LABELS[c.parsed.y] || "—"}`)
             }
           }
         },
@@ -0,0 +1,76 @@
+package MindChatBot.mindChatBot;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A mongo-java-server per test, for tests that need real query, upsert and unique-index semantics.
+ * Register it with {@code @RegisterExtension}; the server starts on first use and is shut down
+ * after each test. The entities passed in get the indexes they declare, as MongoIndexVerifier
+ * builds them at startup.
+ */
+public class InMemoryMongo implements AfterEachCallback {
+
+    private final String database;
+    private final Class<?>[] indexedEntities;
+
+    private MongoServer server;
+    private String connectionString;
+    private MongoClient client;
+    private MongoTemplate template;
+
+    public InMemoryMongo(String database, Class<?>... indexedEntities) {
+        this.database = database;
+        this.indexedEntities = indexedEntities;
+    }
+
+    /** mongodb:// URI of the running server, for tests that build their own client. */
+    public String connectionString() {
+        if (server == null) {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            connectionString = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        }
+        return connectionString;
+    }
+
+    public MongoClient client() {
+        if (client == null) client = MongoClients.create(connectionString());
+        return client;
+    }
+
+    public MongoTemplate template() {
+        if (template == null) {
+            template = new MongoTemplate(client(), database);
+            MongoPersistentEntityIndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(template.getConverter().getMappingContext());
+            for (Class<?> entity : indexedEntities) {
+                IndexOperations ops = template.indexOps(entity);
+                for (IndexDefinition def : resolver.resolveIndexFor(entity)) {
+                    ops.ensureIndex(def);
+                }
+            }
+        }
+        return template;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if (client != null) client.close();
+        if (server != null) server.shutdown();
+        server = null;
+        connectionString = null;
+        client = null;
+        template = null;
+    }
+}
@@ -0,0 +1,81 @@
+package MindChatBot.mindChatBot.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtTokenProviderTest {
+
+    private static final String LEGACY_SECRET = "legacy-secret-legacy-secret-legacy-secret!";
+    private static final String NEW_SECRET = "rotated-secret-rotated-secret-rotated-secret";
+
+    private final Instant rotation = Instant.now().plus(Duration.ofDays(1));
+
+    private JwtTokenProvider provider() {
+        JwtKeyProperties.KeyDef next = new JwtKeyProperties.KeyDef();
+        next.setKid("k2");
+        next.setSecret(NEW_SECRET);
+        next.setActiveFrom(rotation);
+
+        JwtKeyProperties props = new JwtKeyProperties();
+        props.setKeys(List.of(next));
+        props.setGrace(Duration.ofDays(7));
+
+        JwtTokenProvider provider = new JwtTokenProvider(props);
+        ReflectionTestUtils.setField(provider, "secretKeyValue", LEGACY_SECRET);
+        ReflectionTestUtils.setField(provider, "accessTtl", Duration.ofDays(30));
+        ReflectionTestUtils.setField(provider, "refreshTtl", Duration.ofDays(30));
+        provider.init();
+        return provider;
+    }
+
+    private void advanceTo(JwtTokenProvider provider, Instant when) {
+        ReflectionTestUtils.setField(provider, "ring", provider.computeRing(when));
+    }
+
+    @Test
+    public void tokensFromTheOldKeyStillVerifyDuringGrace() {
+        JwtTokenProvider provider = provider();
+        String before = provider.createRefreshToken("a@b.c");
+
+        advanceTo(provider, rotation.plus(Duration.ofHours(1)));
+        String after = provider.createRefreshToken("a@b.c");
+
+        assertEquals("a@b.c", provider.getRefreshSubject(before));
+        assertEquals("a@b.c", provider.getRefreshSubject(after));
+        assertFalse(provider.isSignedWithCurrentKey(before));
+        assertTrue(provider.isSignedWithCurrentKey(after));
+    }
+
+    @Test
+    public void oldKeyIsDroppedAfterGrace() {
+        JwtTokenProvider provider = provider();
+        String before = provider.createRefreshToken("a@b.c");
+
+        advanceTo(provider, rotation.plus(Duration.ofDays(8)));
+
+        assertNull(provider.getRefreshSubject(before));
+    }
+
+    @Test
+    public void tokensWithoutKidAreVerifiedWithTheLegacySecret() {
+        JwtTokenProvider provider = provider();
+        String legacy = Jwts.builder()
+                .setSubject("a@b.c")
+                .setExpiration(Date.from(Instant.now().plus(Duration.ofMinutes(5))))
+                .signWith(Keys.hmacShaKeyFor(LEGACY_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(provider.validateToken(legacy));
+    }
+}
@@ -0,0 +1,108 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoQueryProfilerTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("profiler");
+
+    @Test
+    public void describe_dropsValuesAndKeepsOperators() {
+        BsonDocument find = BsonDocument.parse("{ find: 'chat_logs', "
+                + "filter: { userId: 'a@b.c', timestamp: { $gt: { $date: 0 } } }, sort: { timestamp: 1 } }");
+
+        MongoQueryProfiler.Query q = MongoQueryProfiler.describe("find", find);
+
+        assertEquals("chat_logs", q.collection());
+        assertEquals("{userId, timestamp:{$gt}}", q.filterShape());
+        assertEquals("{timestamp:1}", q.sortShape());
+        // same shape for a different user
+        BsonDocument other = BsonDocument.parse("{ find: 'chat_logs', "
+                + "filter: { userId: 'x@y.z', timestamp: { $gt: { $date: 5 } } }, sort: { timestamp: 1 } }");
+        assertEquals(q.filterShape(), MongoQueryProfiler.describe("find", other).filterShape());
+    }
+
+    @Test
+    public void describe_keepsFilterAndSortAfterTheDriverReleasesTheCommand() {
+        List<MongoQueryProfiler.Query> described = new CopyOnWriteArrayList<>();
+        CommandListener capture = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (event.getCommandName().equals("find")) {
+                    described.add(MongoQueryProfiler.describe("find", event.getCommand()));
+                }
+            }
+        };
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongo.connectionString()))
+                .addCommandListener(capture)
+                .build();
+        try (MongoClient client = MongoClients.create(settings)) {
+            MongoCollection<Document> notes = client.getDatabase("profiler").getCollection("journal_entries");
+            notes.insertOne(new Document("userId", "a@b.c").append("date", "2026-01-02"));
+            notes.find(new Document("userId", "a@b.c").append("date", new Document("$gte", "2026-01-01")))
+                    .sort(new Document("timestamp", -1))
+                    .first();
+            // later commands reuse the pooled buffers the find command was encoded into
+            for (int i = 0; i < 50; i++) {
+                notes.insertOne(new Document("userId", "other-" + i).append("padding", "x".repeat(500)));
+            }
+        }
+
+        assertEquals(1, described.size());
+        MongoQueryProfiler.Query q = described.get(0);
+        assertEquals("a@b.c", q.filter().getString("userId").getValue());
+        assertEquals("{ 'userId': 1, 'timestamp': -1, 'date': 1 }", q.suggestedIndex());
+    }
+
+    @Test
+    public void parsePlan_flagsCollectionScanAndSuggestsEsrIndex() {
+        BsonDocument find = BsonDocument.parse("{ find: 'journal_entries', "
+                + "filter: { userId: 'a@b.c', date: { $gte: '2025-01-01' } }, sort: { timestamp: -1 } }");
+        MongoQueryProfiler.Query q = MongoQueryProfiler.describe("find", find);
+
+        Document explain = new Document("queryPlanner", new Document("winningPlan",
+                new Document("stage", "SORT").append("inputStage", new Document("stage", "COLLSCAN"))))
+                .append("executionStats", new Document("totalDocsExamined", 5000)
+                        .append("totalKeysExamined", 0).append("nReturned", 12));
+
+        MongoQueryProfiler.Plan plan = MongoQueryProfiler.parsePlan(explain, q);
+
+        assertTrue(plan.collScan());
+        assertTrue(plan.inMemorySort());
+        assertEquals(5000, plan.docsExamined());
+        assertEquals("{ 'userId': 1, 'timestamp': -1, 'date': 1 }", plan.suggestedIndex());
+    }
+
+    @Test
+    public void parsePlan_indexScanHasNoSuggestion() {
+        MongoQueryProfiler.Query q = MongoQueryProfiler.describe("find",
+                BsonDocument.parse("{ find: 'moods', filter: { userId: 'a' } }"));
+        Document explain = new Document("queryPlanner", new Document("winningPlan",
+                new Document("stage", "FETCH").append("inputStage",
+                        new Document("stage", "IXSCAN").append("indexName", "userId"))));
+
+        MongoQueryProfiler.Plan plan = MongoQueryProfiler.parsePlan(explain, q);
+
+        assertFalse(plan.collScan());
+        assertNull(plan.suggestedIndex());
+        assertEquals("FETCH <- IXSCAN(userId)", plan.stages());
+    }
+}
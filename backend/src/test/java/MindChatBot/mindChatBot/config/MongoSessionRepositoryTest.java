@@ -0,0 +1,54 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoSessionRepositoryTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("sessions");
+
+    // two replicas sharing one http_sessions collection, each with its own near-cache
+    private MongoSessionRepository nodeA;
+    private MongoSessionRepository nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        MongoTemplate template = mongo.template();
+        nodeA = new MongoSessionRepository(template, Duration.ofMinutes(30), Duration.ofMinutes(5), 100);
+        nodeB = new MongoSessionRepository(template, Duration.ofMinutes(30), Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    public void logoutOnOneNodeIsSeenByAnotherNodesNearCache() {
+        MongoSessionRepository.MongoSession session = nodeA.createSession();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", "alice");
+        nodeA.save(session);
+        assertNotNull(nodeA.findById(session.getId()));   // now near-cached on A
+
+        nodeB.deleteById(session.getId());
+
+        assertNull(nodeA.findById(session.getId()));
+    }
+
+    @Test
+    public void attributeChangeOnOneNodeReplacesAnotherNodesCachedCopy() {
+        MongoSessionRepository.MongoSession session = nodeA.createSession();
+        session.setAttribute("locale", "en");
+        nodeA.save(session);
+        assertEquals("en", nodeA.findById(session.getId()).getAttribute("locale"));
+
+        MongoSessionRepository.MongoSession onB = nodeB.findById(session.getId());
+        onB.setAttribute("locale", "ko");
+        nodeB.save(onB);
+
+        assertEquals("ko", nodeA.findById(session.getId()).getAttribute("locale"));
+    }
+}
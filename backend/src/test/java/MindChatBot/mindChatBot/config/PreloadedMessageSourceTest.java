@@ -0,0 +1,44 @@
+package MindChatBot.mindChatBot.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreloadedMessageSourceTest {
+
+    @Test
+    public void matchesReloadableSourceForEveryKeyAndLocale() throws Exception {
+        PreloadedMessageSource preloaded = new PreloadedMessageSource("classpath:messages");
+        ReloadableResourceBundleMessageSource reloadable = new ReloadableResourceBundleMessageSource();
+        reloadable.setBasename("classpath:messages");
+        reloadable.setDefaultEncoding("UTF-8");
+        reloadable.setFallbackToSystemLocale(false);
+
+        Properties base = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/messages.properties")) {
+            base.load(in);
+        }
+        for (String tag : new String[]{"en", "ko", "ru", "ko-KR", "fr", ""}) {
+            Locale locale = Locale.forLanguageTag(tag);
+            for (String key : base.stringPropertyNames()) {
+                assertEquals(reloadable.getMessage(key, null, locale), preloaded.getMessage(key, null, locale),
+                        key + " @ " + tag);
+            }
+        }
+    }
+
+    @Test
+    public void knowsItsLocalesAndReportsMissingCodes() {
+        PreloadedMessageSource preloaded = new PreloadedMessageSource("classpath:messages");
+
+        assertTrue(preloaded.getLocales().contains(new Locale("ko")));
+        assertEquals("x", preloaded.getMessage("no.such.key", new Object[]{1}, "x", Locale.ENGLISH));
+        assertThrows(NoSuchMessageException.class, () -> preloaded.getMessage("no.such.key", null, Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,132 @@
+package MindChatBot.mindChatBot.config;
+
+import MindChatBot.mindChatBot.service.InMemoryRateLimitStore;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private static final String PROXY = "35.191.0.10";
+
+    private static RateLimitFilter filter(int ipCapacity, int emailCapacity) {
+        RateLimitProperties.Limit ip = new RateLimitProperties.Limit();
+        ip.setCapacity(ipCapacity);
+        ip.setPeriod(Duration.ofMinutes(10));
+        RateLimitProperties.Limit email = new RateLimitProperties.Limit();
+        email.setCapacity(emailCapacity);
+        email.setPeriod(Duration.ofMinutes(10));
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath("/signup");
+        route.setIp(ip);
+        route.setEmail(email);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setTrustedProxies(List.of("35.191.0.0/16", "130.211.0.0/22"));
+        properties.setRoutes(Map.of("signup", route));
+        return new RateLimitFilter(properties, new InMemoryRateLimitStore());
+    }
+
+    private static MockHttpServletRequest signup(String peer, String forwardedFor, String json) {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/signup");
+        req.setRemoteAddr(peer);
+        if (forwardedFor != null) req.addHeader("X-Forwarded-For", forwardedFor);
+        req.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        req.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return req;
+    }
+
+    private static int status(RateLimitFilter filter, HttpServletRequest req) throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, new MockFilterChain());
+        return res.getStatus();
+    }
+
+    @Test
+    public void clientsBehindTheProxyGetTheirOwnIpBucket() throws Exception {
+        RateLimitFilter filter = filter(1, 100);
+
+        assertEquals(200, status(filter, signup(PROXY, "203.0.113.1, 130.211.0.5", "{}")));
+        assertEquals(429, status(filter, signup(PROXY, "203.0.113.1, 130.211.0.5", "{}")));
+        // another client through the same load balancer is unaffected
+        assertEquals(200, status(filter, signup(PROXY, "203.0.113.2, 130.211.0.5", "{}")));
+    }
+
+    @Test
+    public void forwardedForIsIgnoredFromUntrustedPeersAndLeftOfTheClient() throws Exception {
+        RateLimitFilter filter = filter(1, 100);
+
+        assertEquals(200, status(filter, signup("198.51.100.7", "203.0.113.1", "{}")));
+        // a direct client can't pick a fresh bucket by making up a header
+        assertEquals(429, status(filter, signup("198.51.100.7", "203.0.113.9", "{}")));
+
+        assertEquals(200, status(filter, signup(PROXY, "10.9.9.9, 203.0.113.5", "{}")));
+        // hops the client wrote to the left of its own address don't count either
+        assertEquals(429, status(filter, signup(PROXY, "10.9.9.8, 203.0.113.5", "{}")));
+    }
+
+    @Test
+    public void emailLimitHoldsForUnsizedAndPaddedBodies() throws Exception {
+        RateLimitFilter filter = filter(100, 1);
+        String padded = "{\"email\":\"a@b.com\"" + " ".repeat(8000) + "}";
+
+        assertEquals(200, status(filter, unsized(signup(PROXY, null, padded))));
+        assertEquals(429, status(filter, unsized(signup(PROXY, null, "{\"email\":\"A+x@b.com\"}"))));
+    }
+
+    @Test
+    public void oversizedOrMalformedJsonIsRefused() throws Exception {
+        RateLimitFilter filter = filter(100, 100);
+        String huge = "{\"email\":\"a@b.com\"" + " ".repeat(20_000) + "}";
+
+        assertEquals(413, status(filter, signup(PROXY, null, huge)));
+        assertEquals(413, status(filter, unsized(signup(PROXY, null, huge))));
+        assertEquals(400, status(filter, signup(PROXY, null, "{\"email\":")));
+    }
+
+    @Test
+    public void replayedBodySupportsReadListeners() throws Exception {
+        RateLimitFilter filter = filter(100, 100);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(signup(PROXY, null, "{\"email\":\"a@b.com\"}"), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] done = {false};
+        in.setReadListener(new ReadListener() {
+            @Override public void onDataAvailable() throws IOException {
+                byte[] buf = new byte[64];
+                int n;
+                while (in.isReady() && (n = in.read(buf)) != -1) read.write(buf, 0, n);
+            }
+            @Override public void onAllDataRead() { done[0] = true; }
+            @Override public void onError(Throwable t) { fail(t); }
+        });
+
+        assertTrue(done[0]);
+        assertEquals("{\"email\":\"a@b.com\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    /** As a chunked request arrives: no Content-Length. */
+    private static HttpServletRequest unsized(MockHttpServletRequest req) {
+        return new HttpServletRequestWrapper(req) {
+            @Override public long getContentLengthLong() { return -1; }
+            @Override public int getContentLength() { return -1; }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import MindChatBot.mindChatBot.model.ChatArchive;
+import MindChatBot.mindChatBot.model.ChatLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class ChatArchiveServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("archive", ChatArchive.class);
+
+    @Test
+    public void cutoffIsTheStartOfTheMonthContainingTheAgeLimit() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 15, 10, 0);
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), ChatArchiveService.cutoff(now, Duration.ofDays(90)));
+        assertEquals(LocalDateTime.of(2025, 6, 1, 0, 0), ChatArchiveService.cutoff(now, Duration.ZERO));
+    }
+
+    @Test
+    public void payloadRoundTripsAndCompresses() {
+        List<ChatArchiveCodec.Turn> turns = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            turns.add(new ChatArchiveCodec.Turn("id" + i, "I felt a bit tired today, number " + i,
+                    "That sounds draining. What helped you rest?", LocalDateTime.of(2025, 1, 1 + i % 28, 12, 0)));
+        }
+        byte[] raw = ChatArchiveCodec.json(mapper, turns);
+        byte[] payload = ChatArchiveCodec.deflate(raw);
+        assertTrue(payload.length * 5 < raw.length, "expected at least 5x on repetitive chat text");
+
+        ChatArchive bucket = new ChatArchive();
+        bucket.setUserId("a@b.c");
+        bucket.setPayload(payload);
+        List<ChatLog> logs = new ChatArchiveService(mock(MongoTemplate.class), mapper, new SimpleMeterRegistry()).unpack(bucket);
+
+        assertEquals(200, logs.size());
+        assertEquals("id7", logs.get(7).getId());
+        assertEquals("a@b.c", logs.get(7).getUserId());
+        assertEquals(turns.get(7).message(), logs.get(7).getMessage());
+        assertEquals(turns.get(7).timestamp(), logs.get(7).getTimestamp());
+    }
+
+    @Test
+    public void oldLogsMoveIntoMonthlyBucketsAndLeaveChatLogs() {
+        MongoTemplate template = mongo.template();
+        ChatLog jan1 = chat(template, "a", LocalDateTime.of(2025, 1, 5, 9, 0));
+        ChatLog jan2 = chat(template, "a", LocalDateTime.of(2025, 1, 20, 9, 0));
+        ChatLog feb = chat(template, "a", LocalDateTime.of(2025, 2, 2, 9, 0));
+        chat(template, "b", LocalDateTime.of(2025, 2, 28, 23, 59));
+        ChatLog recent = chat(template, "a", LocalDateTime.of(2025, 3, 1, 0, 0));
+        ChatArchiveService service = service(template);
+
+        ChatArchiveService.Result r = service.archiveBefore(CUTOFF);
+
+        assertEquals(new ChatArchiveService.Result(2, 3, 4), r);
+        assertEquals(List.of(recent.getId()), template.findAll(ChatLog.class).stream().map(ChatLog::getId).toList());
+        assertEquals(3, template.count(new Query(), ChatArchive.class));
+        ChatArchive january = bucket(template, "a", 1);
+        assertEquals(2, january.getCount());
+        assertEquals(jan1.getTimestamp(), january.getFirstTimestamp());
+        assertEquals(jan2.getTimestamp(), january.getLastTimestamp());
+        assertEquals(List.of(jan1.getId(), jan2.getId(), feb.getId()),
+                service.findArchived("a").map(ChatLog::getId).collectList().block());
+        ChatLog unpacked = service.findArchived("a").blockFirst();
+        assertEquals(jan1.getMessage(), unpacked.getMessage());
+        assertEquals("a", unpacked.getUserId());
+    }
+
+    @Test
+    public void aRunInterruptedBeforeTheDeleteIsRepeatedWithoutDuplicates() {
+        MongoTemplate template = mongo.template();
+        ChatLog jan1 = chat(template, "a", LocalDateTime.of(2025, 1, 5, 9, 0));
+        chat(template, "a", LocalDateTime.of(2025, 1, 20, 9, 0));
+        ChatArchiveService service = service(template);
+        service.archiveBefore(CUTOFF);
+
+        // as if the previous pass saved the bucket but died before deleting jan1, and a late turn arrived
+        template.insert(jan1);
+        ChatLog late = chat(template, "a", LocalDateTime.of(2025, 1, 31, 23, 0));
+
+        ChatArchiveService.Result r = service.archiveBefore(CUTOFF);
+
+        assertEquals(2, r.turns());
+        assertEquals(0, template.count(new Query(), ChatLog.class));
+        ChatArchive january = bucket(template, "a", 1);
+        assertEquals(3, january.getCount());
+        assertEquals(late.getTimestamp(), january.getLastTimestamp());
+        List<String> ids = service.findArchived("a").map(ChatLog::getId).collectList().block();
+        assertEquals(3, ids.size());
+        assertEquals(1, ids.stream().filter(jan1.getId()::equals).count());
+    }
+
+    private ChatArchiveService service(MongoTemplate template) {
+        return new ChatArchiveService(template, mapper, new SimpleMeterRegistry());
+    }
+
+    private static ChatLog chat(MongoTemplate template, String userId, LocalDateTime at) {
+        ChatLog log = new ChatLog();
+        log.setId(new ObjectId().toHexString());
+        log.setUserId(userId);
+        log.setMessage("message from day " + at.getDayOfMonth());
+        log.setResponse("reply");
+        log.setTimestamp(at);
+        return template.insert(log);
+    }
+
+    private static ChatArchive bucket(MongoTemplate template, String userId, int month) {
+        return template.findOne(query(where("userId").is(userId).and("year").is(2025).and("month").is(month)),
+                ChatArchive.class);
+    }
+}
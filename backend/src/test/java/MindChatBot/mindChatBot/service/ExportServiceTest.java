@@ -0,0 +1,58 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatArchive;
+import MindChatBot.mindChatBot.model.ChatLog;
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ExportServiceTest {
+
+    @Test
+    public void writesOneTypedJsonObjectPerLine() throws Exception {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("a@b.c")).thenReturn(Optional.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(Mood.class))).thenAnswer(inv -> Stream.of(
+                Mood.builder().userId("a@b.c").year(2025).month(1).day(2).emoji("good").subMood("calm").build()));
+        when(mongoTemplate.stream(any(Query.class), eq(JournalEntry.class))).thenAnswer(inv -> Stream.of(
+                JournalEntry.builder().userId("a@b.c").content("line one\nline two").date(LocalDate.of(2025, 1, 2))
+                        .searchText("line one line two").build()));
+        when(mongoTemplate.stream(any(Query.class), eq(ChatLog.class))).thenAnswer(inv -> Stream.of(
+                new ChatLog("a@b.c", "hi", "hello"), new ChatLog("a@b.c", "bye", "take care")));
+        when(mongoTemplate.stream(any(Query.class), eq(ChatArchive.class))).thenAnswer(inv -> Stream.empty());
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new ExportService(mongoTemplate, userRepository, mapper).writeNdjson("a@b.c", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, count);
+        assertEquals(5, lines.length);
+        assertEquals("export", mapper.readTree(lines[0]).get("type").asText());
+        assertEquals("mood", mapper.readTree(lines[1]).get("type").asText());
+
+        JsonNode note = mapper.readTree(lines[2]);
+        assertEquals("note", note.get("type").asText());
+        assertEquals("line one\nline two", note.get("data").get("content").asText());
+        assertFalse(note.get("data").has("searchText"));
+
+        assertEquals("take care", mapper.readTree(lines[4]).get("data").get("response").asText());
+    }
+}
@@ -0,0 +1,71 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.model.Mood;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ImportServiceTest {
+
+    @Test
+    public void csvReaderHandlesQuotesAndEmbeddedLineBreaks() throws Exception {
+        BufferedReader in = new BufferedReader(new StringReader(
+                "date,note\r\n2025-01-02,\"said \"\"hi\"\", then\nleft\"\n2025-01-03,plain\n"));
+        assertEquals(List.of("date", "note"), ImportService.CsvReader.next(in));
+        assertEquals(List.of("2025-01-02", "said \"hi\", then\nleft"), ImportService.CsvReader.next(in));
+        assertEquals(List.of("2025-01-03", "plain"), ImportService.CsvReader.next(in));
+        assertNull(ImportService.CsvReader.next(in));
+    }
+
+    @Test
+    public void writesValidRowsInBatchesAndReportsInvalidOnes() throws Exception {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations moodOps = mock(BulkOperations.class);
+        BulkOperations noteOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Mood.class))).thenReturn(moodOps);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(JournalEntry.class))).thenReturn(noteOps);
+        NoteClassificationQueue queue = mock(NoteClassificationQueue.class);
+        when(queue.offer(any(), any(), any())).thenReturn(true);
+
+        ImportService service = new ImportService(mongoTemplate, new MoodService(), queue,
+                mock(MoodInsightsService.class), new ObjectMapper());
+        ReflectionTestUtils.setField(service, "maxRows", 100);
+
+        String csv = """
+                date,emoji,subMood,note
+                2025-01-01,good,calm,walked
+                2025-01-02,good,angry,
+                not-a-date,best,proud,
+                2025-01-03,,,no mood today
+                2025-01-01,best,proud,
+                """;
+        ImportService.Report report = service.importStream("a@b.c", new StringReader(csv),
+                ImportService.Format.CSV, 2, true);
+
+        assertEquals(5, report.getRows());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(2, 3), report.getErrors().stream().map(ImportService.RowError::row).toList());
+        // 2025-01-01 twice in one batch collapses to one upsert (last row wins)
+        assertEquals(1, report.getMoodsWritten());
+        assertEquals(2, report.getNotesWritten());
+        verify(moodOps, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(noteOps, times(2)).upsert(any(Query.class), any(Update.class));
+        // only the note whose day got no imported mood is sent for classification
+        verify(queue).offer(eq("a@b.c"), eq(java.time.LocalDate.of(2025, 1, 3)), eq("no mood today"));
+        verifyNoMoreInteractions(queue);
+    }
+}
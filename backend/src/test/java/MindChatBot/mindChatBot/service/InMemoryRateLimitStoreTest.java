@@ -0,0 +1,46 @@
+package MindChatBot.mindChatBot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryRateLimitStoreTest {
+
+    @Test
+    public void tryConsume_allowsUpToCapacityThenDenies() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryConsume("k", 3, Duration.ofMinutes(10)).allowed());
+        }
+        RateLimitStore.Decision denied = store.tryConsume("k", 3, Duration.ofMinutes(10));
+        assertFalse(denied.allowed());
+        assertTrue(denied.retryAfterSeconds() > 0);
+
+        // other keys have their own bucket
+        assertTrue(store.tryConsume("other", 3, Duration.ofMinutes(10)).allowed());
+    }
+
+    @Test
+    public void tryConsume_neverOverGrantsUnderContention() throws Exception {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 400; i++) {
+            pool.submit(() -> {
+                if (store.tryConsume("hot", 50, Duration.ofHours(1)).allowed()) allowed.incrementAndGet();
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+    }
+}
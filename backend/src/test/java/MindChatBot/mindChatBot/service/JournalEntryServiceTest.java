@@ -0,0 +1,92 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import MindChatBot.mindChatBot.model.JournalEntry;
+import MindChatBot.mindChatBot.repository.JournalEntryRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class JournalEntryServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("journal");
+
+    @Test
+    public void cursor_roundTripsTimestampAndId() {
+        String id = new ObjectId().toHexString();
+        LocalDateTime ts = LocalDateTime.of(2025, 3, 1, 21, 15, 4, 123_000_000);
+
+        JournalEntryService.Cursor decoded = JournalEntryService.Cursor.decode(new JournalEntryService.Cursor(ts, id).encode());
+
+        assertEquals(ts, decoded.timestamp());
+        assertEquals(id, decoded.id());
+    }
+
+    @Test
+    public void cursor_roundTripsAMissingTimestamp() {
+        String id = new ObjectId().toHexString();
+
+        JournalEntryService.Cursor decoded = JournalEntryService.Cursor.decode(new JournalEntryService.Cursor(null, id).encode());
+
+        assertNull(decoded.timestamp());
+        assertEquals(id, decoded.id());
+    }
+
+    @Test
+    public void cursor_rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> JournalEntryService.Cursor.decode("not-a-cursor"));
+        String noId = java.util.Base64.getUrlEncoder().encodeToString("2025-03-01T10:00|abc".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> JournalEntryService.Cursor.decode(noId));
+    }
+
+    @Test
+    public void entryPages_walkEveryEntryOnceThroughTiesAndMissingTimestamps() {
+        MongoTemplate template = mongo.template();
+        LocalDateTime t1 = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<JournalEntry> expected = new ArrayList<>();
+        // three entries sharing a timestamp, older and newer ones around them, and legacy rows without one
+        for (LocalDateTime ts : new LocalDateTime[] { t1, t1.minusDays(2), t1, null, t1.plusHours(1), null, t1, t1.minusDays(1), null }) {
+            JournalEntry e = JournalEntry.builder()
+                    .id(new ObjectId().toHexString()).userId("u").date(LocalDate.of(2025, 3, 1))
+                    .content("note").timestamp(ts).build();
+            expected.add(template.insert(e));
+        }
+        // an explicit null, as older clients wrote it, pages like a missing field
+        ObjectId explicitNull = new ObjectId();
+        template.getCollection("journal_entries").insertOne(new Document("_id", explicitNull)
+                .append("userId", "u").append("content", "note").append("timestamp", null));
+        expected.add(JournalEntry.builder().id(explicitNull.toHexString()).build());
+        template.insert(JournalEntry.builder().userId("someone-else").content("x").timestamp(t1).build());
+
+        expected.sort(Comparator.comparing(JournalEntry::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(JournalEntry::getId)
+                .reversed());
+
+        JournalEntryService service = new JournalEntryService(mock(JournalEntryRepository.class), template);
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JournalEntryService.Page<JournalEntry> page = service.getEntryPage("u", cursor, 2);
+            page.items().forEach(e -> walked.add(e.getId()));
+            cursor = page.nextCursor();
+            assertTrue(++pages <= expected.size(), "paging did not terminate");
+        } while (cursor != null);
+
+        assertEquals(expected.stream().map(JournalEntry::getId).toList(), walked);
+        assertEquals(walked.size(), new HashSet<>(walked).size());
+    }
+}
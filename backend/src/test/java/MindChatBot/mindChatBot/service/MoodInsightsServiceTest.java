@@ -0,0 +1,117 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.dto.MoodInsights;
+import MindChatBot.mindChatBot.model.Mood;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MoodInsightsServiceTest {
+
+    @Test
+    public void computesRollingWeekdayMonthlyAndCoOccurrenceFigures() {
+        TreeMap<LocalDate, MoodInsightsService.DayMood> series = new TreeMap<>();
+        // Mon 2025-03-03 .. Sun 2025-03-09, then one day in February
+        series.put(LocalDate.of(2025, 2, 10), new MoodInsightsService.DayMood("bad", "sad"));
+        series.put(LocalDate.of(2025, 3, 3), new MoodInsightsService.DayMood("good", "calm"));
+        series.put(LocalDate.of(2025, 3, 4), new MoodInsightsService.DayMood("poor", "nervous"));
+        series.put(LocalDate.of(2025, 3, 8), new MoodInsightsService.DayMood("best", "proud"));
+        series.put(LocalDate.of(2025, 3, 9), new MoodInsightsService.DayMood("good", "calm"));
+
+        MoodInsights in = MoodInsightsService.compute(series, LocalDate.of(2025, 3, 9));
+
+        assertEquals(5, in.getTotalDays());
+        assertEquals(2, in.getMainCounts().get("good"));
+        assertEquals(0, in.getMainCounts().get("neutral"));
+        assertEquals(2, in.getSubCounts().get("good:calm"));
+
+        // last 7 days: 4, 2, 5, 4 -> 3.75; the 30-day window starts 02-08, so it includes 02-10
+        assertEquals(3.75, in.getAvg7());
+        assertEquals((1 + 4 + 2 + 5 + 4) / 5.0, in.getAvg30());
+        assertEquals(1.0, in.getDays().get(0).getAvg7());
+        assertEquals(3.0, in.getDays().get(2).getAvg7());
+
+        assertEquals(3, in.getWeekdayCount());
+        assertEquals(2, in.getWeekendCount());
+        assertEquals(4.5, in.getWeekendAvg());
+        assertEquals("MONDAY", in.getWeekdays().get(0).getDay());
+        assertEquals(2, in.getWeekdays().get(0).getCount());
+
+        List<MoodInsights.MonthStats> months = in.getMonths();
+        assertEquals("2025-02", months.get(0).getMonth());
+        assertNull(months.get(0).getDelta());
+        assertEquals(3.75, months.get(1).getAvg());
+        assertEquals(2.75, months.get(1).getDelta());
+
+        // one week with three distinct codes -> three pairs, each seen once
+        assertEquals(3, in.getCoOccurrence().size());
+        assertEquals(1, in.getCoOccurrence().get(0).getWeeks());
+    }
+
+    /** The statistics page draws its pies straight from this document, so it must read the same keys. */
+    @Test
+    public void insightsJsonCarriesTheCountsTheStatisticsPiesRead() throws Exception {
+        TreeMap<LocalDate, MoodInsightsService.DayMood> series = new TreeMap<>();
+        series.put(LocalDate.of(2025, 3, 3), new MoodInsightsService.DayMood("good", "calm"));
+        series.put(LocalDate.of(2025, 3, 4), new MoodInsightsService.DayMood("good", "calm"));
+        series.put(LocalDate.of(2025, 3, 5), new MoodInsightsService.DayMood("bad", "sad"));
+
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(
+                MoodInsightsService.compute(series, LocalDate.of(2025, 3, 5))));
+
+        assertEquals(2, json.path("mainCounts").path("good").asInt());
+        assertEquals(1, json.path("mainCounts").path("bad").asInt());
+        assertEquals(2, json.path("subCounts").path("good:calm").asInt());
+
+        String script = new ClassPathResource("static/js/statistics.js").getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(script.contains("data?.mainCounts"), "statistics.js no longer reads insights.mainCounts");
+        assertTrue(script.contains("data?.subCounts"), "statistics.js no longer reads insights.subCounts");
+    }
+
+    @Test
+    public void singleDayWritesPatchTheCachedSeriesWithoutAnotherQuery() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        LocalDate today = LocalDate.now();
+        when(mongoTemplate.find(any(Query.class), eq(Mood.class))).thenReturn(List.of(
+                Mood.builder().year(today.getYear()).month(today.getMonthValue()).day(today.getDayOfMonth())
+                        .emoji("bad").subMood("sad").build()));
+        MoodInsightsService service = new MoodInsightsService(mongoTemplate, Duration.ofMinutes(10), 100);
+
+        assertEquals(1.0, service.getInsights("u").getAvg7());
+        service.onMoodSaved("u", today.getYear(), today.getMonthValue(), today.getDayOfMonth(), "best", "proud");
+        assertEquals(5.0, service.getInsights("u").getAvg7());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Mood.class));
+
+        service.invalidate("u");
+        service.getInsights("u");
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Mood.class));
+    }
+
+    @Test
+    public void anImpossibleDayDropsTheCachedSeriesInsteadOfThrowing() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Mood.class))).thenReturn(List.of());
+        MoodInsightsService service = new MoodInsightsService(mongoTemplate, Duration.ofMinutes(10), 100);
+
+        service.getInsights("u");
+        service.onMoodSaved("u", 2025, 2, 30, "best", "proud");
+        service.getInsights("u");
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Mood.class));
+    }
+}
@@ -1,18 +1,28 @@
 package MindChatBot.mindChatBot.service;
 
+import MindChatBot.mindChatBot.InMemoryMongo;
 import MindChatBot.mindChatBot.model.Mood;
 import MindChatBot.mindChatBot.repository.MoodRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,9 +30,18 @@ public class MoodServiceTest {
     @Mock
     private MoodRepository moodRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MoodInsightsService moodInsightsService;
+
     @InjectMocks
     private MoodService moodService;
 
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("moods", Mood.class);
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -38,13 +57,19 @@ public class MoodServiceTest {
         mood.setSubMood("proud");
         String userId = "user1";
 
-        when(moodRepository.findByUserIdAndYearAndMonthAndDay(userId, 2025, 5, 28)).thenReturn(null);
-        when(moodRepository.save(any(Mood.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Mood.class))).thenReturn(null);
 
-        Mood saved = moodService.saveMood(userId, mood);
+        Mood saved = moodService.saveOrUpdateMood(userId, mood);
         assertEquals("best", saved.getEmoji());
         assertEquals("proud", saved.getSubMood());
         assertEquals(userId, saved.getUserId());
+        assertNotNull(saved.getId());
+        // one atomic upsert, no find-then-save
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Mood.class));
+        verifyNoInteractions(moodRepository);
+        verify(moodInsightsService).onMoodSaved(userId, 2025, 5, 28, "best", "proud");
     }
 
     @Test
@@ -58,9 +83,73 @@ public class MoodServiceTest {
         String userId = "user1";
 
         Exception ex = assertThrows(IllegalArgumentException.class, () -> {
-            moodService.saveMood(userId, mood);
+            moodService.saveMoodWithReply(userId, mood).block();
         });
         assertTrue(ex.getMessage().contains("Invalid subMood"));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    public void writeMood_impossibleDate_isRejectedBeforeWriting() {
+        assertThrows(IllegalArgumentException.class,
+                () -> moodService.writeMood("user1", 2025, 2, 30, "best", "proud", null));
+        verifyNoInteractions(mongoTemplate);
+        verifyNoInteractions(moodInsightsService);
+    }
+
+    @Test
+    public void writeMood_concurrentWritesForOneDay_serializeOnARealServerWithUniqUserDay() throws Exception {
+        MongoTemplate template = mongo.template();
+        assertTrue(template.indexOps(Mood.class).getIndexInfo().stream()
+                .anyMatch(i -> i.getName().equals("uniq_user_day") && i.isUnique()));
+
+        MoodService service = new MoodService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", template);
+        ReflectionTestUtils.setField(service, "moodInsightsService", moodInsightsService);
+
+        List<MoodService.MoodWrite> all = hammerOneDay(service);
+        assertSerialized(all);
+        List<Mood> stored = template.findAll(Mood.class);
+        assertEquals(1, stored.size());
+        assertEquals(all.get(0).current().getId(), stored.get(0).getId());
+    }
+
+    /** 16 threads x 50 writes of changing moods to the same user and day, released together. */
+    private static List<MoodService.MoodWrite> hammerOneDay(MoodService service) throws Exception {
+        String[][] picks = { {"best", "proud"}, {"good", "calm"}, {"bad", "sad"}, {"poor", "nervous"} };
+        int threads = 16, writesPerThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<MoodService.MoodWrite>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<MoodService.MoodWrite> writes = new ArrayList<>();
+                for (int i = 0; i < writesPerThread; i++) {
+                    String[] p = picks[(seed + i) % picks.length];
+                    writes.add(service.writeMood("user1", 2025, 5, 28, p[0], p[1], null));
+                }
+                return writes;
+            }));
+        }
+        start.countDown();
+        List<MoodService.MoodWrite> all = new ArrayList<>();
+        try {
+            for (Future<List<MoodService.MoodWrite>> f : futures) all.addAll(f.get(30, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(threads * writesPerThread, all.size());
+        return all;
+    }
+
+    private static void assertSerialized(List<MoodService.MoodWrite> all) {
+        // exactly one write created the document; every other one saw a previous value, all with the same id
+        assertEquals(1, all.stream().filter(MoodService.MoodWrite::inserted).count());
+        Set<String> ids = new HashSet<>();
+        all.forEach(w -> ids.add(w.current().getId()));
+        assertEquals(1, ids.size());
     }
 
     @Test
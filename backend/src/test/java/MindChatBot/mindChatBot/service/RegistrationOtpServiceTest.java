@@ -0,0 +1,86 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import MindChatBot.mindChatBot.model.OtpCode;
+import MindChatBot.mindChatBot.model.OtpCode.Purpose;
+import MindChatBot.mindChatBot.repository.OtpCodeRepository;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class RegistrationOtpServiceTest {
+
+    private static final String EMAIL = "alice@example.com";
+    private static final String ID = OtpCode.idFor(Purpose.VERIFY, EMAIL);
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("otp");
+
+    private MongoTemplate template;
+    private EmailService emailService;
+    private RegistrationOtpService service;
+
+    @BeforeEach
+    public void setUp() {
+        template = mongo.template();
+        emailService = mock(EmailService.class);
+        service = new RegistrationOtpService(mock(OtpCodeRepository.class), template, mock(UserRepository.class), emailService);
+    }
+
+    @Test
+    public void reissuingKeepsTheWrongGuessesAlreadyMade() {
+        assertTrue(service.issueCode(EMAIL, Purpose.VERIFY));
+        template.updateFirst(query(where("_id").is(ID)), new Update().set("attempts", 3), OtpCode.class);
+        String firstHash = template.findById(ID, OtpCode.class).getCodeHash();
+
+        assertTrue(service.issueCode(EMAIL, Purpose.VERIFY));
+
+        OtpCode otp = template.findById(ID, OtpCode.class);
+        assertEquals(3, otp.getAttempts());
+        assertNotEquals(firstHash, otp.getCodeHash());
+        verify(emailService, times(2)).sendVerificationCode(eq(EMAIL), anyString());
+    }
+
+    @Test
+    public void nothingIsIssuedWhileLockedOut() {
+        assertTrue(service.issueCode(EMAIL, Purpose.VERIFY));
+        Instant lockedUntil = Instant.now().plus(Duration.ofMinutes(15));
+        template.updateFirst(query(where("_id").is(ID)),
+                new Update().set("attempts", 5).set("lockedUntil", lockedUntil), OtpCode.class);
+        String hash = template.findById(ID, OtpCode.class).getCodeHash();
+
+        assertFalse(service.issueCode(EMAIL, Purpose.VERIFY));
+
+        OtpCode otp = template.findById(ID, OtpCode.class);
+        assertEquals(hash, otp.getCodeHash());
+        assertEquals(5, otp.getAttempts());
+        assertNotNull(otp.getLockedUntil());
+        verify(emailService, times(1)).sendVerificationCode(eq(EMAIL), anyString());
+    }
+
+    @Test
+    public void anExpiredLockoutStartsOver() {
+        assertTrue(service.issueCode(EMAIL, Purpose.VERIFY));
+        template.updateFirst(query(where("_id").is(ID)),
+                new Update().set("attempts", 5).set("lockedUntil", Instant.now().minusSeconds(1)), OtpCode.class);
+
+        assertTrue(service.issueCode(EMAIL, Purpose.VERIFY));
+
+        OtpCode otp = template.findById(ID, OtpCode.class);
+        assertEquals(0, otp.getAttempts());
+        assertNull(otp.getLockedUntil());
+    }
+}
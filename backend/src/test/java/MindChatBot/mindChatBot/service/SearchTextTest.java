@@ -0,0 +1,49 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.JournalEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTextTest {
+
+    @Test
+    public void hangulRunsBecomeBigrams_otherWordsStayWhole() {
+        assertEquals("오늘 행복 복했 했다 walked home", SearchText.of("오늘 행복했다! Walked home."));
+        assertEquals("나 ok", SearchText.of("나, OK"));
+    }
+
+    @Test
+    public void queryUsesTheSameTokensAsTheIndex() {
+        assertEquals("행복", SearchText.query("행복"));
+        assertTrue(SearchText.of("정말 행복했다").contains(SearchText.query("행복")));
+        assertEquals("tired work", SearchText.query("tired, tired WORK"));
+    }
+
+    @Test
+    public void languageFollowsTheDominantScript() {
+        assertEquals(SearchText.NONE, SearchText.languageOf("오늘은 good day"));
+        assertEquals(SearchText.RUSSIAN, SearchText.languageOf("Сегодня был хороший день"));
+        assertEquals(SearchText.ENGLISH, SearchText.languageOf("A calm day"));
+        assertEquals(SearchText.ENGLISH, SearchText.languageOf(null));
+    }
+
+    @Test
+    public void indexFillsDerivedFields() {
+        JournalEntry e = JournalEntry.builder().content("Устал после работы").build();
+        SearchText.index(e);
+        assertEquals("устал после работы", e.getSearchText());
+        assertEquals(SearchText.RUSSIAN, e.getLanguage());
+    }
+
+    @Test
+    public void snippetCentersOnFirstMatch() {
+        String text = "x".repeat(200) + " found it " + "y".repeat(200);
+        String s = SearchService.snippet(text, Set.of("found"), Set.of());
+        assertTrue(s.startsWith("…"));
+        assertTrue(s.endsWith("…"));
+        assertTrue(s.contains("found it"));
+    }
+}
@@ -0,0 +1,135 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.config.TokenBudgetProperties;
+import MindChatBot.mindChatBot.model.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenLedgerTest {
+
+    private static final String TODAY_ID = "u@x.com|2026-10-19";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TokenLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        TokenBudgetProperties properties = new TokenBudgetProperties();
+        properties.setPlans(Map.of("free", plan(1000), "staff", plan(0)));
+        ledger = new TokenLedger(mongoTemplate, properties, registry,
+                Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void estimate_countsAsciiByRatioAndOtherCharactersOneEach() {
+        Map<String, Object> request = Map.of("messages", List.of(
+                Map.of("role", "system", "content", "abcdefgh"),   // 8 ASCII chars = 2 tokens
+                Map.of("role", "user", "content", "안녕")));        // 2 tokens
+
+        // 300 completion allowance + 2 messages * 4 overhead + 2 + 2
+        assertEquals(312, ledger.estimate(request));
+    }
+
+    @Test
+    public void check_refusesWhenTodayPlusEstimateWouldExceedThePlan() {
+        stubPlan("free");
+        TokenUsage usage = new TokenUsage();
+        usage.setTotalTokens(900);
+        when(mongoTemplate.findById(TODAY_ID, TokenUsage.class)).thenReturn(usage);
+
+        TokenLedger.Decision fits = ledger.check("u@x.com", TokenLedger.CALL_CHAT, 100);
+        assertTrue(fits.allowed());
+        assertEquals(1000, fits.limit());
+
+        TokenLedger.Decision over = ledger.check("u@x.com", TokenLedger.CALL_CHAT, 101);
+        assertFalse(over.allowed());
+        assertEquals(900, over.used());
+        assertEquals(1.0, registry.counter("mindchat.llm.budget.rejected", "call", "chat", "plan", "free").count());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(TokenUsage.class));
+        assertEquals(1, inc(update.getValue()).get("rejected"));
+    }
+
+    @Test
+    public void check_unlimitedPlanSkipsTheLedgerAndUnknownPlanFallsBackToDefault() {
+        stubPlan("staff");
+        assertTrue(ledger.check("u@x.com", TokenLedger.CALL_CHAT, 1_000_000).allowed());
+        verify(mongoTemplate, never()).findById(any(), eq(TokenUsage.class));
+
+        stubPlan("gold");
+        assertEquals("free", ledger.planOf("u@x.com"));
+    }
+
+    @Test
+    public void check_failsOpenWhenMongoIsUnavailable() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users")))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(ledger.check("u@x.com", TokenLedger.CALL_CLASSIFY, 500).allowed());
+    }
+
+    @Test
+    public void record_chargesTheUsageBlockOrTheEstimateWhenItIsMissing() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        ledger.record("u@x.com", TokenLedger.CALL_CHAT,
+                Map.of("usage", Map.of("prompt_tokens", 120, "completion_tokens", 30)), 400);
+        ledger.record("u@x.com", TokenLedger.CALL_CLASSIFY, Map.of("choices", List.of()), 400);
+
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), update.capture(), eq(TokenUsage.class));
+        Document actual = inc(update.getAllValues().get(0));
+        assertEquals(120L, actual.get("promptTokens"));
+        assertEquals(30L, actual.get("completionTokens"));
+        assertEquals(150L, actual.get("totalTokens"));
+        assertEquals(150L, actual.get("byCall.chat"));
+        assertNull(actual.get("estimatedCalls"));
+
+        Document estimated = inc(update.getAllValues().get(1));
+        assertEquals(400L, estimated.get("totalTokens"));
+        assertEquals(400L, estimated.get("byCall.classify"));
+        assertEquals(1, estimated.get("estimatedCalls"));
+        assertEquals("2026-10-19",
+                ((Document) update.getAllValues().get(1).getUpdateObject().get("$setOnInsert")).get("day"));
+    }
+
+    private void stubPlan(String plan) {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(new Document("plan", plan));
+    }
+
+    private static Document inc(Update update) {
+        return (Document) update.getUpdateObject().get("$inc");
+    }
+
+    private static TokenBudgetProperties.Plan plan(long dailyTokens) {
+        TokenBudgetProperties.Plan p = new TokenBudgetProperties.Plan();
+        p.setDailyTokens(dailyTokens);
+        return p;
+    }
+}
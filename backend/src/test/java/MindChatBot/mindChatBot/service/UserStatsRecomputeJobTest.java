@@ -0,0 +1,197 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.InMemoryMongo;
+import MindChatBot.mindChatBot.model.BatchCheckpoint;
+import MindChatBot.mindChatBot.model.Mood;
+import MindChatBot.mindChatBot.model.User;
+import MindChatBot.mindChatBot.model.UserStats;
+import MindChatBot.mindChatBot.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class UserStatsRecomputeJobTest {
+
+    private static final String JOB = UserStatsRecomputeJob.JOB;
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("batch");
+
+    @Test
+    public void anInterruptedRunResumesAfterItsCheckpoint() throws Exception {
+        MongoTemplate template = mongo.template();
+        seedUsers(template, 6);
+        // two users per chunk, then a two-second pause in which the run is stopped
+        UserStatsRecomputeJob job = job(template, 2, 1);
+        AtomicBoolean firstRun = new AtomicBoolean(true);
+        Thread runner = new Thread(() -> firstRun.set(job.run(false)));
+        runner.start();
+        awaitLastKey(template, "u02@x.com");
+        assertEquals(UserStatsRecomputeJob.Start.ALREADY_RUNNING, job.start(false));
+        runner.interrupt();
+        runner.join(10_000);
+
+        assertFalse(firstRun.get());
+        BatchCheckpoint cp = template.findById(JOB, BatchCheckpoint.class);
+        assertEquals(BatchCheckpoint.RUNNING, cp.getStatus());
+        assertEquals(2, cp.getProcessed());
+        assertEquals(2, template.count(new Query(), UserStats.class));
+
+        // a change to an already-finished user must not be picked up by the resumed run
+        template.insert(mood("u01@x.com", LocalDate.now().minusDays(1)));
+        ReflectionTestUtils.setField(job, "maxUsersPerSecond", 0);
+        assertTrue(job.run(false));
+
+        BatchCheckpoint done = template.findById(JOB, BatchCheckpoint.class);
+        assertEquals(BatchCheckpoint.COMPLETED, done.getStatus());
+        assertEquals(cp.getRunId(), done.getRunId());
+        assertEquals(6, done.getProcessed());
+        assertEquals(1, template.findById("u01@x.com", UserStats.class).getMoodDays());
+        assertEquals(6, template.count(query(where("runId").is(cp.getRunId())), UserStats.class));
+    }
+
+    @Test
+    public void aLeaseHeldElsewhereIsReportedAndTakenOverOnceExpired() {
+        MongoTemplate template = mongo.template();
+        seedUsers(template, 3);
+        BatchCheckpoint held = new BatchCheckpoint();
+        held.setJob(JOB);
+        held.setLeaseOwner("other-replica");
+        held.setLeaseUntil(Instant.now().plus(Duration.ofMinutes(5)));
+        template.insert(held);
+        UserStatsRecomputeJob job = job(template, 2, 0);
+
+        assertEquals(UserStatsRecomputeJob.Start.LEASE_HELD, job.start(false));
+        assertFalse(job.isRunning());
+        assertFalse(job.run(false));
+        assertEquals(0, template.count(new Query(), UserStats.class));
+
+        template.updateFirst(query(where("_id").is(JOB)), new Update().set("leaseUntil", Instant.now().minusSeconds(1)),
+                BatchCheckpoint.class);
+        assertTrue(job.run(false));
+        assertEquals(3, template.count(new Query(), UserStats.class));
+        assertNotEquals("other-replica", template.findById(JOB, BatchCheckpoint.class).getLeaseOwner());
+    }
+
+    @Test
+    public void aRunThatLosesItsLeaseStopsAtTheNextCheckpoint() throws Exception {
+        MongoTemplate template = mongo.template();
+        seedUsers(template, 6);
+        UserStatsRecomputeJob job = job(template, 2, 1);
+        AtomicBoolean result = new AtomicBoolean(true);
+        Thread runner = new Thread(() -> result.set(job.run(false)));
+        runner.start();
+        awaitLastKey(template, "u02@x.com");
+        template.updateFirst(query(where("_id").is(JOB)), new Update().set("leaseOwner", "other-replica"),
+                BatchCheckpoint.class);
+        runner.join(10_000);
+
+        assertFalse(result.get());
+        assertFalse(job.isRunning());
+        BatchCheckpoint cp = template.findById(JOB, BatchCheckpoint.class);
+        assertEquals("u02@x.com", cp.getLastKey());
+        assertEquals("other-replica", cp.getLeaseOwner());
+    }
+
+    @Test
+    public void failedStatsWritesAreCountedAsFailedNotProcessed() {
+        MongoTemplate template = mongo.template();
+        seedUsers(template, 4);
+        // every row of a run carries the same runId, so all but the first upsert break this index
+        template.indexOps(UserStats.class).ensureIndex(new Index("runId", Sort.Direction.ASC).unique());
+        UserStatsRecomputeJob job = job(template, 10, 0);
+        ReflectionTestUtils.setField(job, "leafSize", 10);
+
+        assertTrue(job.run(false));
+
+        BatchCheckpoint cp = template.findById(JOB, BatchCheckpoint.class);
+        assertEquals(1, cp.getProcessed());
+        assertEquals(3, cp.getFailed());
+    }
+
+    private static UserStatsRecomputeJob job(MongoTemplate template, int chunkSize, int maxUsersPerSecond) {
+        UserRepository users = mock(UserRepository.class);
+        when(users.streamEmailsAfter(anyString())).thenAnswer(inv -> template.find(
+                query(where("email").gt(inv.getArgument(0))).with(Sort.by("email")), User.class).stream());
+        UserStatsRecomputeJob job = new UserStatsRecomputeJob(template, users, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(job, "leafSize", 1);
+        ReflectionTestUtils.setField(job, "maxUsersPerSecond", maxUsersPerSecond);
+        ReflectionTestUtils.setField(job, "lease", Duration.ofMinutes(10));
+        return job;
+    }
+
+    /** u01@x.com … with one mood each, logged today. */
+    private static void seedUsers(MongoTemplate template, int n) {
+        for (int i = 1; i <= n; i++) {
+            String email = String.format("u%02d@x.com", i);
+            template.insert(User.builder().email(email).build());
+            template.insert(mood(email, LocalDate.now()));
+        }
+    }
+
+    private static Mood mood(String userId, LocalDate day) {
+        return Mood.builder().userId(userId).year(day.getYear()).month(day.getMonthValue()).day(day.getDayOfMonth())
+                .emoji("good").subMood("calm").build();
+    }
+
+    private static void awaitLastKey(MongoTemplate template, String lastKey) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            BatchCheckpoint cp = template.findById(JOB, BatchCheckpoint.class);
+            if (cp != null && lastKey.equals(cp.getLastKey())) return;
+            Thread.sleep(10);
+        }
+        fail("no checkpoint at " + lastKey);
+    }
+
+    @Test
+    public void streaksCountConsecutiveDaysAndCurrentMustReachYesterday() {
+        TreeMap<LocalDate, String> days = new TreeMap<>();
+        days.put(LocalDate.of(2025, 3, 1), "good");
+        days.put(LocalDate.of(2025, 3, 2), "best");
+        days.put(LocalDate.of(2025, 3, 3), "bad");
+        days.put(LocalDate.of(2025, 3, 5), "good");
+        days.put(LocalDate.of(2025, 3, 6), "good");
+
+        UserStats s = UserStatsRecomputeJob.summarize("u", days, LocalDate.of(2025, 3, 7));
+        assertEquals(5, s.getMoodDays());
+        assertEquals(3, s.getLongestStreak());
+        assertEquals(2, s.getCurrentStreak());
+        assertEquals(3.6, s.getAvgLevel());
+        assertEquals(3, s.getMainCounts().get("good"));
+        assertEquals(LocalDate.of(2025, 3, 1), s.getFirstMoodDate());
+        assertEquals(LocalDate.of(2025, 3, 6), s.getLastMoodDate());
+
+        assertEquals(0, UserStatsRecomputeJob.summarize("u", days, LocalDate.of(2025, 3, 8)).getCurrentStreak());
+    }
+
+    @Test
+    public void emptyHistoryHasNoAverageOrStreak() {
+        UserStats s = UserStatsRecomputeJob.summarize("u", new TreeMap<>(), LocalDate.of(2025, 3, 8));
+        assertEquals(0, s.getMoodDays());
+        assertNull(s.getAvgLevel());
+        assertEquals(0, s.getLongestStreak());
+        assertEquals(0, s.getCurrentStreak());
+    }
+}
@@ -0,0 +1,100 @@
+package MindChatBot.mindChatBot.service;
+
+import MindChatBot.mindChatBot.model.ChatLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindChatLogStoreTest {
+
+    /** In-memory backend whose insertAll can be held back to keep logs "in flight". */
+    static class FakeStore implements ChatLogStore {
+        final Map<String, ChatLog> docs = new ConcurrentHashMap<>();
+        final List<Integer> batches = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public Mono<Long> countSince(String userId, LocalDateTime since) {
+            return Mono.fromCallable(() -> docs.values().stream()
+                    .filter(l -> l.getUserId().equals(userId) && l.getTimestamp().isAfter(since)).count());
+        }
+
+        @Override
+        public Flux<ChatLog> findByUser(String userId) {
+            return Flux.defer(() -> Flux.fromIterable(docs.values().stream()
+                    .filter(l -> l.getUserId().equals(userId)).toList()));
+        }
+
+        @Override
+        public Mono<ChatLog> save(ChatLog log) {
+            return Mono.fromCallable(() -> { docs.put(log.getId(), log); return log; });
+        }
+
+        @Override
+        public Mono<Void> insertAll(List<ChatLog> logs) {
+            return Mono.fromRunnable(() -> {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                batches.add(logs.size());
+                logs.forEach(l -> docs.put(l.getId(), l));
+            });
+        }
+    }
+
+    @Test
+    public void unflushedLogsAreVisibleAndShutdownFlushesThemInBatches() throws Exception {
+        FakeStore backend = new FakeStore();
+        backend.gate = new CountDownLatch(1);
+        WriteBehindChatLogStore store = new WriteBehindChatLogStore(backend, 1000, 10, Duration.ofMillis(50),
+                new SimpleMeterRegistry());
+
+        for (int i = 0; i < 25; i++) store.save(new ChatLog("u", "m" + i, "r" + i)).block();
+
+        // nothing is durable yet, but the user sees all of it, once each
+        List<ChatLog> history = store.findByUser("u").collectList().block();
+        assertEquals(25, history.size());
+        assertEquals(25L, store.countSince("u", LocalDateTime.now().minusMinutes(1)).block());
+
+        backend.gate.countDown();
+        store.destroy();
+
+        assertEquals(25, backend.docs.size());
+        assertTrue(backend.batches.stream().allMatch(n -> n <= 10), backend.batches.toString());
+        assertEquals(25, store.findByUser("u").collectList().block().size());
+        assertEquals(0, store.queued());
+    }
+
+    @Test
+    public void fullQueueWritesThroughInsteadOfDropping() throws Exception {
+        FakeStore backend = new FakeStore();
+        backend.gate = new CountDownLatch(1);
+        WriteBehindChatLogStore store = new WriteBehindChatLogStore(backend, 2, 1, Duration.ofMillis(10),
+                new SimpleMeterRegistry());
+
+        List<ChatLog> saved = new ArrayList<>();
+        for (int i = 0; i < 10; i++) saved.add(store.save(new ChatLog("u", "m" + i, "r")).block());
+
+        // the flusher holds at most one batch plus two queued; the rest went straight to the backend
+        assertTrue(backend.docs.size() >= 7, "write-through count " + backend.docs.size());
+        backend.gate.countDown();
+        store.destroy();
+        assertEquals(10, backend.docs.size());
+        saved.forEach(l -> assertTrue(backend.docs.containsKey(l.getId())));
+    }
+}
@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Cold-start comparison: plain jar vs Spring AOT, each with and without an AppCDS archive.
+# Usage: ./startup-bench.sh [runs]   (needs a JDK 17 with jcmd on PATH; nothing external is contacted)
+RUNS="${1:-5}"
+OUT="build/startup-bench"
+mkdir -p "$OUT"
+
+export MONGO_URI="mongodb://127.0.0.1:1/?serverSelectionTimeoutMS=100"
+export JWT_SECRET_KEY="startup-bench-secret-startup-bench-secret-00"
+export OPENAI_API_KEY="unused" MAIL_PASSWORD="unused"
+APP_ARGS="--server.port=0 --app.mongo.create-missing-indexes=false"
+
+build() { # $1 = variant name, rest = gradle flags
+  local name="$1"; shift
+  ./gradlew -q bootJar -x test "$@"
+  rm -rf "$OUT/$name"
+  java -Djarmode=tools -jar build/libs/*-SNAPSHOT.jar extract --destination "$OUT/$name" >/dev/null
+  (cd "$OUT/$name" && java $EXTRA -XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh \
+      -jar app.jar $APP_ARGS >/dev/null 2>&1)
+}
+
+measure() { # $1 = variant dir, $2 = label, rest = JVM flags
+  local dir="$1" label="$2"; shift 2
+  local times=() heaps=()
+  for _ in $(seq "$RUNS"); do
+    local log; log="$(mktemp)"
+    (cd "$dir" && exec java "$@" -jar app.jar $APP_ARGS >"$log" 2>&1) &
+    local pid=$!
+    for _ in $(seq 600); do grep -q "Started MindChatBotApplication" "$log" && break; sleep 0.1; done
+    times+=("$(sed -n 's/.*Started MindChatBotApplication in \([0-9.]*\) seconds.*/\1/p' "$log")")
+    jcmd "$pid" GC.run >/dev/null 2>&1 || true
+    heaps+=("$(jcmd "$pid" GC.heap_info 2>/dev/null | sed -n 's/.*total [0-9]*K, used \([0-9]*\)K.*/\1/p' | head -1)")
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+  done
+  local t h
+  t="$(printf '%s\n' "${times[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')"
+  h="$(printf '%s\n' "${heaps[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')"
+  printf '%-16s %10s s %10s KB\n' "$label" "$t" "$h" | tee -a "$OUT/results.txt"
+}
+
+EXTRA="" build plain
+EXTRA="-Dspring.aot.enabled=true" build aot -Paot
+
+: > "$OUT/results.txt"
+printf '%-16s %12s %13s\n' "variant" "start (p50)" "heap after GC" | tee -a "$OUT/results.txt"
+measure "$OUT/plain" "jar"
+measure "$OUT/plain" "jar+cds"  -XX:SharedArchiveFile=application.jsa
+measure "$OUT/aot"   "aot"      -Dspring.aot.enabled=true
+measure "$OUT/aot"   "aot+cds"  -Dspring.aot.enabled=true -XX:SharedArchiveFile=application.jsa
@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Platform vs virtual threads on Java 21, same load profile, using the offline loadTest harness.
+# Usage: ./vthreads-bench.sh [rps] [duration]   (needs a JDK 21 toolchain; nothing external is contacted)
+RPS="${1:-200}"
+DURATION="${2:-60s}"
+OUT="build/reports/vthreads-bench"
+rm -rf "$OUT"
+mkdir -p "$OUT/platform" "$OUT/virtual"
+
+COMMON=(-PjavaVersion=21 -Ploadtest.rps="$RPS" -Ploadtest.duration="$DURATION" -Ploadtest.users=200
+        -Ploadtest.latency=lognormal:1500:0.6)
+
+./gradlew -q loadTest "${COMMON[@]}" -Ploadtest.reportDir="$OUT/platform" | tee "$OUT/platform.log"
+./gradlew -q loadTest "${COMMON[@]}" -Ploadtest.reportDir="$OUT/virtual" -Pvthreads | tee "$OUT/virtual.log"
+
+echo
+echo "Pinned-thread reports during the virtual run: $(grep -c 'VirtualThread\[' "$OUT/virtual.log" || true)"
+echo "JSON reports: $(ls "$OUT"/platform/*.json) $(ls "$OUT"/virtual/*.json)"